@@ -0,0 +1,74 @@
+package duke.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import duke.models.Deadline;
+import duke.models.Event;
+import duke.models.Todo;
+
+/**
+ * Generates the lists of Todos benchmarks run against. Lists are generated from a fixed seed so
+ * that every run of a benchmark sees the same Todos
+ */
+public class BenchmarkData {
+    /** Words messages are made of, a few are common and most are rare so postings vary in length */
+    private static final String[] WORDS = {"read", "book", "return", "assignment", "meeting", "project",
+        "lecture", "tutorial", "groceries", "laundry", "call", "email", "report", "review", "exam", "lab"};
+    /** Epoch minute of the first date time handed out, 1st January 2020 */
+    private static final long FIRST_EPOCH_MINUTE = 26_297_280L;
+    /** Minutes in a year, date times are spread over a year */
+    private static final int MINUTES_PER_YEAR = 365 * 24 * 60;
+
+    /**
+     * Explicit definition of the default constructor, every method is static
+     */
+    private BenchmarkData() {}
+
+    /**
+     * Generates a list of Todos, Deadlines and Events in roughly equal parts
+     * @param size number of Todos to generate
+     * @return List of generated Todos
+     */
+    public static List<Optional<? extends Todo>> generateTodos(int size) {
+        Random random = new Random(size);
+        List<Optional<? extends Todo>> todos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String message = generateMessage(random, i);
+            boolean isDone = random.nextInt(4) == 0;
+            long epochMinute = FIRST_EPOCH_MINUTE + random.nextInt(MINUTES_PER_YEAR);
+            // @formatter:off
+            switch (i % 3) {
+            case 0:
+                todos.add(Optional.of(new Todo(message, isDone)));
+                break;
+            case 1:
+                todos.add(Optional.of(new Deadline(message, isDone, epochMinute)));
+                break;
+            default:
+                todos.add(Optional.of(new Event(message, isDone, epochMinute)));
+                break;
+            }
+        }
+        return todos;
+    }
+
+    /**
+     * Generates a message of a few common words followed by a word unique to the Todo
+     * @param random source of randomness
+     * @param index position of the Todo the message is for
+     * @return generated message
+     */
+    private static String generateMessage(Random random, int index) {
+        StringBuilder sb = new StringBuilder();
+        int wordCount = 2 + random.nextInt(4);
+        for (int i = 0; i < wordCount; i++) {
+            // squaring skews picks towards the first words
+            double pick = random.nextDouble();
+            sb.append(WORDS[(int) (pick * pick * WORDS.length)]).append(' ');
+        }
+        return sb.append("task").append(index).toString();
+    }
+}
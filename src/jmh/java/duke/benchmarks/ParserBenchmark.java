@@ -0,0 +1,39 @@
+package duke.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import duke.models.Commands;
+import duke.models.Parser;
+
+/**
+ * Measures tokenizing an input line and looking up its command, the way Ui does before running
+ * any command
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+    /** input line typed in by the user */
+    @Param({"list", "todo read book", "deadline return book /by 2/12/2020 1800",
+        "update 3 -m read another book", "unknown command"})
+    private String input;
+
+    @Benchmark
+    public Commands getCommand() {
+        return new Parser(this.input).getCommand();
+    }
+}
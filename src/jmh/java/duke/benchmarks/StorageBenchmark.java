@@ -0,0 +1,91 @@
+package duke.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import duke.models.Storage;
+import duke.models.StorageFormat;
+import duke.models.Todo;
+
+/**
+ * Measures loading and saving a generated database in each storage format. Journalling is off so
+ * that a save writes the whole snapshot every time
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+    /** number of Todos in the database */
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+    /** format the database is saved in */
+    @Param({"TEXT", "BINARY"})
+    private StorageFormat format;
+
+    /** directory holding the generated database */
+    private Path directory;
+    /** Storage reading and writing the generated database */
+    private Storage storage;
+    /** Todos written by the save benchmark */
+    private List<Optional<? extends Todo>> todos;
+
+    /**
+     * Generates the Todos and saves them once so that there is a database to load
+     * @throws IOException when the temporary directory cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("duke-benchmark");
+        this.storage = new Storage(this.directory.resolve("duke.txt").toString(), this.directory.toString(),
+                false, this.format);
+        this.todos = BenchmarkData.generateTodos(this.size);
+        this.storage.saveTasksToLocalDatabase(this.todos);
+    }
+
+    /**
+     * Deletes the generated database
+     */
+    @TearDown
+    public void tearDown() {
+        File[] files = this.directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                // noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+        // noinspection ResultOfMethodCallIgnored
+        this.directory.toFile().delete();
+    }
+
+    @Benchmark
+    public List<Optional<? extends Todo>> retrieveLocalDatabase() {
+        return this.storage.retrieveLocalDatabase();
+    }
+
+    @Benchmark
+    public void saveTasksToLocalDatabase() {
+        this.storage.saveTasksToLocalDatabase(this.todos);
+    }
+}
@@ -0,0 +1,113 @@
+package duke.benchmarks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import duke.controllers.TaskList;
+import duke.exceptions.DukeBlankDetailsException;
+import duke.exceptions.DukeBlankTaskException;
+import duke.exceptions.DukeDateTimeParseException;
+import duke.exceptions.DukeInvalidFlagException;
+import duke.exceptions.DukeTaskIndexOutOfRangeException;
+import duke.models.Pair;
+import duke.models.Todo;
+
+/**
+ * Measures the cost of every mutation of a TaskList and of finding by keyword. TaskList is
+ * immutable, so every invocation starts from the same list and the updated list is discarded
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskListBenchmark {
+    /** number of Todos in the list */
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    /** list every benchmark runs against */
+    private TaskList taskList;
+    /** arguments of a todo command */
+    private List<String> todoArgs;
+    /** arguments of a deadline command */
+    private List<String> deadlineArgs;
+    /** arguments of a done, delete or update command, pointing at the middle of the list */
+    private List<String> middleIndexArgs;
+    /** arguments of an update command changing only the message */
+    private List<String> updateMessageArgs;
+    /** keywords matching a small share of the list */
+    private List<String> rareKeywords;
+    /** keywords matching most of the list */
+    private List<String> commonKeywords;
+
+    /**
+     * Builds the list and the arguments of every command, and warms the keyword index so that
+     * finds measure lookups rather than building the index
+     */
+    @Setup
+    public void setUp() {
+        this.taskList = new TaskList(BenchmarkData.generateTodos(size));
+        String middleIndex = String.valueOf(size / 2);
+        this.todoArgs = List.of("read", "book", "again");
+        this.deadlineArgs = List.of("return", "book", "/by", "2/12/2020", "1800");
+        this.middleIndexArgs = List.of(middleIndex);
+        this.updateMessageArgs = List.of(middleIndex, "-m", "renamed", "task");
+        this.rareKeywords = List.of("lab", "exam");
+        this.commonKeywords = List.of("read");
+        this.taskList.findByKeyword(this.rareKeywords);
+    }
+
+    @Benchmark
+    public Pair<TaskList, Optional<? extends Todo>> addTodo() throws DukeBlankTaskException {
+        return this.taskList.addTodo(this.todoArgs);
+    }
+
+    @Benchmark
+    public Pair<TaskList, Optional<? extends Todo>> addDeadline() throws DukeBlankTaskException,
+            DukeBlankDetailsException, DukeDateTimeParseException {
+        return this.taskList.addDeadline(this.deadlineArgs);
+    }
+
+    @Benchmark
+    public Pair<TaskList, Optional<? extends Todo>> deleteTodo() throws DukeBlankTaskException,
+            DukeTaskIndexOutOfRangeException {
+        return this.taskList.deleteTodo(this.middleIndexArgs);
+    }
+
+    @Benchmark
+    public Pair<TaskList, Optional<? extends Todo>> markAsDone() throws DukeTaskIndexOutOfRangeException {
+        return this.taskList.markAsDone(this.middleIndexArgs);
+    }
+
+    @Benchmark
+    public Pair<TaskList, Optional<? extends Todo>> updateMessage() throws DukeBlankTaskException,
+            DukeTaskIndexOutOfRangeException, DukeDateTimeParseException, DukeInvalidFlagException,
+            DukeBlankDetailsException {
+        return this.taskList.updateTodo(this.updateMessageArgs);
+    }
+
+    @Benchmark
+    public List<Optional<? extends Todo>> findRareKeywords() {
+        return this.taskList.findByKeyword(this.rareKeywords);
+    }
+
+    @Benchmark
+    public List<Optional<? extends Todo>> findCommonKeyword() {
+        return this.taskList.findByKeyword(this.commonKeywords);
+    }
+}
@@ -0,0 +1,51 @@
+package duke.benchmarks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import duke.models.Todo;
+import duke.views.TodosView;
+
+/**
+ * Measures rendering the reply to a list command
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodosViewBenchmark {
+    /** number of Todos in the list */
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    /** Todos rendered by every invocation */
+    private List<Optional<? extends Todo>> todos;
+
+    /**
+     * Generates the Todos to render
+     */
+    @Setup
+    public void setUp() {
+        this.todos = BenchmarkData.generateTodos(this.size);
+    }
+
+    @Benchmark
+    public String formatListOfTodosToString() {
+        return TodosView.formatListOfTodosToString(this.todos);
+    }
+}
@@ -0,0 +1,30 @@
+import javafx.scene.image.Image;
+import javafx.scene.paint.ImagePattern;
+
+/**
+ * Display picture shown beside every message of one sender. The ImagePattern filling the picture
+ * is built once here and shared by every DialogBox showing it
+ */
+public class Avatar {
+    /** pattern filling the display picture */
+    private final ImagePattern pattern;
+    /** radius of the display picture */
+    private final double radius;
+
+    /**
+     * Creates an Avatar showing the image passed in
+     * @param image image of the sender
+     */
+    public Avatar(Image image) {
+        this.pattern = new ImagePattern(image);
+        this.radius = image.getHeight() / 4;
+    }
+
+    public ImagePattern getPattern() {
+        return this.pattern;
+    }
+
+    public double getRadius() {
+        return this.radius;
+    }
+}
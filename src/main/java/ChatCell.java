@@ -0,0 +1,58 @@
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+
+/**
+ * Cell of the chat ListView. The ListView only creates enough cells to fill its viewport and
+ * reuses them while scrolling, so each cell holds a single DialogBox and refills it with
+ * whichever message it is showing. A cell left empty hands its DialogBox back to the pool
+ */
+public class ChatCell extends ListCell<ChatMessage> {
+    /** Width taken by the ListView's padding and scroll bar, which dialogs are kept clear of */
+    private static final double LIST_INSETS_WIDTH = 20.0;
+
+    /** ListView the cell belongs to */
+    private final ListView<ChatMessage> listView;
+    /** avatar shown beside messages from the user */
+    private final Avatar userAvatar;
+    /** avatar shown beside messages from Duke */
+    private final Avatar dukeAvatar;
+    /** dialog showing the message of this cell, null while the cell is empty */
+    private DialogBox dialogBox;
+
+    /**
+     * Creates a cell of the ListView passed in, its dialog following the width of the ListView so
+     * that long messages wrap
+     * @param listView ListView the cell belongs to
+     * @param userAvatar avatar shown beside messages from the user
+     * @param dukeAvatar avatar shown beside messages from Duke
+     */
+    public ChatCell(ListView<ChatMessage> listView, Avatar userAvatar, Avatar dukeAvatar) {
+        this.listView = listView;
+        this.userAvatar = userAvatar;
+        this.dukeAvatar = dukeAvatar;
+        setPrefWidth(0);
+    }
+
+    @Override
+    protected void updateItem(ChatMessage message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        setText(null);
+        if (isEmpty || message == null) {
+            setGraphic(null);
+            if (this.dialogBox != null) {
+                DialogBox.release(this.dialogBox);
+                this.dialogBox = null;
+            }
+            return;
+        }
+
+        Avatar avatar = message.isFromUser() ? this.userAvatar : this.dukeAvatar;
+        if (this.dialogBox == null) {
+            this.dialogBox = DialogBox.acquire(message.getText(), avatar, !message.isFromUser());
+            this.dialogBox.prefWidthProperty().bind(this.listView.widthProperty().subtract(LIST_INSETS_WIDTH));
+        } else {
+            this.dialogBox.showMessage(message.getText(), avatar, !message.isFromUser());
+        }
+        setGraphic(this.dialogBox);
+    }
+}
@@ -0,0 +1,102 @@
+import javafx.collections.ModifiableObservableListBase;
+
+/**
+ * Observable list of the most recent chat messages backed by a ring buffer of fixed capacity.
+ * Appending to a full history drops the oldest message in the same change, so a ListView showing
+ * the history never holds more than capacity items however long the session runs
+ *
+ * @param <E> type of the messages held
+ */
+public class ChatHistory<E> extends ModifiableObservableListBase<E> {
+    /** ring buffer holding the messages, the oldest message is at head */
+    private final Object[] elements;
+    /** position of the oldest message in the ring buffer */
+    private int head;
+    /** number of messages held */
+    private int size;
+
+    /**
+     * Creates an empty history holding at most capacity messages
+     * @param capacity maximum number of messages held
+     */
+    public ChatHistory(int capacity) {
+        assert capacity > 0 : "Chat history capacity should be positive";
+        this.elements = new Object[capacity];
+    }
+
+    /**
+     * Appends a message, dropping the oldest message first if the history is full
+     * @param message message to append
+     */
+    public void append(E message) {
+        beginChange();
+        try {
+            if (this.size == this.elements.length) {
+                remove(0);
+            }
+            add(message);
+        } finally {
+            endChange();
+        }
+    }
+
+    /**
+     * Returns position in the ring buffer of the message at the index passed in
+     * @param index index of the message in the list
+     * @return position in the ring buffer
+     */
+    private int slotOf(int index) {
+        return (this.head + index) % this.elements.length;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.size);
+        }
+        return (E) this.elements[slotOf(index)];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    protected void doAdd(int index, E element) {
+        if (this.size == this.elements.length) {
+            throw new IllegalStateException("Chat history is full, use append to drop the oldest message");
+        }
+        // messages are only ever appended in practice, which shifts nothing
+        for (int i = this.size; i > index; i--) {
+            this.elements[slotOf(i)] = this.elements[slotOf(i - 1)];
+        }
+        this.elements[slotOf(index)] = element;
+        this.size++;
+    }
+
+    @Override
+    protected E doSet(int index, E element) {
+        E oldElement = get(index);
+        this.elements[slotOf(index)] = element;
+        return oldElement;
+    }
+
+    @Override
+    protected E doRemove(int index) {
+        E oldElement = get(index);
+        if (index == 0) {
+            // dropping the oldest message only moves the head
+            this.elements[this.head] = null;
+            this.head = slotOf(1);
+        } else {
+            for (int i = index; i < this.size - 1; i++) {
+                this.elements[slotOf(i)] = this.elements[slotOf(i + 1)];
+            }
+            this.elements[slotOf(this.size - 1)] = null;
+        }
+        this.size--;
+        return oldElement;
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Single message shown in the chat, either typed in by the user or replied by Duke
+ */
+public class ChatMessage {
+    /** text of the message */
+    private final String text;
+    /** true if the message was typed in by the user */
+    private final boolean isFromUser;
+
+    /**
+     * Creates a message from its parts
+     * @param text text of the message
+     * @param isFromUser true if the message was typed in by the user
+     */
+    private ChatMessage(String text, boolean isFromUser) {
+        this.text = text;
+        this.isFromUser = isFromUser;
+    }
+
+    /**
+     * Creates a message typed in by the user
+     * @param text text of the message
+     * @return message from the user
+     */
+    public static ChatMessage fromUser(String text) {
+        return new ChatMessage(text, true);
+    }
+
+    /**
+     * Creates a message replied by Duke
+     * @param text text of the message
+     * @return message from Duke
+     */
+    public static ChatMessage fromDuke(String text) {
+        return new ChatMessage(text, false);
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
+    public boolean isFromUser() {
+        return this.isFromUser;
+    }
+}
@@ -1,60 +1,102 @@
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.layout.HBox;
-import javafx.scene.paint.ImagePattern;
 import javafx.scene.shape.Circle;
 
-import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 public class DialogBox extends HBox {
+    /** Largest number of released DialogBoxes kept for reuse */
+    private static final int MAX_POOLED_DIALOG_BOXES = 32;
+    /** Released DialogBoxes waiting to be reused, only used on the FX thread */
+    private static final Deque<DialogBox> POOL = new ArrayDeque<>();
 
-    @FXML
-    private Label dialog;
-    @FXML
-    private Circle displayPicture;
-
-    public DialogBox(String text, Image image) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/views/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            System.out.println("Error came from dialog box");
-            e.printStackTrace();
-        }
+    private final Label dialog = new Label();
+    private final Circle displayPicture = new Circle();
 
-        dialog.setText(text);
-        // set full dialog height if it overflows
-        this.setHeight(dialog.getHeight());
+    /** avatar currently shown by the display picture */
+    private Avatar displayedAvatar;
+    /** true if the display picture is on the left of the text */
+    private boolean isFlipped;
 
-        displayPicture.setFill(new ImagePattern(image));
-        displayPicture.setRadius(image.getHeight() / 4);
+    /**
+     * Builds the nodes of a dialog box in code, laid out with the text on the left and the display
+     * picture on the right
+     */
+    private DialogBox() {
+        dialog.setWrapText(true);
+        setAlignment(Pos.TOP_RIGHT);
+        setPrefWidth(400.0);
+        setMaxWidth(Double.MAX_VALUE);
+        setPadding(new Insets(15.0, 5.0, 15.0, 5.0));
+        getChildren().setAll(dialog, displayPicture);
+    }
+
+    /**
+     * Returns a dialog box showing the message passed in, reusing a released dialog box if there
+     * is one
+     * @param text text of the message
+     * @param avatar avatar of whoever sent the message
+     * @param isFlippedWanted true to show the display picture on the left of the text
+     * @return dialog box showing the message
+     */
+    public static DialogBox acquire(String text, Avatar avatar, boolean isFlippedWanted) {
+        DialogBox dialogBox = POOL.isEmpty() ? new DialogBox() : POOL.pop();
+        dialogBox.showMessage(text, avatar, isFlippedWanted);
+        return dialogBox;
+    }
+
+    /**
+     * Hands a dialog box that is no longer shown back for reuse
+     * @param dialogBox dialog box that was removed from the scene
+     */
+    public static void release(DialogBox dialogBox) {
+        // unbinding also stops the list width from keeping a dropped dialog box alive
+        dialogBox.prefWidthProperty().unbind();
+        if (POOL.size() < MAX_POOLED_DIALOG_BOXES) {
+            dialogBox.dialog.setText(null);
+            POOL.push(dialogBox);
+        }
     }
 
     /**
      * Flips dialog box such that ImageView is on left and text is on right
      */
     private void flip() {
-        setAlignment(Pos.TOP_LEFT);
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        FXCollections.reverse(tmp);
-        getChildren().setAll(tmp);
+        isFlipped = !isFlipped;
+        setAlignment(isFlipped ? Pos.TOP_LEFT : Pos.TOP_RIGHT);
+        if (isFlipped) {
+            getChildren().setAll(displayPicture, dialog);
+        } else {
+            getChildren().setAll(dialog, displayPicture);
+        }
+    }
+
+    /**
+     * Shows another message in the dialog box, which only sets the text unless the sender changed
+     * @param text text of the message
+     * @param avatar avatar of whoever sent the message
+     * @param isFlippedWanted true to show the display picture on the left of the text
+     */
+    public void showMessage(String text, Avatar avatar, boolean isFlippedWanted) {
+        dialog.setText(text);
+        if (avatar != displayedAvatar) {
+            displayedAvatar = avatar;
+            displayPicture.setFill(avatar.getPattern());
+            displayPicture.setRadius(avatar.getRadius());
+        }
+        if (isFlipped != isFlippedWanted) {
+            flip();
+        }
     }
 
-    public static DialogBox getUserDialog(String text, Image image) {
-        return new DialogBox(text, image);
+    public static DialogBox getUserDialog(String text, Avatar avatar) {
+        return acquire(text, avatar, false);
     }
 
-    public static DialogBox getDukeDialog(String text, Image image) {
-        var db = new DialogBox(text, image);
-        db.flip();
-        return db;
+    public static DialogBox getDukeDialog(String text, Avatar avatar) {
+        return acquire(text, avatar, true);
     }
 }
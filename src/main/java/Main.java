@@ -28,6 +28,8 @@ public class Main extends Application {
             fxmlLoader.<MainWindow>getController().setDuke(duke);
             stage.show();
             stage.setOnCloseRequest((event) -> {
+                // save before exiting rather than relying on the shutdown hook alone
+                duke.shutdown();
                 Platform.exit();
                 System.exit(0);
             });
@@ -1,38 +1,65 @@
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 
 import duke.Duke;
+import duke.views.Greeting;
 
 import java.util.concurrent.TimeUnit;
 
 public class MainWindow extends AnchorPane {
+    /** Number of messages kept in the chat unless configured otherwise */
+    private static final int DEFAULT_HISTORY_CAPACITY = 500;
+    /** System property overriding the number of messages kept in the chat */
+    private static final String HISTORY_CAPACITY_PROPERTY = "duke.historySize";
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<ChatMessage> dialogList;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
+    @FXML
+    private ProgressIndicator pendingIndicator;
 
     private Duke duke;
+    /** number of commands sent to Duke whose reply has not been shown yet, only used on the FX thread */
+    private int pendingCommands;
 
-    private Image userImage = new Image(this.getClass().getResourceAsStream("images/DaUser.png"));
-    private Image dukeImage = new Image(this.getClass().getResourceAsStream("images/DaDuke.png"));
+    private Avatar userAvatar = new Avatar(new Image(this.getClass().getResourceAsStream("images/DaUser.png")));
+    private Avatar dukeAvatar = new Avatar(new Image(this.getClass().getResourceAsStream("images/DaDuke.png")));
+
+    /** most recent messages of the chat, older messages are dropped as new ones arrive */
+    private final ChatHistory<ChatMessage> history = new ChatHistory<>(
+            Math.max(1, Integer.getInteger(HISTORY_CAPACITY_PROPERTY, DEFAULT_HISTORY_CAPACITY)));
 
     @FXML
     private void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        dialogList.setItems(history);
+        // cells are recycled by the ListView, so only the visible messages have nodes
+        dialogList.setCellFactory(listView -> new ChatCell(listView, userAvatar, dukeAvatar));
+    }
+
+    /**
+     * Appends messages to the chat and scrolls down to the last of them
+     * @param messages messages to append in order
+     */
+    private void appendMessages(ChatMessage... messages) {
+        for (ChatMessage message : messages) {
+            history.append(message);
+        }
+        dialogList.scrollTo(history.size() - 1);
     }
 
     /**
-     * Sets duke used for getting responses on user input, also adds first Duke greeting on init
+     * Sets duke used for getting responses on user input, also adds first Duke greeting on init.
+     * While Duke is still loading its tasks the pending indicator is shown, and the user is told
+     * once they are loaded
      * @param d contains Duke instance we are using
      */
     public void setDuke(Duke d) {
@@ -41,24 +68,49 @@ public class MainWindow extends AnchorPane {
         // set instance of duke to mainwindow for response
         duke = d;
         // add greeting whenever we set duke
-        dialogContainer.getChildren().add(DialogBox.getDukeDialog(duke.getGreeting(), dukeImage));
+        appendMessages(ChatMessage.fromDuke(duke.getGreeting()));
+        if (duke.whenLoaded().isDone()) {
+            return;
+        }
+        appendMessages(ChatMessage.fromDuke(Greeting.loading()));
+        setPendingCommands(pendingCommands + 1);
+        duke.whenLoaded().whenComplete((taskCount, error) -> Platform.runLater(() -> {
+            setPendingCommands(pendingCommands - 1);
+            appendMessages(ChatMessage.fromDuke(error == null
+                    ? Greeting.loaded(taskCount)
+                    : "Your tasks could not be loaded: " + (error.getCause() != null ? error.getCause() : error)
+                            .getMessage()));
+        }));
     }
 
     /**
-     * Creates two dialog boxes, one echoing user inpt and the other containing Duke's reply
-     * and then appends them to the dialog container. Clears user input after processing
+     * Appends the user input to the chat and sends it to Duke without waiting for the reply, which
+     * is appended once Duke has run every command sent before it. Clears user input after
+     * processing so that more commands can be queued in the meantime
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        // duke getResponse returns response from Duke's logic
-        String response = duke.getResponse(input);
-        // add response and input to DialogBox
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getDukeDialog(response, dukeImage)
-        );
         // clear user input
         userInput.clear();
+        appendMessages(ChatMessage.fromUser(input));
+        setPendingCommands(pendingCommands + 1);
+        // duke getResponseAsync completes with the response from Duke's logic on its own thread
+        duke.getResponseAsync(input).whenComplete((response, error) -> Platform.runLater(() -> {
+            setPendingCommands(pendingCommands - 1);
+            appendMessages(ChatMessage.fromDuke(error == null
+                    ? response
+                    : "Something went wrong: " + (error.getCause() != null ? error.getCause() : error).getMessage()));
+        }));
+    }
+
+    /**
+     * Updates the number of commands waiting for a reply, showing the pending indicator while any
+     * command is waiting
+     * @param count number of commands waiting for a reply
+     */
+    private void setPendingCommands(int count) {
+        pendingCommands = count;
+        pendingIndicator.setVisible(count > 0);
     }
 }
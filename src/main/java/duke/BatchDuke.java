@@ -0,0 +1,117 @@
+package duke;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import duke.controllers.Ui;
+import duke.models.Storage;
+import duke.views.Greeting;
+import duke.views.TodosView;
+
+/**
+ * Headless entry point running commands read line by line from a file or stdin, so that Duke can
+ * be driven from scripts without starting JavaFX. Replies are written to stdout through a buffer
+ * and the tasks are saved once at the end, or every few commands when configured to
+ */
+public class BatchDuke {
+    /** Constant to store the database path for Duke's commands */
+    private static final String DATABASE_FILE_PATH = "data/duke.txt";
+    /** Constant storing database directory path */
+    private static final String DATABASE_DIRECTORY_PATH = "data/";
+    /** System property setting the number of commands run between saves, 0 only saves at the end */
+    private static final String COMMIT_EVERY_PROPERTY = "duke.commitEvery";
+    /** Argument reading the commands from stdin instead of a file */
+    private static final String STDIN_ARGUMENT = "-";
+    /** Size of the buffers between Duke and the input and output streams */
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+    /** Command ending the batch, which saves the tasks itself */
+    private static final String BYE_COMMAND = "bye";
+    /** Format of each reply written to stdout */
+    private static final String REPLY_FORMAT = "\n\n---\n%s\n---\n";
+
+    /** Ui running each command */
+    private final Ui ui;
+    /** number of commands run between saves, 0 to only save at the end */
+    private final int commitEvery;
+
+    /**
+     * Creates a batch run over the Ui passed in
+     * @param ui Ui running each command
+     * @param commitEvery number of commands run between saves, 0 to only save at the end
+     */
+    public BatchDuke(Ui ui, int commitEvery) {
+        assert commitEvery >= 0 : "Number of commands between saves should not be negative";
+        this.ui = ui;
+        this.commitEvery = commitEvery;
+    }
+
+    /**
+     * Runs every command of the reader until it runs out or a bye command is read, writing each
+     * reply to the writer. The writer is flushed whenever the tasks are saved
+     * @param in reader of the commands, one per line
+     * @param out writer of the replies
+     * @return number of commands run
+     * @throws IOException when the commands cannot be read or the replies cannot be written
+     */
+    public long run(BufferedReader in, Writer out) throws IOException {
+        out.write(Greeting.greet());
+        long commandCount = 0;
+        int uncommittedCount = 0;
+        String input;
+        while ((input = in.readLine()) != null) {
+            out.write(String.format(REPLY_FORMAT, this.ui.respondToInput(input)));
+            commandCount++;
+            if (input.equals(BYE_COMMAND)) {
+                // bye has already saved the tasks
+                uncommittedCount = 0;
+                break;
+            }
+            uncommittedCount++;
+            if (uncommittedCount == this.commitEvery) {
+                this.ui.saveTasks();
+                out.flush();
+                uncommittedCount = 0;
+            }
+        }
+        if (uncommittedCount > 0) {
+            this.ui.saveTasks();
+        }
+        out.flush();
+        return commandCount;
+    }
+
+    /**
+     * Runs the commands of the file passed as the only argument, or of stdin when there is no
+     * argument or it is -
+     * @param args optional path of a file containing one command per line
+     */
+    public static void main(String[] args) {
+        int pageSize = Integer.getInteger(Duke.PAGE_SIZE_PROPERTY, TodosView.DEFAULT_PAGE_SIZE);
+        int commitEvery = Integer.getInteger(COMMIT_EVERY_PROPERTY, 0);
+        // journalling is left off, the batch saves whole snapshots at its own commit points
+        Ui ui = new Ui(new Storage(DATABASE_FILE_PATH, DATABASE_DIRECTORY_PATH, false, Duke.getStorageFormat()),
+                Math.max(1, pageSize));
+        BatchDuke batch = new BatchDuke(ui, Math.max(0, commitEvery));
+
+        boolean isReadingStdin = args.length == 0 || args[0].equals(STDIN_ARGUMENT);
+        try (InputStream inputStream = isReadingStdin ? System.in : new FileInputStream(args[0]);
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(inputStream, StandardCharsets.UTF_8), IO_BUFFER_SIZE);
+             Writer out = new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), IO_BUFFER_SIZE)) {
+            batch.run(in, out);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -1,19 +1,58 @@
 package duke;
 
+import duke.controllers.Autosave;
 import duke.controllers.Ui;
+import duke.metrics.Metrics;
+import duke.models.LoadMode;
 import duke.models.Storage;
+import duke.models.StorageFormat;
 import duke.views.Greeting;
+import duke.views.TodosView;
 
+import java.util.Locale;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class Duke {
+    /** System property overriding the number of Todos shown on each page of the list command */
+    static final String PAGE_SIZE_PROPERTY = "duke.pageSize";
+    /** System property selecting how the saved tasks are held once loaded, see LoadMode */
+    static final String LOAD_MODE_PROPERTY = "duke.loadMode";
+    /** System property selecting the format the tasks are saved in, see StorageFormat */
+    static final String STORAGE_FORMAT_PROPERTY = "duke.storageFormat";
+    /** System property setting how long changes have to stop for before they are saved */
+    static final String AUTOSAVE_QUIET_PROPERTY = "duke.autosaveQuietMillis";
+    /** System property setting the longest time changes are left unsaved while they keep coming */
+    static final String AUTOSAVE_MAX_DELAY_PROPERTY = "duke.autosaveMaxDelayMillis";
+    /** Time without changes after which the tasks are saved, unless configured otherwise */
+    static final long DEFAULT_AUTOSAVE_QUIET_MILLIS = 1000;
+    /** Longest time changes are left unsaved, unless configured otherwise */
+    static final long DEFAULT_AUTOSAVE_MAX_DELAY_MILLIS = 10000;
+    /** Time given to the commands still queued when shutting down */
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
     /** Storage object to be passed to AppController for reading / writing to db */
     private final Storage storage;
-    private final Ui ui;
+    /** Runs every command one at a time in the order it was received, so only it touches ui */
+    private final ExecutorService commandExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "duke-commands");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** completed with the number of tasks once they have been loaded and ui has been created */
+    private final CompletableFuture<Integer> loadedTaskCount;
+    /** Ui over the loaded tasks, created by the first task of the command executor */
+    private Ui ui;
+    /** Saves the tasks in the background once commands have stopped changing them for a while */
+    private volatile Autosave autosave;
 
     /**
-     * Initialises Duke to provide responses to front-end JavaFX
+     * Initialises Duke to provide responses to front-end JavaFX. The tasks are loaded in the
+     * background, so this returns right away and the window can be shown while they load
      * @param filePath path to text file which contains Duke's database
      * @param directoryPath path to directory which contains text file of Duke's database
      */
@@ -22,17 +61,107 @@ public class Duke {
         // this will cause issues with Storage
         assert filePath != null : "Database file path for Duke is null";
         assert directoryPath != null : "Database directory path for Duke is null";
-        this.storage = new Storage(filePath, directoryPath);
-        this.ui = new Ui(storage);
+        this.storage = new Storage(filePath, directoryPath, true, getStorageFormat(), getLoadMode());
+        int pageSize = Math.max(1, Integer.getInteger(PAGE_SIZE_PROPERTY, TodosView.DEFAULT_PAGE_SIZE));
+        // loading is the first command, so commands sent while the tasks load queue up behind it
+        this.loadedTaskCount = CompletableFuture.supplyAsync(() -> loadTasks(pageSize), commandExecutor);
+        // closing the window, bye and signals all end up in System.exit, which runs the hook
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "duke-shutdown"));
+    }
+
+    /**
+     * Loads the tasks and creates the Ui over them, on the command executor
+     * @param pageSize number of Todos on each page of the list command
+     * @return number of tasks loaded
+     */
+    private int loadTasks(int pageSize) {
+        // let JConsole and VisualVM watch the latency of each command, starting JMX takes a while too
+        Metrics.registerMBean();
+        this.ui = new Ui(storage, pageSize);
+        this.autosave = startAutosave(this.ui);
+        return this.ui.snapshot().todosSize();
+    }
+
+    /**
+     * Returns the load mode configured through a system property, eager unless configured otherwise
+     * @return mode the saved tasks are loaded in
+     */
+    static LoadMode getLoadMode() {
+        String loadMode = System.getProperty(LOAD_MODE_PROPERTY, LoadMode.EAGER.name());
+        try {
+            return LoadMode.valueOf(loadMode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown " + LOAD_MODE_PROPERTY + " '" + loadMode + "', loading eagerly");
+            return LoadMode.EAGER;
+        }
     }
 
     /**
-     * Returns input to front-end JavaFX to be displayed
+     * Returns the storage format configured through a system property, text unless configured otherwise
+     * @return format the tasks are saved in
+     */
+    static StorageFormat getStorageFormat() {
+        String storageFormat = System.getProperty(STORAGE_FORMAT_PROPERTY, StorageFormat.TEXT.name());
+        try {
+            return StorageFormat.valueOf(storageFormat.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown " + STORAGE_FORMAT_PROPERTY + " '" + storageFormat + "', saving as text");
+            return StorageFormat.TEXT;
+        }
+    }
+
+    /**
+     * Creates the autosave of the Ui, using the delays configured through system properties, and
+     * marks it dirty after every command changing the tasks
+     * @param ui Ui whose tasks are saved
+     * @return autosave to close when shutting down
+     */
+    static Autosave startAutosave(Ui ui) {
+        long quietMillis = Math.max(1, Long.getLong(AUTOSAVE_QUIET_PROPERTY, DEFAULT_AUTOSAVE_QUIET_MILLIS));
+        long maxDelayMillis = Math.max(quietMillis,
+                Long.getLong(AUTOSAVE_MAX_DELAY_PROPERTY, DEFAULT_AUTOSAVE_MAX_DELAY_MILLIS));
+        Autosave autosave = new Autosave(ui::saveTasksInBackground, ui::saveTasks, quietMillis, maxDelayMillis);
+        ui.setOnChange(autosave::markDirty);
+        return autosave;
+    }
+
+    /**
+     * Returns a future completed once the tasks have been loaded, which commands do not have to
+     * wait for as they are queued until then anyway
+     * @return future completed with the number of tasks loaded
+     */
+    public CompletableFuture<Integer> whenLoaded() {
+        return loadedTaskCount;
+    }
+
+    /**
+     * Returns input to front-end JavaFX to be displayed, waiting for every command received before
+     * it to finish first
      * @param input user input provided by front-end
      * @return output from user input provided from front-end basaed on Duke logic
      */
     public String getResponse(String input) {
-        // if input is bye, close after 0.5s
+        return getResponseAsync(input).join();
+    }
+
+    /**
+     * Queues the input to be responded to after every command received before it, without waiting
+     * for the response, so that slow commands do not block the caller
+     * @param input user input provided by front-end
+     * @return future completed with the output from user input once the command has run
+     */
+    public CompletableFuture<String> getResponseAsync(String input) {
+        return CompletableFuture.supplyAsync(() -> respondToInput(input), commandExecutor);
+    }
+
+    /**
+     * Runs the command in the input on the command executor
+     * @param input user input provided by front-end
+     * @return output from user input
+     */
+    private String respondToInput(String input) {
+        String response = ui.respondToInput(input);
+        // if input is bye, close 0.5s after the tasks were saved
         if (input.equals("bye")) {
             new Timer().schedule(new TimerTask() {
                 @Override
@@ -41,7 +170,25 @@ public class Duke {
                 }
             }, 500);
         }
-        return ui.respondToInput(input);
+        return response;
+    }
+
+    /**
+     * Lets the commands already queued finish, then saves whatever the autosave has not saved yet.
+     * Called by the shutdown hook, and safe to call again before it
+     */
+    public void shutdown() {
+        commandExecutor.shutdown();
+        try {
+            commandExecutor.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // nothing can have changed if the tasks never finished loading
+        Autosave loadedAutosave = autosave;
+        if (loadedAutosave != null) {
+            loadedAutosave.close();
+        }
     }
 
     /**
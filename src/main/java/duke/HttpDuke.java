@@ -0,0 +1,71 @@
+package duke;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import duke.controllers.Autosave;
+import duke.controllers.Ui;
+import duke.metrics.Metrics;
+import duke.models.Storage;
+import duke.server.TaskServer;
+import duke.views.TodosView;
+
+/**
+ * Headless entry point serving the tasks over a local HTTP JSON API, see TaskServer. Every change
+ * is journalled as it is made and folded into the snapshot by the autosave, so the server can be
+ * stopped at any time
+ */
+public class HttpDuke {
+    /** Constant to store the database path for Duke's commands */
+    private static final String DATABASE_FILE_PATH = "data/duke.txt";
+    /** Constant storing database directory path */
+    private static final String DATABASE_DIRECTORY_PATH = "data/";
+    /** System property setting the port to listen on */
+    private static final String PORT_PROPERTY = "duke.httpPort";
+    /** System property setting the number of threads serving requests */
+    private static final String THREADS_PROPERTY = "duke.httpThreads";
+    /** System property turning off virtual threads on runtimes that have them */
+    private static final String VIRTUAL_THREADS_PROPERTY = "duke.httpVirtualThreads";
+    /** Port listened on unless configured otherwise */
+    private static final int DEFAULT_PORT = 8080;
+
+    /**
+     * Explicit definition of the default constructor, use main
+     */
+    private HttpDuke() {}
+
+    /**
+     * Serves the tasks on the loopback address until the process is stopped
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        int pageSize = Integer.getInteger(Duke.PAGE_SIZE_PROPERTY, TodosView.DEFAULT_PAGE_SIZE);
+        int port = Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT);
+        int threadCount = Integer.getInteger(THREADS_PROPERTY, 2 * Runtime.getRuntime().availableProcessors());
+        boolean isVirtualThreadPreferred = Boolean.parseBoolean(System.getProperty(VIRTUAL_THREADS_PROPERTY, "true"));
+
+        Metrics.registerMBean();
+        Storage storage = new Storage(DATABASE_FILE_PATH, DATABASE_DIRECTORY_PATH, true, Duke.getStorageFormat(),
+                Duke.getLoadMode());
+        Ui ui = new Ui(storage, Math.max(1, pageSize));
+        Autosave autosave = Duke.startAutosave(ui);
+        try {
+            // only local tools are served, the API has no authentication
+            TaskServer server = new TaskServer(ui, Math.max(1, pageSize),
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                    TaskServer.newExecutor(Math.max(1, threadCount), isVirtualThreadPreferred));
+            server.start();
+            // stop taking requests before the last save, so that it has every change
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                autosave.close();
+            }, "duke-shutdown"));
+            System.out.printf("Duke is serving http://%s:%d%s%n", InetAddress.getLoopbackAddress().getHostAddress(),
+                    server.getPort(), TaskServer.TASKS_PATH);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package duke.controllers;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Saves the tasks on a background thread once changes to them have stopped for a quiet period,
+ * so that a burst of commands is saved once and no command waits for the disk. A burst that goes
+ * on for longer than the maximum delay is saved anyway. Closing it, as the shutdown hook does,
+ * saves whatever is left unsaved before returning
+ */
+public class Autosave {
+    /** Time given to a background save still running when closing */
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    /** saves in the background, returning false when the save should be retried later */
+    private final BooleanSupplier backgroundSave;
+    /** saves completely before returning, used when closing */
+    private final Runnable finalSave;
+    /** time without changes after which the tasks are saved */
+    private final long quietNanos;
+    /** longest time changes are left unsaved while they keep coming */
+    private final long maxDelayNanos;
+    /** single thread waiting out the quiet period and saving */
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "duke-autosave");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** whether there are changes a save has not started on yet */
+    private final AtomicBoolean isDirty = new AtomicBoolean();
+    /** whether close has been called */
+    private final AtomicBoolean isClosed = new AtomicBoolean();
+    /** time of the last change */
+    private volatile long lastChangeNanos;
+    /** time of the first change since the last save */
+    private volatile long firstChangeNanos;
+
+    /**
+     * Creates an autosave, which saves nothing until it is marked dirty
+     * @param backgroundSave saves in the background, returning false when it should be retried
+     * @param finalSave saves completely before returning, used when closing
+     * @param quietMillis time without changes after which the tasks are saved
+     * @param maxDelayMillis longest time changes are left unsaved while they keep coming
+     */
+    public Autosave(BooleanSupplier backgroundSave, Runnable finalSave, long quietMillis, long maxDelayMillis) {
+        assert quietMillis > 0 && maxDelayMillis >= quietMillis : "Autosave delays should be positive and ordered";
+        this.backgroundSave = backgroundSave;
+        this.finalSave = finalSave;
+        this.quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        // a quiet period still being waited out when closing is replaced by the final save
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Records a change, scheduling a save after the quiet period unless one is already scheduled.
+     * Cheap enough to call after every command
+     */
+    public void markDirty() {
+        long now = System.nanoTime();
+        this.lastChangeNanos = now;
+        if (this.isClosed.get() || !this.isDirty.compareAndSet(false, true)) {
+            return;
+        }
+        this.firstChangeNanos = now;
+        try {
+            this.scheduler.schedule(this::saveWhenQuiet, this.quietNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // closing, the final save picks up the change
+        }
+    }
+
+    /**
+     * Saves if there has been no change for the quiet period or the changes have waited for the
+     * maximum delay, otherwise waits until one of them is reached
+     */
+    private void saveWhenQuiet() {
+        long now = System.nanoTime();
+        long quietRemaining = this.quietNanos - (now - this.lastChangeNanos);
+        long delayRemaining = this.maxDelayNanos - (now - this.firstChangeNanos);
+        if (quietRemaining > 0 && delayRemaining > 0) {
+            try {
+                this.scheduler.schedule(this::saveWhenQuiet, Math.min(quietRemaining, delayRemaining),
+                        TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // closing, the final save picks up the changes
+            }
+            return;
+        }
+        // changes from here on are not covered by this save and schedule the next one
+        this.isDirty.set(false);
+        boolean isSaved = false;
+        try {
+            isSaved = this.backgroundSave.getAsBoolean();
+        } finally {
+            if (!isSaved) {
+                // an earlier save is still being written, so the changes stay unsaved and are tried
+                // again after another quiet period, or left to the final save when closing
+                this.isDirty.set(true);
+                this.firstChangeNanos = System.nanoTime();
+                try {
+                    this.scheduler.schedule(this::saveWhenQuiet, this.quietNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // closing, the final save picks up the changes
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops saving in the background and saves whatever is left unsaved, waiting for it to be
+     * written. A background save that failed, was refused or is still running when the wait ends
+     * does not count as saved. Only the first call does anything
+     */
+    public void close() {
+        if (!this.isClosed.compareAndSet(false, true)) {
+            return;
+        }
+        // drop the pending quiet period but let a save already running finish
+        this.scheduler.shutdown();
+        boolean isTerminated = false;
+        try {
+            isTerminated = this.scheduler.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.isDirty.getAndSet(false) || !isTerminated) {
+            this.finalSave.run();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package duke.controllers;
+
+import java.util.List;
+
+/**
+ * Runs a single kind of command, registered with Ui under the command it handles
+ */
+@FunctionalInterface
+public interface CommandHandler {
+    /**
+     * Runs the command with the arguments passed in
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     * @throws Exception when the command fails in a way it does not reply to itself
+     */
+    String handle(List<String> commandArgs) throws Exception;
+}
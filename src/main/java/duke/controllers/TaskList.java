@@ -1,39 +1,67 @@
 package duke.controllers;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 import duke.exceptions.DukeBlankDetailsException;
 import duke.exceptions.DukeBlankTaskException;
+import duke.exceptions.DukeCommandNotFoundException;
 import duke.exceptions.DukeDateTimeParseException;
 import duke.exceptions.DukeInvalidFlagException;
+import duke.exceptions.DukeNoMatchingTasksException;
 import duke.exceptions.DukeTaskIndexOutOfRangeException;
 import duke.models.Deadline;
 import duke.models.Event;
 import duke.models.Flags;
+import duke.models.KeywordIndex;
 import duke.models.Pair;
 import duke.models.Parser;
+import duke.models.PersistentVector;
+import duke.models.TimeIndex;
 import duke.models.Todo;
+import duke.views.TodosView;
 
 public class TaskList {
     /** index offset constant for 1-based indexing of todos to client */
     private static final int ONE_BASED_INDEX_OFFSET = 1;
-
-    /** todosList contains the state of the todos */
-    private final List<Optional<? extends Todo>> todos;
+    /** format of dates passed to due and between, single digit days and months are allowed */
+    private static final DateTimeFormatter INPUT_DATE_FORMAT = DateTimeFormatter.ofPattern("d/M/yyyy");
+    /** bulk commands touching fewer Todos than the list size divided by this update them one by one */
+    private static final int BULK_REBUILD_DIVISOR = 32;
+
+    /** todosList contains the state of the todos, shared structurally between TaskLists */
+    private final PersistentVector<Optional<? extends Todo>> todos;
+    /** inverted index used by find, built on the first find and then carried across updates */
+    private volatile KeywordIndex keywordIndex;
+    /** date time index used by due, between and next, built on first use like keywordIndex */
+    private volatile TimeIndex timeIndex;
 
     /**
      * Constructor of TodosController which takes in an existing List of Optional Todos
      * @param todos is an existing List of Optional Todos
      */
     public TaskList(List<Optional<? extends Todo>> todos) {
+        this(PersistentVector.of(todos), null, null);
+    }
+
+    /**
+     * Constructor used by updates to carry the indexes over to the new TaskList
+     * @param todos Todos of the new TaskList
+     * @param keywordIndex index over the Todos or null if it has not been built
+     * @param timeIndex index over the Todos or null if it has not been built
+     */
+    private TaskList(PersistentVector<Optional<? extends Todo>> todos, KeywordIndex keywordIndex,
+            TimeIndex timeIndex) {
         this.todos = todos;
+        this.keywordIndex = keywordIndex;
+        this.timeIndex = timeIndex;
     }
 
     /**
@@ -53,6 +81,33 @@ public class TaskList {
         return this.todos;
     }
 
+    /**
+     * Returns the 0-based index of the page asked for by a list command, the first page when no
+     * page is given
+     * @param listCommandArgs list that is empty or of size 1 containing the 1-based page number
+     * @param pageSize number of Todos on each page
+     * @return 0-based index of the page
+     * @throws DukeTaskIndexOutOfRangeException when the page number is not a number or is out of range
+     */
+    public int getPageIndex(List<String> listCommandArgs, int pageSize) throws DukeTaskIndexOutOfRangeException {
+        if (listCommandArgs.isEmpty()) {
+            return 0;
+        }
+        int pageCount = TodosView.getPageCount(this.todos.size(), pageSize);
+        int pageIndex;
+        try {
+            pageIndex = Integer.parseInt(listCommandArgs.get(0)) - ONE_BASED_INDEX_OFFSET;
+        } catch (NumberFormatException e) {
+            throw new DukeTaskIndexOutOfRangeException("Please input the page number right after the list "
+                    + "command as '" + listCommandArgs.get(0) + "' is not recognised as a valid page");
+        }
+        if (pageIndex < 0 || pageIndex >= pageCount) {
+            throw new DukeTaskIndexOutOfRangeException("The page you asked for does not exist, your list has "
+                    + pageCount + (pageCount == 1 ? " page" : " pages"));
+        }
+        return pageIndex;
+    }
+
     /**
      * Takes in a list of keywords and prints todos with messages that contains any of the keywords
      * passed in
@@ -60,15 +115,194 @@ public class TaskList {
      * @return list of todos checked to see if any strings match any given keyword
      */
     public List<Optional<? extends Todo>> findByKeyword(List<String> keywordList) {
-        return this.todos.stream().filter(optTodo -> {
-            // check if todo message contains keyword
-            return optTodo.map(Todo::getMessage).map(message -> {
-                // split message by space as delimiter
-                List<String> messagesSplitByWhitespace = Arrays.asList(message.split(" "));
-                // if any part of split message is contained in keywordList, return true
-                return messagesSplitByWhitespace.stream().anyMatch(keywordList::contains);
-            }).orElse(false);
-        }).collect(Collectors.toList());
+        return getKeywordIndex().find(keywordList, this.todos);
+    }
+
+    /**
+     * Takes in a list of keywords and returns the positions of the todos findByKeyword returns
+     * @param keywordList String list of keywords to be matched
+     * @return 0-based positions of the matching todos in increasing order
+     */
+    public int[] findPositionsByKeyword(List<String> keywordList) {
+        return getKeywordIndex().findPositions(keywordList);
+    }
+
+    /**
+     * Returns the keyword index, building it on first use
+     * @return KeywordIndex over the Todos of this TaskList
+     */
+    private KeywordIndex getKeywordIndex() {
+        KeywordIndex index = this.keywordIndex;
+        if (index == null) {
+            // build index on first use, racing finds would only build identical indexes
+            index = KeywordIndex.of(this.todos);
+            this.keywordIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Returns TaskList with the Todo appended, updating whichever indexes have been built
+     * @param newTodo Todo to append
+     * @return new TaskList containing the Todo
+     */
+    private TaskList withAppended(Optional<? extends Todo> newTodo) {
+        KeywordIndex keywords = this.keywordIndex;
+        TimeIndex times = this.timeIndex;
+        return new TaskList(this.todos.append(newTodo),
+                keywords == null ? null : keywords.withAppended(newTodo),
+                times == null ? null : times.withAppended(newTodo));
+    }
+
+    /**
+     * Returns TaskList without the Todo at the index, updating whichever indexes have been built
+     * @param index 0-based index of the Todo to remove
+     * @return new TaskList without the Todo
+     */
+    private TaskList withRemoved(int index) {
+        Optional<? extends Todo> removedTodo = this.todos.get(index);
+        KeywordIndex keywords = this.keywordIndex;
+        TimeIndex times = this.timeIndex;
+        return new TaskList(this.todos.removeAt(index),
+                keywords == null ? null : keywords.withRemoved(index, removedTodo),
+                times == null ? null : times.withRemoved(index, removedTodo));
+    }
+
+    /**
+     * Returns TaskList with the Todo at the index replaced, updating whichever indexes have been
+     * built
+     * @param index 0-based index of the Todo to replace
+     * @param newTodo Todo replacing it
+     * @return new TaskList containing the new Todo
+     */
+    private TaskList withReplaced(int index, Optional<? extends Todo> newTodo) {
+        Optional<? extends Todo> oldTodo = this.todos.get(index);
+        KeywordIndex keywords = this.keywordIndex;
+        TimeIndex times = this.timeIndex;
+        return new TaskList(this.todos.update(index, newTodo),
+                keywords == null ? null : keywords.withReplaced(index, oldTodo, newTodo),
+                times == null ? null : times.withReplaced(index, oldTodo, newTodo));
+    }
+
+    /**
+     * Returns TaskList without the Todos at the indexes passed in. A few Todos are removed one by
+     * one so that built indexes are kept, otherwise the list is rebuilt in a single pass and the
+     * indexes are left to be rebuilt on their next use
+     * @param sortedIndexes distinct 0-based indexes of the Todos to remove, in increasing order
+     * @return new TaskList without the Todos
+     */
+    private TaskList withRemovedAll(int[] sortedIndexes) {
+        if (sortedIndexes.length < this.todos.size() / BULK_REBUILD_DIVISOR) {
+            TaskList taskList = this;
+            // remove from the back so that the indexes still to be removed do not shift
+            for (int i = sortedIndexes.length - 1; i >= 0; i--) {
+                taskList = taskList.withRemoved(sortedIndexes[i]);
+            }
+            return taskList;
+        }
+        return new TaskList(this.todos.removeAllAt(sortedIndexes), null, null);
+    }
+
+    /**
+     * Returns TaskList with the Todos at the indexes passed in replaced by the updater applied to
+     * them, choosing between updating one by one and rebuilding like withRemovedAll
+     * @param sortedIndexes distinct 0-based indexes of the Todos to replace, in increasing order
+     * @param updater function returning the new Todo from the old one
+     * @return new TaskList containing the new Todos
+     */
+    private TaskList withReplacedAll(int[] sortedIndexes, UnaryOperator<Optional<? extends Todo>> updater) {
+        if (sortedIndexes.length < this.todos.size() / BULK_REBUILD_DIVISOR) {
+            TaskList taskList = this;
+            for (int index : sortedIndexes) {
+                taskList = taskList.withReplaced(index, updater.apply(this.todos.get(index)));
+            }
+            return taskList;
+        }
+        return new TaskList(this.todos.updateAllAt(sortedIndexes, updater), null, null);
+    }
+
+    /**
+     * Returns the date time index, building it on first use
+     * @return TimeIndex over the Todos of this TaskList
+     */
+    private TimeIndex getTimeIndex() {
+        TimeIndex index = this.timeIndex;
+        if (index == null) {
+            // racing queries would only build identical indexes
+            index = TimeIndex.of(this.todos);
+            this.timeIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Returns Deadlines and Events falling on the date passed in, ordered by date time
+     * @param dueCommandArgs list of size 1 containing the date in DD/MM/YYYY
+     * @return list of Todos falling on the date
+     * @throws DukeBlankDetailsException when no date is given
+     * @throws DukeDateTimeParseException when the date is in the wrong format
+     */
+    public List<Optional<? extends Todo>> findDueOn(List<String> dueCommandArgs)
+            throws DukeBlankDetailsException, DukeDateTimeParseException {
+        if (dueCommandArgs.size() == 0) {
+            throw new DukeBlankDetailsException("Please input the date in DD/MM/YYYY to list the tasks due on it");
+        }
+        LocalDate date = parseDate(dueCommandArgs.get(0));
+        return getTimeIndex().findBetween(date.atStartOfDay(), date.plusDays(1).atStartOfDay(), this.todos);
+    }
+
+    /**
+     * Returns Deadlines and Events falling between two dates, both inclusive, ordered by date time
+     * @param betweenCommandArgs list of size 2 containing the first and last date in DD/MM/YYYY
+     * @return list of Todos falling between the dates
+     * @throws DukeBlankDetailsException when fewer than two dates are given
+     * @throws DukeDateTimeParseException when a date is in the wrong format
+     */
+    public List<Optional<? extends Todo>> findBetween(List<String> betweenCommandArgs)
+            throws DukeBlankDetailsException, DukeDateTimeParseException {
+        if (betweenCommandArgs.size() < 2) {
+            throw new DukeBlankDetailsException("Please input the first and last date in DD/MM/YYYY "
+                    + "to list the tasks between them");
+        }
+        LocalDate firstDate = parseDate(betweenCommandArgs.get(0));
+        LocalDate lastDate = parseDate(betweenCommandArgs.get(1));
+        return getTimeIndex().findBetween(firstDate.atStartOfDay(), lastDate.plusDays(1).atStartOfDay(),
+                this.todos);
+    }
+
+    /**
+     * Returns the next Deadlines and Events at or after the date time passed in, ordered by date time
+     * @param nextCommandArgs list of size 1 containing the number of Todos to return
+     * @param now date time to search from
+     * @return list of upcoming Todos
+     * @throws DukeBlankDetailsException when the number of Todos is missing or not a positive number
+     */
+    public List<Optional<? extends Todo>> findNext(List<String> nextCommandArgs, LocalDateTime now)
+            throws DukeBlankDetailsException {
+        int count;
+        try {
+            count = Integer.parseInt(nextCommandArgs.get(0));
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            throw new DukeBlankDetailsException("Please input the number of upcoming tasks you want to see");
+        }
+        if (count <= 0) {
+            throw new DukeBlankDetailsException("Please input a positive number of upcoming tasks");
+        }
+        return getTimeIndex().findNext(now, count, this.todos);
+    }
+
+    /**
+     * Parses a date in the format D/M/YYYY, allowing single digit days and months
+     * @param dateString String containing the date
+     * @return LocalDate parsed from the String
+     * @throws DukeDateTimeParseException when the date is in the wrong format
+     */
+    private static LocalDate parseDate(String dateString) throws DukeDateTimeParseException {
+        try {
+            return LocalDate.parse(dateString, INPUT_DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new DukeDateTimeParseException("Please format your date to be DD/MM/YYYY");
+        }
     }
 
     /**
@@ -78,17 +312,25 @@ public class TaskList {
      * @throws DukeBlankTaskException when user types in 'todo' but has nothing afterwards
      */
     public Pair<TaskList, Optional<? extends Todo>> addTodo(List<String> newTodoList) throws DukeBlankTaskException {
+        Optional<? extends Todo> newTodoObject = createTodo(newTodoList);
+
+        // return pair of tasklist and new created todo
+        return new Pair<>(withAppended(newTodoObject), newTodoObject);
+    }
+
+    /**
+     * Creates the Todo described by the args of a todo command
+     * @param newTodoList contains the new Todo that must not be an empty array
+     * @return new Todo
+     * @throws DukeBlankTaskException when user types in 'todo' but has nothing afterwards
+     */
+    private static Optional<? extends Todo> createTodo(List<String> newTodoList) throws DukeBlankTaskException {
         if (newTodoList.size() == 0) {
             throw new DukeBlankTaskException("The Todo you are trying to add cannot be blank!");
         }
 
         // create new Todo object
-        Optional<? extends Todo> newTodoObject =
-                Optional.of(new Todo(String.join(" ", newTodoList)));
-
-        // return pair of tasklist and new created todo
-        return new Pair<>(new TaskList(Stream.concat(this.todos.stream(), Stream.of(newTodoObject))
-                .collect(Collectors.toList())), newTodoObject);
+        return Optional.of(new Todo(Parser.joinArgs(newTodoList)));
     }
 
     /**
@@ -103,6 +345,22 @@ public class TaskList {
      */
     public Pair<TaskList, Optional<? extends Todo>> deleteTodo(List<String> deleteTodoArgs)
             throws DukeBlankTaskException, DukeTaskIndexOutOfRangeException {
+        int idxDelete = getIndexToDelete(deleteTodoArgs, this.todos.size());
+
+        // remove from list and return pair
+        return new Pair<>(withRemoved(idxDelete), this.todos.get(idxDelete));
+    }
+
+    /**
+     * Returns the 0-based index of the Todo picked by the args of a delete command
+     * @param deleteTodoArgs is a list of size 1, containing the index of the todo to delete
+     * @param todosCount number of Todos in the list
+     * @return 0-based index of the Todo to delete
+     * @throws DukeBlankTaskException when no index is provided
+     * @throws DukeTaskIndexOutOfRangeException when the index is out of the range of the list
+     */
+    private static int getIndexToDelete(List<String> deleteTodoArgs, int todosCount)
+            throws DukeBlankTaskException, DukeTaskIndexOutOfRangeException {
         // check if args is empty
         if (deleteTodoArgs.size() == 0) {
             throw new DukeBlankTaskException(
@@ -118,17 +376,12 @@ public class TaskList {
                     + "right after the update command as '" + deleteTodoArgs.get(0)
                     + "' is not recognised as a valid index");
         }
-        if (idxDelete >= this.todos.size()) {
+        if (idxDelete >= todosCount) {
             throw new DukeTaskIndexOutOfRangeException("The index you input has an index that "
                             + "is beyond the range of the number of tasks you "
                             + "currently have. Please try again.");
         }
-
-        // remove from stream and return pair
-        return new Pair<>(new TaskList(
-                IntStream.range(0, this.todos.size()).filter(idx -> idx != idxDelete)
-                        .mapToObj(this.todos::get).collect(Collectors.toList())),
-                this.todos.get(idxDelete));
+        return idxDelete;
     }
 
     /**
@@ -146,6 +399,26 @@ public class TaskList {
     public Pair<TaskList, Optional<? extends Todo>> updateTodo(List<String> updateTodoCommandArgsSplitByWhitespace)
             throws DukeBlankTaskException, DukeTaskIndexOutOfRangeException, DukeDateTimeParseException,
             DukeInvalidFlagException, DukeBlankDetailsException {
+        Pair<Integer, Optional<? extends Todo>> update = createUpdatedTodo(updateTodoCommandArgsSplitByWhitespace,
+                this.todos);
+        return new Pair<>(withReplaced(update.getFirst(), update.getSecond()), update.getSecond());
+    }
+
+    /**
+     * Creates the Todo replacing the one picked by the args of an update command, see updateTodo
+     * @param updateTodoCommandArgsSplitByWhitespace params passed in from user in CLI
+     * @param todos Todos the index in the args refers to
+     * @return pair of the 0-based index of the Todo to replace and the updated Todo
+     * @throws DukeBlankTaskException If there is no specified task description for the new updated task
+     * @throws DukeTaskIndexOutOfRangeException if the input index is out of range of task list size
+     * @throws DukeDateTimeParseException if there is an error in the date time input by the user
+     * @throws DukeInvalidFlagException if user inputs more than one flag into the update method
+     * @throws DukeBlankDetailsException if the date time of an Event or Deadline is missing
+     */
+    private static Pair<Integer, Optional<? extends Todo>> createUpdatedTodo(
+            List<String> updateTodoCommandArgsSplitByWhitespace, List<Optional<? extends Todo>> todos)
+            throws DukeBlankTaskException, DukeTaskIndexOutOfRangeException, DukeDateTimeParseException,
+            DukeInvalidFlagException, DukeBlankDetailsException {
         if (updateTodoCommandArgsSplitByWhitespace.size() == 0) {
             throw new DukeBlankTaskException("The new task you are trying to update it to cannot be blank");
         }
@@ -170,13 +443,13 @@ public class TaskList {
                     + "' is not recognised as a valid index");
         }
 
-        if (idxToUpdate < 0 || idxToUpdate >= this.todos.size()) {
+        if (idxToUpdate < 0 || idxToUpdate >= todos.size()) {
             throw new DukeTaskIndexOutOfRangeException("The index you specified for the task does not exist, "
                     + "please try again");
         }
 
         // get todo to be updated if in range
-        Optional<? extends Todo> todoToUpdate = this.todos.get(idxToUpdate);
+        Optional<? extends Todo> todoToUpdate = todos.get(idxToUpdate);
 
         // get flag from command
         Flags flag = Parser.getFlag(updateTodoCommandArgsSplitByWhitespace.get(1));
@@ -184,22 +457,17 @@ public class TaskList {
         // if there's a flag included, the message to start iterating starts later
         int idxToStartIterating = (flag != Flags.NONE ? 2 : 1);
 
-        ArrayList<String> todoMessageArgs = new ArrayList<>();
-        ArrayList<String> todoEventTimeArgs = new ArrayList<>();
-
-        // iterate through list to find where escape character is
-        // once found, everything after is part of the deadline
-        updateTodoCommandArgsSplitByWhitespace
-                .subList(idxToStartIterating, updateTodoCommandArgsSplitByWhitespace.size())
-                .forEach(substring -> {
-                    if (substring.equals("/by") || substring.equals("/at")) {
-                        todoEventTimeArgs.add(substring);
-                    } else if (todoEventTimeArgs.size() == 0) {
-                        todoMessageArgs.add(substring);
-                    } else {
-                        todoEventTimeArgs.add(substring);
-                    }
-        });
+        List<String> todoArgs = updateTodoCommandArgsSplitByWhitespace
+                .subList(idxToStartIterating, updateTodoCommandArgsSplitByWhitespace.size());
+
+        // find where escape character is, everything from it onwards is part of the deadline
+        int idxOfDateTime = 0;
+        while (idxOfDateTime < todoArgs.size() && !todoArgs.get(idxOfDateTime).equals("/by")
+                && !todoArgs.get(idxOfDateTime).equals("/at")) {
+            idxOfDateTime++;
+        }
+        List<String> todoMessageArgs = todoArgs.subList(0, idxOfDateTime);
+        List<String> todoEventTimeArgs = todoArgs.subList(idxOfDateTime, todoArgs.size());
 
         if (todoMessageArgs.size() == 0) {
             throw new DukeBlankTaskException("Please enter a task description to update your current task");
@@ -214,13 +482,13 @@ public class TaskList {
                     // @formatter:off
                     switch(flag) {
                     case MESSAGE:
-                        return event.updateMessage(String.join(" ", todoMessageArgs));
+                        return event.updateMessage(Parser.joinArgs(todoMessageArgs));
                     case TIME:
-                        return event.updateTime(String.join(" ", todoMessageArgs));
+                        return event.updateTime(Parser.joinArgs(todoMessageArgs));
                     case NONE:
                         return event.update(
-                                String.join(" ", todoMessageArgs),
-                                String.join(" ", todoEventTimeArgs.subList(1, todoEventTimeArgs.size()))
+                                Parser.joinArgs(todoMessageArgs),
+                                Parser.joinArgs(todoEventTimeArgs.subList(1, todoEventTimeArgs.size()))
                         );
                     }
                 } else if (todo instanceof Deadline) {
@@ -228,17 +496,17 @@ public class TaskList {
                     // @formatter:off
                     switch(flag) {
                     case MESSAGE:
-                        return deadline.updateMessage(String.join(" ", todoMessageArgs));
+                        return deadline.updateMessage(Parser.joinArgs(todoMessageArgs));
                     case TIME:
-                        return deadline.updateTime(String.join(" ", todoMessageArgs));
+                        return deadline.updateTime(Parser.joinArgs(todoMessageArgs));
                     case NONE:
                         return deadline.update(
-                                String.join(" ", todoMessageArgs),
-                                String.join(" ", todoEventTimeArgs.subList(1, todoEventTimeArgs.size()))
+                                Parser.joinArgs(todoMessageArgs),
+                                Parser.joinArgs(todoEventTimeArgs.subList(1, todoEventTimeArgs.size()))
                         );
                     }
                 }
-                return todo.updateMessage(String.join(" ", todoMessageArgs));
+                return todo.updateMessage(Parser.joinArgs(todoMessageArgs));
             });
         } catch (DateTimeParseException e) {
             throw new DukeDateTimeParseException(
@@ -251,12 +519,7 @@ public class TaskList {
             }
         }
 
-        Optional<? extends Todo> finalUpdatedTodo = updatedTodo;
-        return new Pair<>(new TaskList(IntStream.range(0, this.todos.size())
-                .mapToObj(idx -> idx == idxToUpdate
-                        ? finalUpdatedTodo
-                        : this.todos.get(idx))
-                .collect(Collectors.toList())), updatedTodo);
+        return new Pair<>(idxToUpdate, updatedTodo);
     }
 
     /**
@@ -274,24 +537,34 @@ public class TaskList {
      */
     public Pair<TaskList, Optional<? extends Todo>> addDeadline(List<String> deadlineCommandArgsSplitByWhitespace)
             throws DukeBlankTaskException, DukeBlankDetailsException, DukeDateTimeParseException {
+        Optional<Deadline> newDeadline = createDeadline(deadlineCommandArgsSplitByWhitespace);
+
+        // return new pair
+        return new Pair<>(withAppended(newDeadline), newDeadline);
+    }
+
+    /**
+     * Creates the Deadline described by the args of a deadline command, see addDeadline
+     * @param deadlineCommandArgsSplitByWhitespace arguments provided to the deadline command
+     * @return new Deadline
+     * @throws DukeBlankTaskException when there are no details after the 'deadline' command
+     * @throws DukeBlankDetailsException when there are no /by details
+     * @throws DukeDateTimeParseException when the date time is of the wrong format
+     */
+    private static Optional<Deadline> createDeadline(List<String> deadlineCommandArgsSplitByWhitespace)
+            throws DukeBlankTaskException, DukeBlankDetailsException, DukeDateTimeParseException {
         if (deadlineCommandArgsSplitByWhitespace.size() == 0) {
             throw new DukeBlankTaskException("The Deadline you are trying to add cannot be blank!");
         }
 
-        ArrayList<String> newDeadlineMessages = new ArrayList<>();
-        ArrayList<String> newDeadlineDateTimeStrings = new ArrayList<>();
-
-        // iterate through list to find where escape character is
-        // once found, everything after is part of the deadline
-        deadlineCommandArgsSplitByWhitespace.stream().forEach(substring -> {
-            if (substring.equals("/by")) {
-                newDeadlineDateTimeStrings.add(substring);
-            } else if (newDeadlineDateTimeStrings.size() == 0) {
-                newDeadlineMessages.add(substring);
-            } else {
-                newDeadlineDateTimeStrings.add(substring);
-            }
-        });
+        // find where escape character is, everything from it onwards is part of the deadline
+        int idxOfBy = deadlineCommandArgsSplitByWhitespace.indexOf("/by");
+        if (idxOfBy < 0) {
+            idxOfBy = deadlineCommandArgsSplitByWhitespace.size();
+        }
+        List<String> newDeadlineMessages = deadlineCommandArgsSplitByWhitespace.subList(0, idxOfBy);
+        List<String> newDeadlineDateTimeStrings = deadlineCommandArgsSplitByWhitespace
+                .subList(idxOfBy, deadlineCommandArgsSplitByWhitespace.size());
 
         // if no message, throw exception
         if (newDeadlineMessages.size() == 0) {
@@ -311,18 +584,13 @@ public class TaskList {
         // added the '/by' which shouldn't be in the actual Deadline object
         // creating a new deadline might throw an exception if the date time is in the
         // wrong format
-        Optional<Deadline> newDeadline;
         try {
-            newDeadline = Optional.of(new Deadline(String.join(" ", newDeadlineMessages),
-                    String.join(" ", newDeadlineDateTimeStrings.subList(1, newDeadlineDateTimeStrings.size()))));
+            return Optional.of(new Deadline(Parser.joinArgs(newDeadlineMessages),
+                    Parser.joinArgs(newDeadlineDateTimeStrings.subList(1, newDeadlineDateTimeStrings.size()))));
         } catch (DateTimeParseException e) {
             throw new DukeDateTimeParseException(
                     "Please format your date after /by to be DD/MM/YYYY HHMM");
         }
-
-        // return new pair
-        return new Pair<>(new TaskList(Stream.concat(this.todos.stream(), Stream.of(newDeadline))
-                .collect(Collectors.toList())), newDeadline);
     }
 
     /**
@@ -340,26 +608,35 @@ public class TaskList {
      */
     public Pair<TaskList, Optional<? extends Todo>> addEvent(List<String> newEventCommandArgs)
             throws DukeBlankDetailsException, DukeBlankTaskException, DukeDateTimeParseException {
+        Optional<Event> newEvent = createEvent(newEventCommandArgs);
+
+        // return new pair
+        return new Pair<>(withAppended(newEvent), newEvent);
+    }
+
+    /**
+     * Creates the Event described by the args of an event command, see addEvent
+     * @param newEventCommandArgs arguments provided to the event command
+     * @return new Event
+     * @throws DukeBlankTaskException when there are no details after the 'event' command
+     * @throws DukeBlankDetailsException when there are no /at details
+     * @throws DukeDateTimeParseException when the date time is of the wrong format
+     */
+    private static Optional<Event> createEvent(List<String> newEventCommandArgs)
+            throws DukeBlankDetailsException, DukeBlankTaskException, DukeDateTimeParseException {
         // if list is empty, throw error
         if (newEventCommandArgs.size() == 0) {
             throw new DukeBlankTaskException("The Event you are trying to add cannot be blank!");
         }
 
-        ArrayList<String> newEventMessages = new ArrayList<>();
+        // find where escape character is, everything from it onwards is part of the event
+        int idxOfAt = newEventCommandArgs.indexOf("/at");
+        if (idxOfAt < 0) {
+            idxOfAt = newEventCommandArgs.size();
+        }
+        List<String> newEventMessages = newEventCommandArgs.subList(0, idxOfAt);
         // newEventDateTimeStrings will contain /at command
-        ArrayList<String> newEventDateTimeStrings = new ArrayList<>();
-
-        // iterate through list to find where escape character is
-        // once found, everything after is part of the deadline
-        newEventCommandArgs.forEach(substring -> {
-            if (substring.equals("/at")) {
-                newEventDateTimeStrings.add(substring);
-            } else if (newEventDateTimeStrings.size() == 0) {
-                newEventMessages.add(substring);
-            } else {
-                newEventDateTimeStrings.add(substring);
-            }
-        });
+        List<String> newEventDateTimeStrings = newEventCommandArgs.subList(idxOfAt, newEventCommandArgs.size());
 
         // if no message, throw exception
         if (newEventMessages.size() == 0) {
@@ -378,18 +655,13 @@ public class TaskList {
         // Create new Event object, slicing newEventDateTimeStrings array from index 1 since we
         // added the '/at' which shouldn't be in the actual Event object
         // Creating an event might throw an exception if the date is in the wrong format
-        Optional<Event> newEvent;
         try {
-            newEvent = Optional.of(new Event(String.join(" ", newEventMessages),
-                    String.join(" ", newEventDateTimeStrings.subList(1, newEventDateTimeStrings.size()))));
+            return Optional.of(new Event(Parser.joinArgs(newEventMessages),
+                    Parser.joinArgs(newEventDateTimeStrings.subList(1, newEventDateTimeStrings.size()))));
         } catch (DateTimeParseException e) {
             throw new DukeDateTimeParseException(
                     "Please format your date after /at to be DD/MM/YYYY HHMM");
         }
-
-        // return new pair
-        return new Pair<>(new TaskList(Stream.concat(this.todos.stream(), Stream.of(newEvent))
-                .collect(Collectors.toList())), newEvent);
     }
 
     /**
@@ -402,6 +674,27 @@ public class TaskList {
      *         index that is out of range.
      */
     public Pair<TaskList, Optional<? extends Todo>> markAsDone(List<String> doneCommandArgs) throws DukeTaskIndexOutOfRangeException {
+        int idxIsDone = getIndexToMarkAsDone(doneCommandArgs, this.todos.size());
+
+        // Get Todo to be marked as done
+        Optional<? extends Todo> doneTodo = this.todos.get(idxIsDone).map(Todo::markAsDone);
+
+        // Get new TaskList containing the new Todo, sharing every other Todo with this TaskList
+        TaskList newTaskListWithTodoMarkedAsDone = withReplaced(idxIsDone, doneTodo);
+
+        // return Pair of new Task List and todo that's done
+        return new Pair<>(newTaskListWithTodoMarkedAsDone, doneTodo);
+    }
+
+    /**
+     * Returns the 0-based index of the Todo picked by the args of a done command
+     * @param doneCommandArgs List of Strings with size 1 containing the 1-based index of the todo
+     * @param todosCount number of Todos in the list
+     * @return 0-based index of the Todo to mark as done
+     * @throws DukeTaskIndexOutOfRangeException when the index is out of range
+     */
+    private static int getIndexToMarkAsDone(List<String> doneCommandArgs, int todosCount)
+            throws DukeTaskIndexOutOfRangeException {
         int idxIsDone;
         try {
             idxIsDone = Integer.parseInt(doneCommandArgs.get(0)) - ONE_BASED_INDEX_OFFSET;
@@ -410,27 +703,204 @@ public class TaskList {
                     + "right after the update command as '" + doneCommandArgs.get(0)
                     + "' is not recognised as a valid index");
         }
-        if (idxIsDone >= this.todos.size()) {
+        if (idxIsDone >= todosCount) {
             throw new DukeTaskIndexOutOfRangeException("The index you input has an index that is "
                             + "beyond the range of the number of tasks you currently have. "
                             + "Please try again.");
         }
+        return idxIsDone;
+    }
 
-        // Get Todo to be marked as done
-        Optional<? extends Todo> doneTodo = this.todos.get(idxIsDone).map(Todo::markAsDone);
+    /**
+     * Returns indexes of the Todos picked by a bulk done or delete command
+     * @param selectionArgs index list such as 3,7,9, range such as 1-500, or all matching followed
+     *        by keywords
+     * @return distinct 0-based indexes of the picked Todos in increasing order
+     * @throws DukeBlankTaskException when nothing is picked or no keywords follow all matching
+     * @throws DukeTaskIndexOutOfRangeException when an index is not a number or is out of range
+     * @throws DukeNoMatchingTasksException when no Todo matches the keywords
+     */
+    public int[] selectTodos(List<String> selectionArgs)
+            throws DukeBlankTaskException, DukeTaskIndexOutOfRangeException, DukeNoMatchingTasksException {
+        return selectTodos(selectionArgs, this.todos.size(), keywords -> getKeywordIndex().findPositions(keywords));
+    }
 
-        // Get new TaskList containing the new Todo
-        TaskList newTaskListWithTodoMarkedAsDone = new TaskList(IntStream.range(0, this.todos.size())
-                .mapToObj(idx -> {
-                    // check if idx is equal to done object
-                    // if it is, return done object,
-                    // else return original object
-                    return idx == idxIsDone
-                            ? doneTodo
-                            : this.todos.get(idx);
-                }).collect(Collectors.toList()));
+    /**
+     * Returns indexes of the Todos picked by a bulk done or delete command, see selectTodos
+     * @param selectionArgs index list, range or all matching followed by keywords
+     * @param todosCount number of Todos in the list
+     * @param keywordSearch returns positions of the Todos matching any keyword, used by all matching
+     * @return distinct 0-based indexes of the picked Todos in increasing order
+     * @throws DukeBlankTaskException when nothing is picked or no keywords follow all matching
+     * @throws DukeTaskIndexOutOfRangeException when an index is not a number or is out of range
+     * @throws DukeNoMatchingTasksException when no Todo matches the keywords
+     */
+    private static int[] selectTodos(List<String> selectionArgs, int todosCount,
+            Function<List<String>, int[]> keywordSearch)
+            throws DukeBlankTaskException, DukeTaskIndexOutOfRangeException, DukeNoMatchingTasksException {
+        if (selectionArgs.isEmpty()) {
+            throw new DukeBlankTaskException("Please input the indexes of the tasks, like 3,7,9 or 1-5");
+        }
+        if (!selectionArgs.get(0).equals("all")) {
+            return Parser.parseIndexSelection(selectionArgs, todosCount);
+        }
 
-        // return Pair of new Task List and todo that's done
-        return new Pair<>(newTaskListWithTodoMarkedAsDone, doneTodo);
+        // all matching <keywords> picks every Todo find would return
+        if (selectionArgs.size() < 3 || !selectionArgs.get(1).equals("matching")) {
+            throw new DukeBlankTaskException("Please input the keywords to match after 'all matching'");
+        }
+        List<String> keywords = selectionArgs.subList(2, selectionArgs.size());
+        int[] matchingIndexes = keywordSearch.apply(keywords);
+        if (matchingIndexes.length == 0) {
+            throw new DukeNoMatchingTasksException("There are no tasks matching '" + String.join(" ", keywords)
+                    + "' in your list");
+        }
+        return matchingIndexes;
+    }
+
+    /**
+     * Marks every Todo at the indexes passed in as done in a single update
+     * @param sortedIndexes distinct 0-based indexes returned by selectTodos
+     * @return Pair of new TaskList and the Todos that are now done, in list order
+     */
+    public Pair<TaskList, List<Optional<? extends Todo>>> markAllAsDone(int[] sortedIndexes) {
+        TaskList newTaskList = withReplacedAll(sortedIndexes, todo -> todo.map(Todo::markAsDone));
+        List<Optional<? extends Todo>> doneTodos = new ArrayList<>(sortedIndexes.length);
+        for (int index : sortedIndexes) {
+            doneTodos.add(newTaskList.todos.get(index));
+        }
+        return new Pair<>(newTaskList, doneTodos);
+    }
+
+    /**
+     * Deletes every Todo at the indexes passed in with a single update
+     * @param sortedIndexes distinct 0-based indexes returned by selectTodos
+     * @return Pair of new TaskList and the deleted Todos, in list order
+     */
+    public Pair<TaskList, List<Optional<? extends Todo>>> deleteAll(int[] sortedIndexes) {
+        List<Optional<? extends Todo>> deletedTodos = new ArrayList<>(sortedIndexes.length);
+        for (int index : sortedIndexes) {
+            deletedTodos.add(this.todos.get(index));
+        }
+        return new Pair<>(withRemovedAll(sortedIndexes), deletedTodos);
+    }
+
+    /**
+     * Mutable copy of a TaskList that the commands of an import are applied to in place, so that
+     * importing many commands copies the Todos once instead of path copying them for every
+     * command. Nothing is visible outside the Builder until build publishes every change at once
+     */
+    public static class Builder {
+        /** Todos with every command applied so far */
+        private final ArrayList<Optional<? extends Todo>> todos;
+
+        /**
+         * Starts a Builder from the Todos of the TaskList passed in, which is left unchanged
+         * @param taskList TaskList to start from
+         */
+        public Builder(TaskList taskList) {
+            this.todos = new ArrayList<>(taskList.todos);
+        }
+
+        /**
+         * Applies a single todo, deadline, event, done, delete or update command to the Todos,
+         * validating it exactly like the TaskList method of the same command
+         * @param command parsed command to apply
+         * @throws DukeCommandNotFoundException when the command cannot be imported
+         * @throws DukeBlankTaskException when the command is missing its task or index
+         * @throws DukeBlankDetailsException when a Deadline or Event is missing its date time
+         * @throws DukeDateTimeParseException when a date time is of the wrong format
+         * @throws DukeTaskIndexOutOfRangeException when an index is out of range
+         * @throws DukeInvalidFlagException when an update has more than one flag
+         * @throws DukeNoMatchingTasksException when all matching picks no Todo
+         */
+        public void apply(Parser command) throws DukeCommandNotFoundException, DukeBlankTaskException,
+                DukeBlankDetailsException, DukeDateTimeParseException, DukeTaskIndexOutOfRangeException,
+                DukeInvalidFlagException, DukeNoMatchingTasksException {
+            List<String> commandArgs = command.getCommandArgs();
+            // @formatter:off
+            switch (command.getCommand()) {
+            case TODO:
+                this.todos.add(createTodo(commandArgs));
+                break;
+            case DEADLINE:
+                this.todos.add(createDeadline(commandArgs));
+                break;
+            case EVENT:
+                this.todos.add(createEvent(commandArgs));
+                break;
+            case DONE:
+                if (Parser.isBulkSelection(commandArgs)) {
+                    for (int index : selectTodos(commandArgs)) {
+                        markAsDoneAt(index);
+                    }
+                } else {
+                    markAsDoneAt(getIndexToMarkAsDone(commandArgs, this.todos.size()));
+                }
+                break;
+            case DELETE:
+                if (Parser.isBulkSelection(commandArgs)) {
+                    removeAllAt(selectTodos(commandArgs));
+                } else {
+                    this.todos.remove(getIndexToDelete(commandArgs, this.todos.size()));
+                }
+                break;
+            case UPDATE:
+                Pair<Integer, Optional<? extends Todo>> update = createUpdatedTodo(commandArgs, this.todos);
+                this.todos.set(update.getFirst(), update.getSecond());
+                break;
+            default:
+                throw new DukeCommandNotFoundException("Only todo, deadline, event, done, delete and update "
+                        + "commands can be imported");
+            }
+        }
+
+        /**
+         * Returns indexes of the Todos picked by a bulk command. The Todos are scanned for all
+         * matching, since an index would be out of date after the next command
+         * @param selectionArgs index list, range or all matching followed by keywords
+         * @return distinct 0-based indexes of the picked Todos in increasing order
+         * @throws DukeBlankTaskException when nothing is picked or no keywords follow all matching
+         * @throws DukeTaskIndexOutOfRangeException when an index is not a number or is out of range
+         * @throws DukeNoMatchingTasksException when no Todo matches the keywords
+         */
+        private int[] selectTodos(List<String> selectionArgs)
+                throws DukeBlankTaskException, DukeTaskIndexOutOfRangeException, DukeNoMatchingTasksException {
+            return TaskList.selectTodos(selectionArgs, this.todos.size(),
+                    keywords -> KeywordIndex.scanPositions(keywords, this.todos));
+        }
+
+        /**
+         * Marks the Todo at the index passed in as done
+         * @param index 0-based index of the Todo
+         */
+        private void markAsDoneAt(int index) {
+            this.todos.set(index, this.todos.get(index).map(Todo::markAsDone));
+        }
+
+        /**
+         * Removes the Todos at the indexes passed in, shifting every remaining Todo only once
+         * @param sortedIndexes distinct 0-based indexes in increasing order
+         */
+        private void removeAllAt(int[] sortedIndexes) {
+            int kept = sortedIndexes[0];
+            int next = 0;
+            for (int i = sortedIndexes[0]; i < this.todos.size(); i++) {
+                if (next < sortedIndexes.length && sortedIndexes[next] == i) {
+                    next++;
+                } else {
+                    this.todos.set(kept++, this.todos.get(i));
+                }
+            }
+            this.todos.subList(kept, this.todos.size()).clear();
+        }
+
+        /**
+         * Publishes every command applied so far as a single new TaskList
+         * @return TaskList containing the Todos of the Builder
+         */
+        public TaskList build() {
+            return new TaskList(PersistentVector.of(this.todos), null, null);
+        }
     }
 }
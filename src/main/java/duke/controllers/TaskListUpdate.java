@@ -0,0 +1,21 @@
+package duke.controllers;
+
+import duke.models.Pair;
+
+/**
+ * Change applied by Ui to the current TaskList. As the change may be retried against a newer
+ * TaskList when another thread commits first, it should only compute the updated TaskList and
+ * leave any side effect to after it has been committed
+ * @param <T> type of the result returned alongside the updated TaskList
+ * @param <E> type of exception thrown when the change cannot be applied
+ */
+@FunctionalInterface
+interface TaskListUpdate<T, E extends Exception> {
+    /**
+     * Applies the change to the TaskList passed in
+     * @param current TaskList to apply the change to, which is never modified
+     * @return Pair of the updated TaskList and the result of the change
+     * @throws E when the change cannot be applied
+     */
+    Pair<TaskList, T> apply(TaskList current) throws E;
+}
@@ -1,11 +1,32 @@
 package duke.controllers;
 
-import java.util.Arrays;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import duke.exceptions.DukeBlankTaskException;
 import duke.exceptions.DukeCommandNotFoundException;
+import duke.exceptions.DukeImportException;
 import duke.exceptions.DukeTaskIndexOutOfRangeException;
+import duke.metrics.ExecuteEvent;
+import duke.metrics.Metrics;
+import duke.metrics.ParseEvent;
+import duke.metrics.RenderEvent;
+import duke.models.Commands;
 import duke.models.Pair;
 import duke.models.Storage;
 import duke.models.Todo;
@@ -13,19 +34,270 @@ import duke.models.Parser;
 import duke.views.Greeting;
 import duke.views.TodosView;
 
+/**
+ * Runs the commands typed in against the current TaskList. respondToInput may be called from any
+ * number of threads: the current TaskList is kept in an AtomicReference, commands reading it work
+ * on a single snapshot without waiting, and commands changing it retry a compare and set until
+ * their change applies to the latest TaskList. Changes are then persisted in the order they were
+ * committed, so that replaying the journal rebuilds the same TaskList
+ */
 public class Ui {
+    /** Lines of an imported file starting with this are comments */
+    private static final String IMPORT_COMMENT_PREFIX = "#";
+
     /** Storage to deal with database functions */
     private final Storage storage;
-    /** TaskList containing tasks and logic */
-    private TaskList taskList;
+    /** number of Todos shown on each page of the list command */
+    private final int pageSize;
+    /** handler of each command that can be typed in */
+    private final Map<Commands, CommandHandler> handlers = new EnumMap<>(Commands.class);
+    /** metrics each command is recorded into */
+    private final Metrics metrics = Metrics.getInstance();
+    /** latest revision of the TaskList containing tasks and logic */
+    private final AtomicReference<Revision> current;
+    /** guards persistedRevision, waited on by commands whose change is next to be persisted */
+    private final Object persistTurn = new Object();
+    /** number of the last revision whose change has been persisted */
+    private long persistedRevision;
+    /** called after each command that changed the TaskList */
+    private volatile Runnable onChange = () -> {};
+    /** command running on each thread */
+    private final ThreadLocal<RunningCommand> runningCommand = ThreadLocal.withInitial(RunningCommand::new);
+
+    /**
+     * TaskList committed by a command, numbered in the order the commands committed
+     */
+    private static final class Revision {
+        /** TaskList after the command */
+        private final TaskList taskList;
+        /** 0 for the TaskList loaded from storage, then 1 more for each committed command */
+        private final long number;
+
+        /**
+         * Creates a revision of the TaskList
+         * @param taskList TaskList after the command
+         * @param number 1 more than the revision the command was applied to
+         */
+        private Revision(TaskList taskList, long number) {
+            this.taskList = taskList;
+            this.number = number;
+        }
+    }
+
+    /**
+     * Command running on a thread, with the time it has spent rendering and persisting so far
+     */
+    private static final class RunningCommand {
+        /** keyword of the command, recorded in its render events */
+        private String keyword;
+        /** time spent rendering the reply */
+        private long renderNanos;
+        /** time spent persisting the change */
+        private long persistNanos;
+        /** exception the command failed with, null while it has not failed */
+        private Exception failure;
+    }
 
     /**
      * Initialises Storage and TaskList
      * @param storage indicating initialised Storage
      */
     public Ui(Storage storage) {
+        this(storage, TodosView.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Initialises Storage and TaskList, listing Todos in pages of the size passed in
+     * @param storage indicating initialised Storage
+     * @param pageSize number of Todos shown on each page of the list command
+     */
+    public Ui(Storage storage, int pageSize) {
+        assert pageSize > 0 : "Page size of the list command should be positive";
         this.storage = storage;
-        this.taskList = new TaskList(storage.retrieveLocalDatabase());
+        this.pageSize = pageSize;
+        this.current = new AtomicReference<>(new Revision(new TaskList(storage.retrieveLocalDatabase()), 0));
+
+        registerHandler(Commands.LIST, this::listTodos);
+        registerHandler(Commands.EVENT, this::addEvent);
+        registerHandler(Commands.TODO, this::addTodo);
+        registerHandler(Commands.DEADLINE, this::addDeadline);
+        registerHandler(Commands.UPDATE, this::updateTodo);
+        registerHandler(Commands.DONE, this::markAsDone);
+        registerHandler(Commands.DELETE, this::deleteTodo);
+        registerHandler(Commands.FIND, this::findByKeyword);
+        registerHandler(Commands.DUE, this::findDueOn);
+        registerHandler(Commands.BETWEEN, this::findBetween);
+        registerHandler(Commands.NEXT, this::findNext);
+        registerHandler(Commands.IMPORT, this::importTodos);
+        registerHandler(Commands.STATS, this::replyStats);
+        registerHandler(Commands.BYE, this::saveAndExit);
+    }
+
+    /**
+     * Saves the current Todos to the local database, folding in the journal in journal mode
+     */
+    public void saveTasks() {
+        // committed as a revision of its own so that no journal record can be appended mid-save
+        commit(latest -> new Pair<>(latest, null),
+            saved -> storage.saveTasksToLocalDatabase(saved.getFirst().getTodos()));
+    }
+
+    /**
+     * Saves the current Todos without holding up other commands on the disk: in journal mode only
+     * the journal rotation happens in commit order, and the snapshot is written in the background
+     * @return true if the Todos were saved or are being saved, false if an earlier save is still
+     *         running and this one should be retried
+     */
+    public boolean saveTasksInBackground() {
+        AtomicBoolean isSaved = new AtomicBoolean();
+        commit(latest -> new Pair<>(latest, null),
+            saved -> isSaved.set(storage.checkpoint(saved.getFirst().getTodos())));
+        return isSaved.get();
+    }
+
+    /**
+     * Sets what to call after each command that changed the TaskList, such as an autosave
+     * @param onChange called on the thread of the command once its change has been persisted
+     */
+    public void setOnChange(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    /**
+     * Returns the latest TaskList, without waiting for commands changing it. As TaskList is
+     * immutable, the snapshot can be read for as long as needed while commands keep committing
+     * @return latest committed TaskList
+     */
+    public TaskList snapshot() {
+        return this.current.get().taskList;
+    }
+
+    /**
+     * Applies a change to the latest TaskList and commits it with a compare and set, applying it
+     * again to the newer TaskList whenever another thread has committed in between. Once committed
+     * the change is persisted, after the changes committed before it
+     * @param update change to apply, which may run more than once
+     * @param journal persists the committed change given the Pair returned by the update
+     * @param <T> type of the result returned alongside the updated TaskList
+     * @param <E> type of exception thrown when the change cannot be applied
+     * @return Pair of the committed TaskList and the result of the change
+     * @throws E when the change cannot be applied, in which case nothing is committed
+     */
+    private <T, E extends Exception> Pair<TaskList, T> commit(TaskListUpdate<T, E> update,
+            Consumer<Pair<TaskList, T>> journal) throws E {
+        Revision base;
+        Revision committed;
+        Pair<TaskList, T> updateReturn;
+        do {
+            base = this.current.get();
+            updateReturn = update.apply(base.taskList);
+            committed = new Revision(updateReturn.getFirst(), base.number + 1);
+        } while (!this.current.compareAndSet(base, committed));
+
+        // journal records refer to indexes, so they have to be appended in the order committed
+        awaitPersistTurn(base.number);
+        Pair<TaskList, T> persisted = updateReturn;
+        try {
+            persist(() -> journal.accept(persisted));
+        } finally {
+            endPersistTurn(committed.number);
+        }
+        // saves commit the TaskList they were applied to, only actual changes are reported
+        if (updateReturn.getFirst() != base.taskList) {
+            this.onChange.run();
+        }
+        return updateReturn;
+    }
+
+    /**
+     * Waits until the change of every revision up to the one passed in has been persisted. Only
+     * persisting waits, commands keep committing to the TaskList in the meantime
+     * @param previousRevision number of the revision the change to persist was applied to
+     */
+    private void awaitPersistTurn(long previousRevision) {
+        boolean isInterrupted = false;
+        synchronized (this.persistTurn) {
+            while (this.persistedRevision != previousRevision) {
+                try {
+                    this.persistTurn.wait();
+                } catch (InterruptedException e) {
+                    // the change is already committed, so it has to be persisted all the same
+                    isInterrupted = true;
+                }
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Marks the change of a revision as persisted, letting the change committed after it persist
+     * @param revision number of the revision whose change has been persisted
+     */
+    private void endPersistTurn(long revision) {
+        synchronized (this.persistTurn) {
+            this.persistedRevision = revision;
+            this.persistTurn.notifyAll();
+        }
+    }
+
+    /**
+     * Reads every line of the file to import
+     * @param path path of the file containing one command per line
+     * @return lines of the file
+     * @throws DukeImportException when the file cannot be read
+     */
+    private static List<String> readImportedLines(String path) throws DukeImportException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } catch (IOException | InvalidPathException e) {
+            throw new DukeImportException("Sorry, " + path + " could not be read, nothing was imported");
+        }
+        return lines;
+    }
+
+    /**
+     * Applies every imported command to a single TaskList.Builder. Blank lines and lines starting
+     * with # are skipped
+     * @param base TaskList the commands are applied to
+     * @param lines lines of the imported file, one command per line
+     * @param path path of the imported file, shown when a command fails
+     * @return Pair of the TaskList with every command applied and the number of commands applied
+     * @throws DukeImportException when any of the commands fails, in which case none of the
+     *         commands are applied
+     */
+    private static Pair<TaskList, Integer> importCommands(TaskList base, List<String> lines, String path)
+            throws DukeImportException {
+        TaskList.Builder builder = new TaskList.Builder(base);
+        int commandCount = 0;
+        for (int lineIndex = 0; lineIndex < lines.size(); lineIndex++) {
+            String line = lines.get(lineIndex);
+            if (line.isBlank() || line.startsWith(IMPORT_COMMENT_PREFIX)) {
+                continue;
+            }
+            try {
+                builder.apply(new Parser(line));
+            } catch (Exception e) {
+                throw new DukeImportException(String.format("Line %d of %s failed, nothing was imported: %s",
+                        lineIndex + 1, path, e.getMessage()));
+            }
+            commandCount++;
+        }
+        return new Pair<>(builder.build(), commandCount);
+    }
+
+    /**
+     * Registers the handler of a command, replacing any handler registered for it before
+     * @param command command the handler runs
+     * @param handler handler running the command
+     */
+    public void registerHandler(Commands command, CommandHandler handler) {
+        this.handlers.put(command, handler);
     }
 
     /**
@@ -33,149 +305,429 @@ public class Ui {
      * user's commands
      */
     public String respondToInput(String input) {
-        // list has structure [command, ... command related args]
-        Parser command = new Parser(Arrays.asList((input.split(" "))));
+        return runCommand(input).getFirst();
+    }
+
+    /**
+     * Runs the command in the input like respondToInput, also returning whether it failed, for
+     * callers that report failures apart from replies
+     * @param input command typed in
+     * @return Pair of the reply and the exception the command failed with, empty if it succeeded
+     */
+    public Pair<String, Optional<Exception>> runCommand(String input) {
+        long start = System.nanoTime();
+        ParseEvent parseEvent = new ParseEvent();
+        parseEvent.begin();
+        Parser command = new Parser(input);
+        Commands commandType = command.getCommand();
+        List<String> commandArgs = command.getCommandArgs();
+        parseEvent.finish(commandType.getKeyword(), input.length());
+        return runCommand(commandType, commandArgs, start);
+    }
 
-        // try catch statement wraps around getCommand which may throw an error if
-        // command input does not adhere to command format
+    /**
+     * Runs a command whose args were already split, such as fields of a request that are each
+     * kept whole as a single arg instead of being typed into a line and parsed again
+     * @param commandType command to run
+     * @param commandArgs args of the command, as a Parser would split them from a typed line
+     * @return Pair of the reply and the exception the command failed with, empty if it succeeded
+     */
+    public Pair<String, Optional<Exception>> runCommand(Commands commandType, List<String> commandArgs) {
+        return runCommand(commandType, commandArgs, System.nanoTime());
+    }
+
+    /**
+     * Runs a command through its handler, recording how long each phase took
+     * @param commandType command to run
+     * @param commandArgs args of the command
+     * @param start time the command started, including parsing it
+     * @return Pair of the reply and the exception the command failed with, empty if it succeeded
+     */
+    private Pair<String, Optional<Exception>> runCommand(Commands commandType, List<String> commandArgs,
+            long start) {
+        RunningCommand running = this.runningCommand.get();
+        running.failure = null;
         try {
-            // @formatter:off
-            switch (command.getCommand()) {
-            case LIST:
-                // list all the current todos
-                return TodosView.formatListOfTodosToString(taskList.getTodos());
-            case EVENT:
-                // add a new todo to the tasklist
-                try {
-                    // get pair return
-                    Pair<TaskList, Optional<? extends Todo>> addEventReturn =
-                            taskList.addEvent(command.getCommandArgs());
-                    // assign updated tasklist
-                    taskList = addEventReturn.getFirst();
-                    // get new event added
-                    Optional<? extends Todo> newEvent = addEventReturn.getSecond();
-
-                    // return string reply to adding of new event
-                    return TodosView.addTodoReply(newEvent, taskList.todosSize());
-                } catch (Exception e) {
-                    return Greeting.printErrorMessage(e);
-                }
-            case TODO:
-                // add a new todo to the tasklist
-                try {
-                    // get pair return from tasklist add todo
-                    Pair<TaskList, Optional<? extends Todo>> addTodoReturn =
-                            taskList.addTodo(command.getCommandArgs());
-                    // update with new tasklist
-                    taskList = addTodoReturn.getFirst();
-                    // get new todo from tasklist return
-                    Optional<? extends Todo> newTodo = addTodoReturn.getSecond();
-
-                    // return rendered reply for todo
-                    return TodosView.addTodoReply(newTodo, taskList.todosSize());
-                } catch (DukeBlankTaskException e) {
-                    return Greeting.printErrorMessage(e);
-                }
-            case DEADLINE:
-                // add a deadline to tasklist
-                try {
-                    // create new deadline with params from task list
-                    Pair<TaskList, Optional<? extends Todo>> addDeadlineReturn =
-                            taskList.addDeadline(command.getCommandArgs());
+            long parsed = System.nanoTime();
 
-                    // get updated tasklist and replace instance in class
-                    taskList = addDeadlineReturn.getFirst();
+            // a single lookup in the registry picks the handler of the command
+            CommandHandler handler = this.handlers.getOrDefault(commandType, this::replyCommandNotFound);
+            running.keyword = commandType.getKeyword();
+            running.renderNanos = 0;
+            running.persistNanos = 0;
+            ExecuteEvent executeEvent = new ExecuteEvent();
+            executeEvent.begin();
+            String reply = handler.handle(commandArgs);
+            int taskCount = snapshot().todosSize();
+            executeEvent.finish(running.keyword, taskCount);
 
-                    // get new deadline to be printed
-                    Optional<? extends Todo> newDeadline = addDeadlineReturn.getSecond();
+            long executeNanos = System.nanoTime() - parsed - running.renderNanos - running.persistNanos;
+            this.metrics.recordCommand(commandType, parsed - start, executeNanos, running.renderNanos,
+                    running.persistNanos);
+            this.metrics.setTaskCount(taskCount);
+            return new Pair<>(reply, Optional.ofNullable(running.failure));
+        } catch (DukeCommandNotFoundException e) {
+            return new Pair<>(Greeting.printErrorMessage(e), Optional.of(e));
+        } catch (Exception e) {
+            // program not supposed to end up here
+            e.printStackTrace();
+            return new Pair<>("Error, unexpected catch statement executed", Optional.of(e));
+        }
+    }
 
-                    // return rendered String of deadline
-                    return TodosView.addTodoReply(newDeadline, taskList.todosSize());
-                } catch (Exception e) {
-                    return Greeting.printErrorMessage(e);
-                }
-            case UPDATE:
-                // Update a task
-                try {
-                    // update the todo and get return from controller
-                    Pair<TaskList, Optional<? extends Todo>> updateTodoReturn =
-                            taskList.updateTodo(command.getCommandArgs());
+    /**
+     * Replies with a single page of the current todos
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String listTodos(List<String> commandArgs) {
+        // list a single page of the current todos
+        try {
+            TaskList taskList = snapshot();
+            int pageIndex = taskList.getPageIndex(commandArgs, pageSize);
+            return render(() -> TodosView.formatPageOfTodosToString(taskList.getTodos(), pageIndex, pageSize));
+        } catch (Exception e) {
+            return replyError(e);
+        }
+    }
 
-                    // replace taskList with new one from tasklist return
-                    taskList = updateTodoReturn.getFirst();
+    /**
+     * Adds an event to the tasklist
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String addEvent(List<String> commandArgs) {
+        // add a new todo to the tasklist
+        try {
+            // add the event to the latest tasklist and record it in the journal
+            Pair<TaskList, Optional<? extends Todo>> addEventReturn =
+                    commit(latest -> latest.addEvent(commandArgs),
+                        added -> storage.journalAdd(added.getSecond(), added.getFirst().getTodos()));
 
-                    // get todoUpdated to be printed
-                    Optional<? extends Todo> todoUpdated = updateTodoReturn.getSecond();
+            // get new event added
+            Optional<? extends Todo> newEvent = addEventReturn.getSecond();
 
-                    // reply with the String output
-                    return TodosView.updateTodoReply(todoUpdated);
-                } catch (Exception e) {
-                    return Greeting.printErrorMessage(e);
-                }
-            case DONE:
-                // mark a todo as done
-                try {
-                    // get mark as done reply from tasklist
-                    Pair<TaskList, Optional<? extends Todo>> markAsDoneReturn =
-                            taskList.markAsDone(command.getCommandArgs());
+            // return string reply to adding of new event
+            return render(() -> TodosView.addTodoReply(newEvent, addEventReturn.getFirst().todosSize()));
+        } catch (Exception e) {
+            return replyError(e);
+        }
+    }
 
-                    // replace taskList with new one from tasklist return
-                    taskList = markAsDoneReturn.getFirst();
+    /**
+     * Adds a todo to the tasklist
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String addTodo(List<String> commandArgs) {
+        // add a new todo to the tasklist
+        try {
+            // add the todo to the latest tasklist and record it in the journal
+            Pair<TaskList, Optional<? extends Todo>> addTodoReturn =
+                    commit(latest -> latest.addTodo(commandArgs),
+                        added -> storage.journalAdd(added.getSecond(), added.getFirst().getTodos()));
 
-                    // get todoMarkedAsDone to be printed
-                    Optional<? extends Todo> todoMarkedAsDone = markAsDoneReturn.getSecond();
+            // get new todo from tasklist return
+            Optional<? extends Todo> newTodo = addTodoReturn.getSecond();
 
-                    // reply with the String output
-                    return TodosView.markTodoAsDoneReply(todoMarkedAsDone);
-                } catch (DukeTaskIndexOutOfRangeException e) {
-                    return Greeting.printErrorMessage(e);
-                }
-            case DELETE:
-                // delete a todo from the list
-                try {
-                    // get response from tasklist for delete
-                    Pair<TaskList, Optional<? extends Todo>> deleteTodoReturn =
-                            taskList.deleteTodo(command.getCommandArgs());
+            // return rendered reply for todo
+            return render(() -> TodosView.addTodoReply(newTodo, addTodoReturn.getFirst().todosSize()));
+        } catch (DukeBlankTaskException e) {
+            return replyError(e);
+        }
+    }
 
-                    // set new taskList as updated one
-                    taskList = deleteTodoReturn.getFirst();
+    /**
+     * Adds a deadline to the tasklist
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String addDeadline(List<String> commandArgs) {
+        // add a deadline to tasklist
+        try {
+            // add the deadline to the latest tasklist and record it in the journal
+            Pair<TaskList, Optional<? extends Todo>> addDeadlineReturn =
+                    commit(latest -> latest.addDeadline(commandArgs),
+                        added -> storage.journalAdd(added.getSecond(), added.getFirst().getTodos()));
 
-                    // get deleted todo
-                    Optional<? extends Todo> deletedTodo = deleteTodoReturn.getSecond();
+            // get new deadline to be printed
+            Optional<? extends Todo> newDeadline = addDeadlineReturn.getSecond();
 
-                    // return reply of deleted todo
-                    return TodosView.deleteTodoReply(deletedTodo, taskList.todosSize());
-                } catch (Exception e) {
-                    return Greeting.printErrorMessage(e);
-                }
-            case FIND:
-                // find a todo with the relevant keyword
-                return TodosView.formatMatchedTodosToString(taskList.findByKeyword(command.getCommandArgs()));
-            case BYE:
-                // save current todosController tasks to local db before exit
-                storage.saveTasksToLocalDatabase(taskList.getTodos());
-
-                // return bye greeting
-                return Greeting.bye();
-            case UNKNOWN:
-                // Fallthrough
-            default:
-                // print command printed in if not recognised
-                try {
-                    throw new DukeCommandNotFoundException(
-                            "Sorry, the command you are trying to use is not found, please try again!");
-                } catch (DukeCommandNotFoundException e) {
-                    return Greeting.printErrorMessage(e);
-                }
+            // return rendered String of deadline
+            return render(() -> TodosView.addTodoReply(newDeadline, addDeadlineReturn.getFirst().todosSize()));
+        } catch (Exception e) {
+            return replyError(e);
+        }
+    }
+
+    /**
+     * Updates a task
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String updateTodo(List<String> commandArgs) {
+        // Update a task
+        try {
+            // update the todo in the latest tasklist and record it in the journal
+            Pair<TaskList, Optional<? extends Todo>> updateTodoReturn =
+                    commit(latest -> latest.updateTodo(commandArgs),
+                        updated -> storage.journalUpdate(getTaskIndex(commandArgs), updated.getSecond(),
+                                updated.getFirst().getTodos()));
+
+            // get todoUpdated to be printed
+            Optional<? extends Todo> todoUpdated = updateTodoReturn.getSecond();
+
+            // reply with the String output
+            return render(() -> TodosView.updateTodoReply(todoUpdated));
+        } catch (Exception e) {
+            return replyError(e);
+        }
+    }
+
+    /**
+     * Marks a single todo or a selection of todos as done
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String markAsDone(List<String> commandArgs) {
+        // mark several todos as done, e.g. "done 1-5,9" or "done all matching book"
+        if (Parser.isBulkSelection(commandArgs)) {
+            try {
+                // a single journal record, so a crash never leaves half of the todos done
+                Pair<TaskList, Pair<int[], List<Optional<? extends Todo>>>> markAllAsDoneReturn =
+                        commit(latest -> selectAndApply(latest, commandArgs, TaskList::markAllAsDone),
+                            done -> storage.journalDoneAll(done.getSecond().getFirst(), done.getFirst().getTodos()));
+                return render(() -> TodosView.markTodosAsDoneReply(markAllAsDoneReturn.getSecond().getSecond()));
+            } catch (Exception e) {
+                return replyError(e);
             }
-        } catch (DukeCommandNotFoundException e) {
-            // catch error from Command.getCommand()
-            return Greeting.printErrorMessage(e);
+        }
+        // mark a todo as done
+        try {
+            // mark the todo as done in the latest tasklist and record it in the journal
+            Pair<TaskList, Optional<? extends Todo>> markAsDoneReturn =
+                    commit(latest -> latest.markAsDone(commandArgs),
+                        done -> storage.journalDone(getTaskIndex(commandArgs), done.getFirst().getTodos()));
+
+            // get todoMarkedAsDone to be printed
+            Optional<? extends Todo> todoMarkedAsDone = markAsDoneReturn.getSecond();
+
+            // reply with the String output
+            return render(() -> TodosView.markTodoAsDoneReply(todoMarkedAsDone));
+        } catch (DukeTaskIndexOutOfRangeException e) {
+            return replyError(e);
+        }
+    }
+
+    /**
+     * Deletes a single todo or a selection of todos
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String deleteTodo(List<String> commandArgs) {
+        // delete several todos, e.g. "delete 3,7,9" or "delete all matching book"
+        if (Parser.isBulkSelection(commandArgs)) {
+            try {
+                Pair<TaskList, Pair<int[], List<Optional<? extends Todo>>>> deleteAllReturn =
+                        commit(latest -> selectAndApply(latest, commandArgs, TaskList::deleteAll),
+                            deleted -> storage.journalDeleteAll(deleted.getSecond().getFirst(),
+                                    deleted.getFirst().getTodos()));
+                return render(() -> TodosView.deleteTodosReply(deleteAllReturn.getSecond().getSecond(),
+                        deleteAllReturn.getFirst().todosSize()));
+            } catch (Exception e) {
+                return replyError(e);
+            }
+        }
+        // delete a todo from the list
+        try {
+            // delete the todo from the latest tasklist and record it in the journal
+            Pair<TaskList, Optional<? extends Todo>> deleteTodoReturn =
+                    commit(latest -> latest.deleteTodo(commandArgs),
+                        deleted -> storage.journalDelete(getTaskIndex(commandArgs), deleted.getFirst().getTodos()));
+
+            // get deleted todo
+            Optional<? extends Todo> deletedTodo = deleteTodoReturn.getSecond();
+
+            // return reply of deleted todo
+            return render(() -> TodosView.deleteTodoReply(deletedTodo, deleteTodoReturn.getFirst().todosSize()));
         } catch (Exception e) {
-            // program not supposed to end up here
-            e.printStackTrace();
-            return "Error, unexpected catch statement executed";
+            return replyError(e);
+        }
+    }
+
+    /**
+     * Lists the todos matching any of the keywords
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String findByKeyword(List<String> commandArgs) {
+        // find a todo with the relevant keyword
+        List<Optional<? extends Todo>> matchingTodos = snapshot().findByKeyword(commandArgs);
+        return render(() -> TodosView.formatMatchedTodosToString(matchingTodos));
+    }
+
+    /**
+     * Lists deadlines and events falling on a date
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String findDueOn(List<String> commandArgs) {
+        // list deadlines and events falling on a date
+        try {
+            List<Optional<? extends Todo>> dueTodos = snapshot().findDueOn(commandArgs);
+            return render(() -> TodosView.formatScheduledTodosToString(dueTodos));
+        } catch (Exception e) {
+            return replyError(e);
         }
     }
 
+    /**
+     * Lists deadlines and events falling between two dates
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String findBetween(List<String> commandArgs) {
+        // list deadlines and events falling between two dates
+        try {
+            List<Optional<? extends Todo>> scheduledTodos = snapshot().findBetween(commandArgs);
+            return render(() -> TodosView.formatScheduledTodosToString(scheduledTodos));
+        } catch (Exception e) {
+            return replyError(e);
+        }
+    }
+
+    /**
+     * Lists the next deadlines and events from now on
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String findNext(List<String> commandArgs) {
+        // list the next deadlines and events from now on
+        try {
+            List<Optional<? extends Todo>> nextTodos = snapshot().findNext(commandArgs, LocalDateTime.now());
+            return render(() -> TodosView.formatScheduledTodosToString(nextTodos));
+        } catch (Exception e) {
+            return replyError(e);
+        }
+    }
+
+    /**
+     * Applies every command of a file, keeping none of them if any fails
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String importTodos(List<String> commandArgs) {
+        // apply every command of a file, keeping none of them if any fails
+        try {
+            if (commandArgs.isEmpty()) {
+                throw new DukeBlankTaskException("Please input the path of the file to import");
+            }
+            String path = Parser.joinArgs(commandArgs);
+            // the file is read once, only applying its commands is retried
+            List<String> lines = readImportedLines(path);
+            // a single save of the imported todos instead of a journal record per command
+            Pair<TaskList, Integer> importReturn = commit(latest -> importCommands(latest, lines, path),
+                imported -> storage.saveTasksToLocalDatabase(imported.getFirst().getTodos()));
+            return render(() -> TodosView.importReply(importReturn.getSecond(), importReturn.getFirst().todosSize()));
+        } catch (Exception e) {
+            return replyError(e);
+        }
+    }
+
+    /**
+     * Saves the tasks before exit and says bye
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String saveAndExit(List<String> commandArgs) {
+        // save current todosController tasks to local db before exit
+        saveTasks();
+
+        // return bye greeting
+        return Greeting.bye();
+    }
+
+    /**
+     * Replies with the latency of each command, the number of tasks and how long loading and
+     * saving them took
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String replyStats(List<String> commandArgs) {
+        return this.metrics.getReport();
+    }
+
+    /**
+     * Renders a reply, adding the time taken to the render phase of the running command
+     * @param view renders the reply
+     * @return reply shown to the user
+     */
+    private String render(Supplier<String> view) {
+        long start = System.nanoTime();
+        RenderEvent renderEvent = new RenderEvent();
+        renderEvent.begin();
+        String reply = view.get();
+        RunningCommand running = this.runningCommand.get();
+        renderEvent.finish(running.keyword, reply.length());
+        running.renderNanos += System.nanoTime() - start;
+        return reply;
+    }
+
+    /**
+     * Persists a change, adding the time taken to the persist phase of the running command
+     * @param write writes the change to storage
+     */
+    private void persist(Runnable write) {
+        long start = System.nanoTime();
+        write.run();
+        this.runningCommand.get().persistNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Applies a bulk change to the Todos picked by a selection of the TaskList passed in
+     * @param taskList TaskList to select the Todos from
+     * @param selectionArgs indexes, ranges or all matching followed by keywords
+     * @param bulkChange change applied to the 0-based indexes of the picked Todos
+     * @return Pair of the updated TaskList and Pair of the indexes and the Todos changed
+     * @throws Exception when the selection is invalid
+     */
+    private static Pair<TaskList, Pair<int[], List<Optional<? extends Todo>>>> selectAndApply(TaskList taskList,
+            List<String> selectionArgs,
+            BiFunction<TaskList, int[], Pair<TaskList, List<Optional<? extends Todo>>>> bulkChange)
+            throws Exception {
+        int[] selectedIndexes = taskList.selectTodos(selectionArgs);
+        Pair<TaskList, List<Optional<? extends Todo>>> bulkReturn = bulkChange.apply(taskList, selectedIndexes);
+        return new Pair<>(bulkReturn.getFirst(), new Pair<>(selectedIndexes, bulkReturn.getSecond()));
+    }
+
+    /**
+     * Replies to a command that is not recognised
+     * @param commandArgs words typed in after the command
+     * @return reply shown to the user
+     */
+    private String replyCommandNotFound(List<String> commandArgs) {
+        return replyError(new DukeCommandNotFoundException(
+                "Sorry, the command you are trying to use is not found, please try again!"));
+    }
+
+    /**
+     * Replies with the message of the exception the running command failed with, recording the
+     * failure for runCommand
+     * @param exception exception the command failed with
+     * @return reply shown to the user
+     */
+    private String replyError(Exception exception) {
+        this.runningCommand.get().failure = exception;
+        return Greeting.printErrorMessage(exception);
+    }
+
+    /**
+     * Returns the 0-based index of the task a successful done, delete or update command acted on
+     * @param commandArgs command args whose first argument is the 1-based index of the task
+     * @return 0-based index of the task
+     */
+    private static int getTaskIndex(List<String> commandArgs) {
+        return Integer.parseInt(commandArgs.get(0)) - 1;
+    }
+
 }
@@ -0,0 +1,7 @@
+package duke.exceptions;
+
+public class DukeBadRequestException extends Exception {
+    public DukeBadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package duke.exceptions;
+
+public class DukeImportException extends Exception {
+    public DukeImportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package duke.exceptions;
+
+public class DukeNoMatchingTasksException extends Exception {
+    public DukeNoMatchingTasksException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,40 @@
+package duke.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering a command running against the TaskList, including the render
+ * and storage events nested in it
+ */
+@Name("duke.Execute")
+@Label("Execute Command")
+@Category("Duke")
+@Description("Command running against the list of tasks, rendering its reply and persisting its change")
+@StackTrace(false)
+public class ExecuteEvent extends jdk.jfr.Event {
+    /** command that ran */
+    @Label("Command")
+    String command;
+
+    /** number of tasks once the command has run */
+    @Label("Task Count")
+    int taskCount;
+
+    /**
+     * Ends the event and commits it when it is being recorded
+     * @param executedCommand keyword of the command that ran
+     * @param executedTaskCount number of tasks once the command has run
+     */
+    public void finish(String executedCommand, int executedTaskCount) {
+        end();
+        if (shouldCommit()) {
+            this.command = executedCommand;
+            this.taskCount = executedTaskCount;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package duke.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of durations in nanoseconds. Each power of two is split into
+ * SUB_BUCKET_COUNT linear buckets, so a percentile read from it is within about 6% of the actual
+ * duration however long the durations get, while recording is a few shifts and an atomic
+ * increment.
+ */
+public class LatencyHistogram {
+    /** Number of bits of each duration kept below its highest set bit */
+    private static final int SUB_BUCKET_BITS = 4;
+    /** Number of linear buckets each power of two is split into */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** Highest bit of the longest duration recorded exactly, about 18 minutes in nanoseconds */
+    private static final int MAX_BIT = 40;
+    /** Number of buckets, longer durations are counted in the last one */
+    private static final int BUCKET_COUNT = (MAX_BIT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    /** number of durations recorded in each bucket */
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+    /** number of durations recorded */
+    private final AtomicLong count = new AtomicLong();
+    /** sum of every duration recorded */
+    private final AtomicLong totalNanos = new AtomicLong();
+    /** longest duration recorded */
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a single duration
+     * @param nanos duration in nanoseconds, negative durations are counted as 0
+     */
+    public void record(long nanos) {
+        long duration = Math.max(0, nanos);
+        this.bucketCounts.incrementAndGet(bucketOf(duration));
+        this.count.incrementAndGet();
+        this.totalNanos.addAndGet(duration);
+        this.maxNanos.accumulateAndGet(duration, Math::max);
+    }
+
+    /**
+     * Returns the bucket a duration is counted in
+     * @param nanos duration in nanoseconds, not negative
+     * @return index of the bucket
+     */
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKET_COUNT) {
+            return (int) nanos;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(nanos);
+        if (highestBit > MAX_BIT) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = highestBit - SUB_BUCKET_BITS;
+        // the highest bit is always set, so only the bits below it pick the linear bucket
+        int subBucket = (int) (nanos >>> shift) - SUB_BUCKET_COUNT;
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Returns the longest duration counted in a bucket
+     * @param bucket index of the bucket
+     * @return upper bound of the bucket in nanoseconds
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKET_COUNT - 1;
+        long subBucket = bucket % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public long getCount() {
+        return this.count.get();
+    }
+
+    public long getMaxNanos() {
+        return this.maxNanos.get();
+    }
+
+    /**
+     * Returns the mean of every duration recorded
+     * @return mean duration in nanoseconds, 0 if nothing was recorded
+     */
+    public double getMeanNanos() {
+        long recorded = this.count.get();
+        return recorded == 0 ? 0 : (double) this.totalNanos.get() / recorded;
+    }
+
+    /**
+     * Returns the duration that the percentage of durations passed in were at most. Durations
+     * recorded while reading may or may not be counted
+     * @param percentile percentage between 0 and 100
+     * @return duration in nanoseconds, 0 if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long recorded = this.count.get();
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += this.bucketCounts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(bucket), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+}
@@ -0,0 +1,283 @@
+package duke.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToDoubleFunction;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import duke.models.Commands;
+
+/**
+ * Latency of every command split into its phases, along with the number of tasks and the time
+ * and bytes taken to load and save them. A single instance is shared by the whole process, is
+ * safe to record into from any thread and can be registered as an MXBean
+ */
+public class Metrics implements MetricsMXBean {
+    /** Name the MXBean is registered under */
+    private static final String OBJECT_NAME = "duke:type=Metrics";
+    /** Nanoseconds in a millisecond */
+    private static final double NANOS_PER_MILLI = 1e6;
+    /** Instance shared by the whole process */
+    private static final Metrics INSTANCE = new Metrics();
+
+    /** histogram of each command and phase, created the first time the command runs */
+    private final AtomicReferenceArray<LatencyHistogram> commandPhases =
+            new AtomicReferenceArray<>(Commands.values().length * Phase.values().length);
+    /** number of tasks after the last command */
+    private final AtomicLong taskCount = new AtomicLong();
+    /** time taken by the last load */
+    private final AtomicLong loadNanos = new AtomicLong();
+    /** bytes read by the last load */
+    private final AtomicLong loadBytes = new AtomicLong();
+    /** time taken by each save */
+    private final LatencyHistogram saves = new LatencyHistogram();
+    /** bytes written by the last save */
+    private final AtomicLong lastSaveBytes = new AtomicLong();
+    /** time taken by the last save */
+    private final AtomicLong lastSaveNanos = new AtomicLong();
+    /** number of storage operations that failed */
+    private final AtomicLong storageErrorCount = new AtomicLong();
+    /** description of the last storage operation that failed */
+    private final AtomicReference<String> lastStorageError = new AtomicReference<>("");
+    /** whether the instance has been registered as an MXBean */
+    private boolean isRegistered;
+
+    /**
+     * Explicit definition of the default constructor, use getInstance
+     */
+    private Metrics() {}
+
+    public static Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the shared instance with the platform MBean server, once however often it is called
+     */
+    public static synchronized void registerMBean() {
+        if (INSTANCE.isRegistered) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            INSTANCE.isRegistered = true;
+        } catch (JMException e) {
+            // metrics can still be read through the stats command
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Records the time each phase of a command took
+     * @param command command that ran
+     * @param parseNanos time taken to parse the input
+     * @param executeNanos time taken to run the command, without rendering or persisting
+     * @param renderNanos time taken to render the reply
+     * @param persistNanos time taken to persist the change
+     */
+    public void recordCommand(Commands command, long parseNanos, long executeNanos, long renderNanos,
+            long persistNanos) {
+        histogramOf(command, Phase.PARSE).record(parseNanos);
+        histogramOf(command, Phase.EXECUTE).record(executeNanos);
+        histogramOf(command, Phase.RENDER).record(renderNanos);
+        histogramOf(command, Phase.PERSIST).record(persistNanos);
+        histogramOf(command, Phase.TOTAL).record(parseNanos + executeNanos + renderNanos + persistNanos);
+    }
+
+    /**
+     * Returns the histogram of a phase of a command, creating it the first time
+     * @param command command that ran
+     * @param phase phase of the command
+     * @return histogram of the phase
+     */
+    private LatencyHistogram histogramOf(Commands command, Phase phase) {
+        int slot = command.ordinal() * Phase.values().length + phase.ordinal();
+        LatencyHistogram histogram = this.commandPhases.get(slot);
+        if (histogram == null) {
+            // racing threads agree on whichever histogram was set first
+            this.commandPhases.compareAndSet(slot, null, new LatencyHistogram());
+            histogram = this.commandPhases.get(slot);
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns the histogram of the total latency of a command
+     * @param command command to look up
+     * @return histogram of the total latency, null if the command has not run
+     */
+    private LatencyHistogram totalOf(Commands command) {
+        return this.commandPhases.get(command.ordinal() * Phase.values().length + Phase.TOTAL.ordinal());
+    }
+
+    public void setTaskCount(long taskCount) {
+        this.taskCount.set(taskCount);
+    }
+
+    /**
+     * Records a load of the tasks
+     * @param nanos time taken by the load
+     * @param bytes bytes read by the load
+     */
+    public void recordLoad(long nanos, long bytes) {
+        this.loadNanos.set(nanos);
+        this.loadBytes.set(bytes);
+    }
+
+    /**
+     * Records a save of every task
+     * @param nanos time taken by the save
+     * @param bytes bytes written by the save
+     */
+    public void recordSave(long nanos, long bytes) {
+        this.saves.record(nanos);
+        this.lastSaveBytes.set(bytes);
+        this.lastSaveNanos.set(nanos);
+    }
+
+    /**
+     * Records a storage operation that failed
+     * @param operation what was being done, such as "saving the tasks"
+     * @param exception exception the operation failed with
+     */
+    public void recordStorageError(String operation, Exception exception) {
+        this.storageErrorCount.incrementAndGet();
+        this.lastStorageError.set(String.format("%s failed: %s", operation, exception));
+    }
+
+    @Override
+    public long getTaskCount() {
+        return this.taskCount.get();
+    }
+
+    @Override
+    public long getCommandCount() {
+        long commandCount = 0;
+        for (Commands command : Commands.values()) {
+            LatencyHistogram total = totalOf(command);
+            commandCount += total == null ? 0 : total.getCount();
+        }
+        return commandCount;
+    }
+
+    @Override
+    public Map<String, Double> getCommandP50Millis() {
+        return collectTotals(total -> toMillis(total.getPercentileNanos(50)));
+    }
+
+    @Override
+    public Map<String, Double> getCommandP99Millis() {
+        return collectTotals(total -> toMillis(total.getPercentileNanos(99)));
+    }
+
+    /**
+     * Collects a statistic of the total latency of each command that has run
+     * @param statistic statistic read from the histogram of the total latency
+     * @return statistic keyed by the lowercase name of the command
+     */
+    private Map<String, Double> collectTotals(ToDoubleFunction<LatencyHistogram> statistic) {
+        Map<String, Double> totals = new LinkedHashMap<>();
+        for (Commands command : Commands.values()) {
+            LatencyHistogram total = totalOf(command);
+            if (total != null) {
+                totals.put(command.name().toLowerCase(Locale.ROOT), statistic.applyAsDouble(total));
+            }
+        }
+        return totals;
+    }
+
+    @Override
+    public double getLoadMillis() {
+        return toMillis(this.loadNanos.get());
+    }
+
+    @Override
+    public long getLoadBytes() {
+        return this.loadBytes.get();
+    }
+
+    @Override
+    public long getSaveCount() {
+        return this.saves.getCount();
+    }
+
+    @Override
+    public double getSaveP50Millis() {
+        return toMillis(this.saves.getPercentileNanos(50));
+    }
+
+    @Override
+    public double getSaveP99Millis() {
+        return toMillis(this.saves.getPercentileNanos(99));
+    }
+
+    @Override
+    public long getLastSaveBytes() {
+        return this.lastSaveBytes.get();
+    }
+
+    @Override
+    public double getLastSaveMegabytesPerSecond() {
+        long nanos = this.lastSaveNanos.get();
+        // bytes per nanosecond is thousands of MB per second
+        return nanos == 0 ? 0 : this.lastSaveBytes.get() * 1000.0 / nanos;
+    }
+
+    @Override
+    public long getStorageErrorCount() {
+        return this.storageErrorCount.get();
+    }
+
+    @Override
+    public String getLastStorageError() {
+        return this.lastStorageError.get();
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder sb = new StringBuilder("Here are the stats since Duke started:\n");
+        sb.append(String.format("Tasks: %d, loaded in %.1f ms from %d bytes\n", getTaskCount(), getLoadMillis(),
+                getLoadBytes()));
+        sb.append(String.format("Saves: %d, p50 %.2f ms, p99 %.2f ms, last %d bytes at %.1f MB/s\n",
+                getSaveCount(), getSaveP50Millis(), getSaveP99Millis(), getLastSaveBytes(),
+                getLastSaveMegabytesPerSecond()));
+        sb.append(String.format("Storage errors: %d", getStorageErrorCount()));
+        if (getStorageErrorCount() > 0) {
+            sb.append(", last: ").append(getLastStorageError());
+        }
+        for (Commands command : Commands.values()) {
+            LatencyHistogram total = totalOf(command);
+            if (total == null) {
+                continue;
+            }
+            sb.append(String.format("\n%s: %d runs, p50 %.3f ms, p99 %.3f ms, max %.3f ms (p50",
+                    command.name().toLowerCase(Locale.ROOT), total.getCount(),
+                    toMillis(total.getPercentileNanos(50)), toMillis(total.getPercentileNanos(99)),
+                    toMillis(total.getMaxNanos())));
+            for (Phase phase : Phase.values()) {
+                if (phase != Phase.TOTAL) {
+                    sb.append(String.format(" %s %.3f", phase.name().toLowerCase(Locale.ROOT),
+                            toMillis(histogramOf(command, phase).getPercentileNanos(50))));
+                }
+            }
+            sb.append(" ms)");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds
+     * @param nanos duration in nanoseconds
+     * @return duration in milliseconds
+     */
+    private static double toMillis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
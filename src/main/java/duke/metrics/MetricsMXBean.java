@@ -0,0 +1,52 @@
+package duke.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of Metrics, shown by JConsole or VisualVM under duke:type=Metrics
+ */
+public interface MetricsMXBean {
+    long getTaskCount();
+
+    long getCommandCount();
+
+    /**
+     * Returns the median total latency of each command that has run
+     * @return milliseconds keyed by command
+     */
+    Map<String, Double> getCommandP50Millis();
+
+    /**
+     * Returns the 99th percentile total latency of each command that has run
+     * @return milliseconds keyed by command
+     */
+    Map<String, Double> getCommandP99Millis();
+
+    double getLoadMillis();
+
+    long getLoadBytes();
+
+    long getSaveCount();
+
+    double getSaveP50Millis();
+
+    double getSaveP99Millis();
+
+    long getLastSaveBytes();
+
+    /**
+     * Returns the rate the last save was written and forced to the disk at
+     * @return megabytes (10^6 bytes) per second, 0 before the first save
+     */
+    double getLastSaveMegabytesPerSecond();
+
+    long getStorageErrorCount();
+
+    String getLastStorageError();
+
+    /**
+     * Returns every metric as the text replied to the stats command
+     * @return report of every metric
+     */
+    String getReport();
+}
@@ -0,0 +1,40 @@
+package duke.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering the parsing of a single input into a command. Like the other
+ * Duke events, it costs next to nothing unless a recording has it enabled
+ */
+@Name("duke.Parse")
+@Label("Parse Command")
+@Category("Duke")
+@Description("Parsing of the input typed in into a command")
+@StackTrace(false)
+public class ParseEvent extends jdk.jfr.Event {
+    /** command the input was parsed into */
+    @Label("Command")
+    String command;
+
+    /** number of characters typed in */
+    @Label("Input Length")
+    int inputLength;
+
+    /**
+     * Ends the event and commits it when it is being recorded
+     * @param parsedCommand keyword of the command the input was parsed into
+     * @param parsedLength number of characters typed in
+     */
+    public void finish(String parsedCommand, int parsedLength) {
+        end();
+        if (shouldCommit()) {
+            this.command = parsedCommand;
+            this.inputLength = parsedLength;
+            commit();
+        }
+    }
+}
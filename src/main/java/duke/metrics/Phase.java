@@ -0,0 +1,17 @@
+package duke.metrics;
+
+/**
+ * Phases the time taken by a command is split into
+ */
+public enum Phase {
+    /** Splitting the input and looking up its command */
+    PARSE,
+    /** Running the command against the TaskList */
+    EXECUTE,
+    /** Rendering the reply */
+    RENDER,
+    /** Writing the change to the journal or database */
+    PERSIST,
+    /** Every phase together */
+    TOTAL
+}
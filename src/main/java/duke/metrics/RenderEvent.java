@@ -0,0 +1,39 @@
+package duke.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering the TodosView rendering the reply of a command
+ */
+@Name("duke.Render")
+@Label("Render Reply")
+@Category("Duke")
+@Description("Rendering of the reply shown to the user")
+@StackTrace(false)
+public class RenderEvent extends jdk.jfr.Event {
+    /** command the reply is for */
+    @Label("Command")
+    String command;
+
+    /** number of characters in the reply */
+    @Label("Reply Length")
+    int replyLength;
+
+    /**
+     * Ends the event and commits it when it is being recorded
+     * @param renderedCommand keyword of the command the reply is for
+     * @param renderedLength number of characters in the reply
+     */
+    public void finish(String renderedCommand, int renderedLength) {
+        end();
+        if (shouldCommit()) {
+            this.command = renderedCommand;
+            this.replyLength = renderedLength;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package duke.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event covering Storage loading the tasks, saving a snapshot of them or appending
+ * to the journal. Stack traces are kept so that slow writes can be traced back to their command
+ */
+@Name("duke.Storage")
+@Label("Storage Operation")
+@Category("Duke")
+@Description("Load, snapshot save or journal append of the tasks")
+public class StorageEvent extends jdk.jfr.Event {
+    /** Operation loading the tasks */
+    public static final String LOAD = "load";
+    /** Operation saving a snapshot of every task */
+    public static final String SAVE = "save";
+    /** Operation appending a record to the journal */
+    public static final String JOURNAL = "journal";
+
+    /** one of LOAD, SAVE or JOURNAL */
+    @Label("Operation")
+    String operation;
+
+    /** number of tasks loaded or saved */
+    @Label("Task Count")
+    int taskCount;
+
+    /** bytes read or written */
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+
+    /**
+     * Ends the event and commits it when it is being recorded
+     * @param storageOperation one of LOAD, SAVE or JOURNAL
+     * @param storedTaskCount number of tasks loaded or saved
+     * @param storedBytes bytes read or written
+     */
+    public void finish(String storageOperation, int storedTaskCount, long storedBytes) {
+        end();
+        if (shouldCommit()) {
+            this.operation = storageOperation;
+            this.taskCount = storedTaskCount;
+            this.bytes = storedBytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package duke.models;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads and writes the binary database format. A file starts with the magic bytes "DUKE" and a
+ * version byte, followed by one record per Todo:
+ * <pre>
+ *     header  : 1 byte, type in the low bits and the done flag in the high bit
+ *     time    : 8 bytes, epoch minute of the date time, only for Deadline and Event
+ *     length  : 1 to 5 bytes, length of the message as an unsigned varint
+ *     message : UTF-8 bytes of the raw message
+ * </pre>
+ * Times are stored as minutes since the epoch of the local date time, so loading never parses a
+ * date String. Records can also be indexed without being decoded, see index, or decoded straight
+ * into TaskColumns, see readColumns. Files are read through a stream rather than memory mapped,
+ * as a live mapping stops the file being replaced by a save on Windows until it is garbage collected.
+ */
+public class BinaryDatabaseCodec {
+    /** Magic bytes every binary database file starts with */
+    private static final byte[] MAGIC = {'D', 'U', 'K', 'E'};
+    /** Version of the format written by this codec */
+    private static final byte VERSION = 1;
+    /** Record type of a plain Todo */
+    private static final byte TYPE_TODO = 0;
+    /** Record type of a Deadline */
+    private static final byte TYPE_DEADLINE = 1;
+    /** Record type of an Event */
+    private static final byte TYPE_EVENT = 2;
+    /** Bit of the record header set when the Todo is done */
+    private static final int DONE_BIT = 0x80;
+    /** Mask of the record header selecting the type */
+    private static final int TYPE_MASK = 0x7F;
+    /** Size of the buffer records are written through */
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    /** Size of the buffer records are read through */
+    private static final int READ_BUFFER_BYTES = 1 << 16;
+
+    /**
+     * Explicit definition of the default constructor, every method is static
+     */
+    private BinaryDatabaseCodec() {}
+
+    /**
+     * Reads every Todo from the binary database file at the path passed in
+     * @param path path of the binary database file
+     * @return List of Todos saved in the file, in order
+     * @throws IOException when the file cannot be read or is not a supported binary database
+     */
+    public static List<Optional<? extends Todo>> read(Path path) throws IOException {
+        try (DataInputStream in = openForReading(path)) {
+            List<Optional<? extends Todo>> todos = new ArrayList<>();
+            byte[] messageBytes = new byte[64];
+            int header;
+            while ((header = in.read()) >= 0) {
+                boolean isDone = (header & DONE_BIT) != 0;
+                int type = header & TYPE_MASK;
+                long epochMinute = type == TYPE_TODO ? 0 : in.readLong();
+
+                int length = readVarint(in);
+                if (length > messageBytes.length) {
+                    messageBytes = new byte[Math.max(length, messageBytes.length * 2)];
+                }
+                in.readFully(messageBytes, 0, length);
+                String message = new String(messageBytes, 0, length, StandardCharsets.UTF_8);
+
+                if (type > TYPE_EVENT) {
+                    throw unknownType(type, path);
+                }
+                todos.add(Optional.of(newTodo(type, isDone, epochMinute, message)));
+            }
+            return todos;
+        }
+    }
+
+    /**
+     * Reads every Todo from the binary database file at the path passed in straight into columns,
+     * copying each message from the file into the columns without creating a Todo or a String
+     * @param path path of the binary database file
+     * @return TaskColumns holding the Todos saved in the file, in order
+     * @throws IOException when the file cannot be read or is not a supported binary database
+     */
+    public static TaskColumns readColumns(Path path) throws IOException {
+        try (DataInputStream in = openForReading(path)) {
+            TaskColumns.Builder columns = new TaskColumns.Builder((int) Math.min(Integer.MAX_VALUE,
+                    Files.size(path) / 16));
+            byte[] messageBytes = new byte[64];
+            int header;
+            while ((header = in.read()) >= 0) {
+                boolean isDone = (header & DONE_BIT) != 0;
+                int type = header & TYPE_MASK;
+                long epochMinute = type == TYPE_TODO ? 0 : in.readLong();
+
+                int length = readVarint(in);
+                if (length > messageBytes.length) {
+                    messageBytes = new byte[Math.max(length, messageBytes.length * 2)];
+                }
+                in.readFully(messageBytes, 0, length);
+
+                // @formatter:off
+                switch (type) {
+                case TYPE_TODO:
+                    columns.addTodo(isDone, messageBytes, 0, length);
+                    break;
+                case TYPE_DEADLINE:
+                    columns.addDeadline(isDone, epochMinute, messageBytes, 0, length);
+                    break;
+                case TYPE_EVENT:
+                    columns.addEvent(isDone, epochMinute, messageBytes, 0, length);
+                    break;
+                default:
+                    throw unknownType(type, path);
+                }
+            }
+            return columns.build();
+        }
+    }
+
+    /**
+     * Indexes where each record of the binary database file at the path passed in starts, without
+     * decoding any Todo. Each Todo is decoded from its record when first read from the returned
+     * vector. The whole file is kept in memory for the Todos left to decode
+     * @param path path of the binary database file
+     * @return vector of the Todos saved in the file, decoded on demand
+     * @throws IOException when the file cannot be read or is not a supported binary database
+     */
+    public static PersistentVector<Optional<? extends Todo>> index(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        readFileHeader(buffer, path);
+
+        int[] recordStarts = new int[Math.max(16, bytes.length / 16)];
+        int recordCount = 0;
+        while (buffer.hasRemaining()) {
+            if (recordCount == recordStarts.length) {
+                recordStarts = Arrays.copyOf(recordStarts, recordCount * 2);
+            }
+            recordStarts[recordCount++] = buffer.position();
+            int type = buffer.get() & TYPE_MASK;
+            if (type > TYPE_EVENT) {
+                throw unknownType(type, path);
+            }
+            if (type != TYPE_TODO) {
+                buffer.position(buffer.position() + Long.BYTES);
+            }
+            int length = readVarint(buffer);
+            buffer.position(buffer.position() + length);
+        }
+
+        int[] indexedRecordStarts = recordStarts;
+        return PersistentVector.lazy(recordCount, i -> decodeRecordAt(bytes, indexedRecordStarts[i]));
+    }
+
+    /**
+     * Decodes the record starting at the position passed in, for the Todos left to decode by index
+     * @param bytes bytes of the whole file
+     * @param recordStart position of the header of the record
+     * @return Optional containing the Todo of the record
+     */
+    private static Optional<? extends Todo> decodeRecordAt(byte[] bytes, int recordStart) {
+        // each call reads through its own buffer, as records are decoded from any thread
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.position(recordStart);
+        int header = buffer.get() & 0xFF;
+        int type = header & TYPE_MASK;
+        long epochMinute = type == TYPE_TODO ? 0 : buffer.getLong();
+        int length = readVarint(buffer);
+        String message = new String(bytes, buffer.position(), length, StandardCharsets.UTF_8);
+        return Optional.of(newTodo(type, (header & DONE_BIT) != 0, epochMinute, message));
+    }
+
+    /**
+     * Opens the binary database file at the path passed in and reads past its magic bytes and version
+     * @param path path of the binary database file
+     * @return buffered stream positioned at the first record
+     * @throws IOException when the file cannot be opened or is not a supported binary database
+     */
+    private static DataInputStream openForReading(Path path) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path),
+                READ_BUFFER_BYTES));
+        try {
+            readFileHeader(ByteBuffer.wrap(in.readNBytes(MAGIC.length + 1)), path);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return in;
+    }
+
+    /**
+     * Reads the magic bytes and version the file starts with
+     * @param buffer buffer positioned at the start of the file
+     * @param path path of the file, for error messages
+     * @throws IOException when the file is not a supported binary database
+     */
+    private static void readFileHeader(ByteBuffer buffer, Path path) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        if (buffer.remaining() < MAGIC.length + 1) {
+            throw new IOException("Binary database file is truncated: " + path);
+        }
+        buffer.get(magic);
+        byte version = buffer.get();
+        if (!Arrays.equals(magic, MAGIC) || version != VERSION) {
+            throw new IOException("Not a supported binary database file: " + path);
+        }
+    }
+
+    /**
+     * Creates the Todo of a record
+     * @param type record type, one of TYPE_TODO, TYPE_DEADLINE and TYPE_EVENT
+     * @param isDone whether the Todo is done
+     * @param epochMinute time of a Deadline or Event, ignored for a plain Todo
+     * @param message raw message of the Todo
+     * @return Todo of the record
+     */
+    private static Todo newTodo(int type, boolean isDone, long epochMinute, String message) {
+        // @formatter:off
+        switch (type) {
+        case TYPE_DEADLINE:
+            return new Deadline(message, isDone, epochMinute);
+        case TYPE_EVENT:
+            return new Event(message, isDone, epochMinute);
+        default:
+            return new Todo(message, isDone);
+        }
+    }
+
+    /**
+     * Creates the exception thrown on a record of an unknown type
+     * @param type type found in the record header
+     * @param path path of the file, for error messages
+     * @return exception to throw
+     */
+    private static IOException unknownType(int type, Path path) {
+        return new IOException("Unknown record type " + type + " in binary database file: " + path);
+    }
+
+    /**
+     * Writes every Todo into a binary database file at the path passed in, replacing its contents,
+     * and forces it to the disk before returning
+     * @param todosList List of Todos to write
+     * @param path path of the binary database file
+     * @throws IOException when the file cannot be written
+     */
+    public static void write(List<Optional<? extends Todo>> todosList, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+                    WRITE_BUFFER_BYTES));
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            for (Optional<? extends Todo> optTodo : todosList) {
+                if (optTodo.isEmpty()) {
+                    continue;
+                }
+                Todo todo = optTodo.get();
+                int doneBit = todo.isTodoDone() ? DONE_BIT : 0;
+                if (todo instanceof Event) {
+                    out.writeByte(TYPE_EVENT | doneBit);
+                    out.writeLong(((Event) todo).getEventEpochMinute());
+                } else if (todo instanceof Deadline) {
+                    out.writeByte(TYPE_DEADLINE | doneBit);
+                    out.writeLong(((Deadline) todo).getDeadlineEpochMinute());
+                } else {
+                    out.writeByte(TYPE_TODO | doneBit);
+                }
+                byte[] messageBytes = todo.getRawMessage().getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, messageBytes.length);
+                out.write(messageBytes);
+            }
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Writes a non-negative int using 7 bits per byte, with the high bit set on every byte but the
+     * last
+     * @param out stream to write to
+     * @param value non-negative value to write
+     * @throws IOException when the stream cannot be written
+     */
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Reads an int written by writeVarint from a stream
+     * @param in stream to read from
+     * @return value read
+     * @throws IOException when the stream ends before the value does
+     */
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Reads an int written by writeVarint
+     * @param buffer buffer to read from
+     * @return value read
+     */
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
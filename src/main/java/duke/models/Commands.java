@@ -1,5 +1,18 @@
 package duke.models;
 
 public enum Commands {
-    LIST, EVENT, TODO, DEADLINE, DONE, DELETE, BYE, UNKNOWN, FIND, UPDATE
+    LIST("list"), EVENT("event"), TODO("todo"), DEADLINE("deadline"), DONE("done"), DELETE("delete"),
+    BYE("bye"), UNKNOWN(null), FIND("find"), UPDATE("update"), DUE("due"), BETWEEN("between"), NEXT("next"),
+    IMPORT("import"), STATS("stats");
+
+    /** word typed in to run the command, null if it cannot be typed in */
+    private final String keyword;
+
+    Commands(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public String getKeyword() {
+        return this.keyword;
+    }
 }
@@ -0,0 +1,403 @@
+package duke.models;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loads the pipe delimited database file written by Storage. The file is read into memory, split
+ * into chunks on line boundaries and each chunk is scanned for delimiters byte by byte on the
+ * ForkJoin common pool, so that large databases load in parallel and without any regex. It can
+ * also only index where each line starts, leaving the Todos to be decoded when first read, or
+ * decode the lines straight into TaskColumns without creating a Todo per line.
+ * <p>
+ * The file is never memory mapped, as a live mapping stops the file being replaced by a save on
+ * Windows until the mapping is garbage collected.
+ */
+public class DatabaseLoader {
+    /** Files smaller than this are parsed in a single chunk */
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+    /** Number of chunks handed to each worker so that uneven chunks still balance out */
+    private static final int CHUNKS_PER_WORKER = 4;
+    /** Byte separating fields of a line */
+    private static final byte FIELD_DELIMITER = '|';
+    /** Byte ending a line */
+    private static final byte LINE_DELIMITER = '\n';
+    /** Byte left before the line delimiter by files saved on Windows */
+    private static final byte CARRIAGE_RETURN = '\r';
+    /** Byte denoting a done Todo in the database file */
+    private static final byte DATABASE_IS_DONE_TRUE = '1';
+    /** Maximum number of fields in a line = [type, isDone, message, extraMessage (event / deadline)] */
+    private static final int MAX_FIELD_COUNT = 4;
+
+    /**
+     * Explicit definition of the default constructor, every method is static
+     */
+    private DatabaseLoader() {}
+
+    /**
+     * Loads every Todo saved in the database file at the path passed in, in file order
+     * @param path path of the database file
+     * @return List of Todos saved in the file
+     * @throws IOException when the file cannot be read
+     */
+    public static List<Optional<? extends Todo>> load(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+
+        // split file into chunks that each start at the beginning of a line
+        int size = bytes.length;
+        int chunkCount = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_WORKER,
+                size / MIN_CHUNK_BYTES));
+        List<ChunkParser> chunks = new ArrayList<>(chunkCount);
+        int chunkStart = 0;
+        for (int i = 1; i <= chunkCount && chunkStart < size; i++) {
+            int chunkEnd = i == chunkCount ? size : nextLineStart(bytes, (int) ((long) size * i / chunkCount));
+            if (chunkEnd > chunkStart) {
+                chunks.add(new ChunkParser(bytes, chunkStart, chunkEnd));
+            }
+            chunkStart = Math.max(chunkStart, chunkEnd);
+        }
+
+        // parse chunks in parallel, then join them back in file order
+        if (chunks.size() == 1) {
+            return chunks.get(0).compute();
+        }
+        ForkJoinTask.invokeAll(chunks);
+        List<Optional<? extends Todo>> todos = new ArrayList<>();
+        for (ChunkParser chunk : chunks) {
+            todos.addAll(chunk.join());
+        }
+        return todos;
+    }
+
+    /**
+     * Loads every Todo saved in the database file at the path passed in straight into columns,
+     * reading the file chunk by chunk, so that the only copy of the Todos ever held is the columns
+     * themselves. Lines are skipped exactly as load skips them
+     * @param path path of the database file
+     * @return TaskColumns holding the Todos saved in the file, in file order
+     * @throws IOException when the file cannot be read
+     */
+    public static TaskColumns loadColumns(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            TaskColumns.Builder columns = new TaskColumns.Builder((int) Math.min(Integer.MAX_VALUE,
+                    Files.size(path) / 32));
+            int[] fieldStarts = new int[MAX_FIELD_COUNT];
+            int[] fieldEnds = new int[MAX_FIELD_COUNT];
+            byte[] bytes = new byte[MIN_CHUNK_BYTES];
+            int filled = 0;
+            while (true) {
+                int read = in.read(bytes, filled, bytes.length - filled);
+                boolean isAtEnd = read < 0;
+                filled += Math.max(0, read);
+
+                // decode every whole line read so far, the last line once the whole file is read
+                int lineStart = 0;
+                while (lineStart < filled) {
+                    int lineEnd = lineStart;
+                    while (lineEnd < filled && bytes[lineEnd] != LINE_DELIMITER) {
+                        lineEnd++;
+                    }
+                    if (lineEnd == filled && !isAtEnd) {
+                        break;
+                    }
+                    int fieldCount = splitFields(bytes, lineStart, lineEnd, fieldStarts, fieldEnds);
+                    try {
+                        decodeLineInto(bytes, fieldStarts, fieldEnds, fieldCount, columns);
+                    } catch (DateTimeParseException e) {
+                        // a line with a malformed date is skipped instead of failing the whole load
+                    }
+                    lineStart = lineEnd + 1;
+                }
+
+                if (isAtEnd) {
+                    return columns.build();
+                }
+
+                // keep the partial line for the next read, growing the array if it fills it
+                filled -= lineStart;
+                System.arraycopy(bytes, lineStart, bytes, 0, filled);
+                if (filled == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+            }
+        }
+    }
+
+    /**
+     * Indexes where each line of the database file at the path passed in starts, without decoding
+     * any Todo. Each Todo is decoded from its line when first read from the returned vector, so
+     * loading only costs a scan for line delimiters however many Todos are saved
+     * <p>
+     * Lines that are malformed are skipped as load does, the date time of each Deadline and Event
+     * being parsed once to check it, so that every Todo sits at the same position in both. A line
+     * that still fails to decode later is read as an empty Optional
+     * @param path path of the database file
+     * @return vector of the Todos saved in the file, decoded on demand
+     * @throws IOException when the file cannot be read
+     */
+    public static PersistentVector<Optional<? extends Todo>> index(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        int[] lineStarts = new int[Math.max(16, bytes.length / 32)];
+        int[] fieldStarts = new int[MAX_FIELD_COUNT];
+        int[] fieldEnds = new int[MAX_FIELD_COUNT];
+        int lineCount = 0;
+        int lineStart = 0;
+        while (lineStart < bytes.length) {
+            int lineEnd = lineStart;
+            int delimiterCount = 0;
+            while (lineEnd < bytes.length && bytes[lineEnd] != LINE_DELIMITER) {
+                if (bytes[lineEnd] == FIELD_DELIMITER) {
+                    delimiterCount++;
+                }
+                lineEnd++;
+            }
+            // the same checks decodeLine makes before looking at any field
+            byte type = bytes[lineStart];
+            int minDelimiterCount = type == 'T' ? 2 : type == 'D' || type == 'E' ? 3 : Integer.MAX_VALUE;
+            if (lineEnd - lineStart > 1 && bytes[lineStart + 1] == FIELD_DELIMITER
+                    && delimiterCount >= minDelimiterCount
+                    && (type == 'T' || hasValidDateTime(bytes, lineStart, lineEnd, fieldStarts, fieldEnds))) {
+                if (lineCount == lineStarts.length) {
+                    lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+                }
+                lineStarts[lineCount++] = lineStart;
+            }
+            lineStart = lineEnd + 1;
+        }
+
+        int[] indexedLineStarts = lineStarts;
+        return PersistentVector.lazy(lineCount, i -> decodeLineAt(bytes, indexedLineStarts[i]));
+    }
+
+    /**
+     * Returns true if the date time field of a Deadline or Event line parses, as load skips the
+     * line otherwise
+     * @param bytes bytes of the whole file
+     * @param lineStart position of the first byte of the line
+     * @param lineEnd position of the line delimiter, or the end of the bytes
+     * @param fieldStarts scratch array for the start of each field
+     * @param fieldEnds scratch array for the end of each field
+     * @return true if the date time can be parsed
+     */
+    private static boolean hasValidDateTime(byte[] bytes, int lineStart, int lineEnd, int[] fieldStarts,
+            int[] fieldEnds) {
+        splitFields(bytes, lineStart, lineEnd, fieldStarts, fieldEnds);
+        try {
+            DateTimeCodec.parseEpochMinute(decodeField(bytes, fieldStarts[3], fieldEnds[3]));
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Decodes the line starting at the position passed in, for the Todos left to decode by index
+     * @param bytes bytes of the whole file
+     * @param lineStart position of the first byte of the line
+     * @return Optional containing the Todo of the line, empty if the line is malformed
+     */
+    private static Optional<? extends Todo> decodeLineAt(byte[] bytes, int lineStart) {
+        int lineEnd = lineStart;
+        while (lineEnd < bytes.length && bytes[lineEnd] != LINE_DELIMITER) {
+            lineEnd++;
+        }
+        int[] fieldStarts = new int[MAX_FIELD_COUNT];
+        int[] fieldEnds = new int[MAX_FIELD_COUNT];
+        int fieldCount = splitFields(bytes, lineStart, lineEnd, fieldStarts, fieldEnds);
+        try {
+            return decodeLine(bytes, fieldStarts, fieldEnds, fieldCount).orElse(Optional.empty());
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Finds the fields of a line, dropping a carriage return left before the line delimiter
+     * @param bytes bytes holding the line
+     * @param lineStart position of the first byte of the line
+     * @param lineEnd position of the line delimiter, or the end of the bytes
+     * @param fieldStarts filled with the start of each field of the line
+     * @param fieldEnds filled with the end of each field of the line
+     * @return number of fields found, at most the length of fieldStarts
+     */
+    private static int splitFields(byte[] bytes, int lineStart, int lineEnd, int[] fieldStarts, int[] fieldEnds) {
+        if (lineEnd > lineStart && bytes[lineEnd - 1] == CARRIAGE_RETURN) {
+            lineEnd--;
+        }
+        int fieldCount = 0;
+        int fieldStart = lineStart;
+        for (int i = lineStart; i <= lineEnd && fieldCount < fieldStarts.length; i++) {
+            if (i == lineEnd || bytes[i] == FIELD_DELIMITER) {
+                fieldStarts[fieldCount] = fieldStart;
+                fieldEnds[fieldCount] = i;
+                fieldCount++;
+                fieldStart = i + 1;
+            }
+        }
+        return fieldCount;
+    }
+
+    /**
+     * Builds a Todo from the fields of a single line, skipping lines that are malformed
+     * @param bytes bytes holding the line
+     * @param fieldStarts start of each field of the line
+     * @param fieldEnds end of each field of the line
+     * @param fieldCount number of fields found in the line
+     * @return Optional containing the Todo of the line, empty if the line is malformed
+     */
+    private static Optional<Optional<? extends Todo>> decodeLine(byte[] bytes, int[] fieldStarts,
+            int[] fieldEnds, int fieldCount) {
+        if (!isWellFormed(bytes, fieldStarts, fieldEnds, fieldCount)) {
+            return Optional.empty();
+        }
+        boolean isDone = fieldEnds[1] > fieldStarts[1] && bytes[fieldStarts[1]] == DATABASE_IS_DONE_TRUE;
+        String message = new String(bytes, fieldStarts[2], fieldEnds[2] - fieldStarts[2], StandardCharsets.UTF_8);
+
+        // @formatter:off
+        switch (bytes[fieldStarts[0]]) {
+        case 'D':
+            return Optional.of(Optional.of(new Deadline(message, isDone, decodeField(bytes, fieldStarts[3],
+                    fieldEnds[3]))));
+        case 'E':
+            return Optional.of(Optional.of(new Event(message, isDone, decodeField(bytes, fieldStarts[3],
+                    fieldEnds[3]))));
+        default:
+            return Optional.of(Optional.of(new Todo(message, isDone)));
+        }
+    }
+
+    /**
+     * Adds the Todo of a single line to the columns passed in, skipping lines that are malformed
+     * as decodeLine does. The message is copied into the columns as the bytes of the line
+     * @param bytes bytes holding the line
+     * @param fieldStarts start of each field of the line
+     * @param fieldEnds end of each field of the line
+     * @param fieldCount number of fields found in the line
+     * @param columns columns to add the Todo to
+     * @throws DateTimeParseException when the date time of a Deadline or Event is malformed
+     */
+    private static void decodeLineInto(byte[] bytes, int[] fieldStarts, int[] fieldEnds, int fieldCount,
+            TaskColumns.Builder columns) throws DateTimeParseException {
+        if (!isWellFormed(bytes, fieldStarts, fieldEnds, fieldCount)) {
+            return;
+        }
+        boolean isDone = fieldEnds[1] > fieldStarts[1] && bytes[fieldStarts[1]] == DATABASE_IS_DONE_TRUE;
+        int messageLength = fieldEnds[2] - fieldStarts[2];
+
+        // @formatter:off
+        switch (bytes[fieldStarts[0]]) {
+        case 'D':
+            columns.addDeadline(isDone, DateTimeCodec.parseEpochMinute(decodeField(bytes, fieldStarts[3],
+                    fieldEnds[3])), bytes, fieldStarts[2], messageLength);
+            break;
+        case 'E':
+            columns.addEvent(isDone, DateTimeCodec.parseEpochMinute(decodeField(bytes, fieldStarts[3],
+                    fieldEnds[3])), bytes, fieldStarts[2], messageLength);
+            break;
+        default:
+            columns.addTodo(isDone, bytes, fieldStarts[2], messageLength);
+            break;
+        }
+    }
+
+    /**
+     * Returns true if a line has a known type and every field that type needs
+     * @param bytes bytes holding the line
+     * @param fieldStarts start of each field of the line
+     * @param fieldEnds end of each field of the line
+     * @param fieldCount number of fields found in the line
+     * @return true if the line can be decoded
+     */
+    private static boolean isWellFormed(byte[] bytes, int[] fieldStarts, int[] fieldEnds, int fieldCount) {
+        if (fieldCount < 3 || fieldEnds[0] - fieldStarts[0] != 1) {
+            return false;
+        }
+        byte type = bytes[fieldStarts[0]];
+        return type == 'T' || (type == 'D' || type == 'E') && fieldCount >= 4;
+    }
+
+    /**
+     * Decodes the bytes of a field that only contains ASCII characters
+     * @param bytes bytes holding the field
+     * @param start start of the field
+     * @param end end of the field
+     * @return String contained in the field
+     */
+    private static String decodeField(byte[] bytes, int start, int end) {
+        return new String(bytes, start, end - start, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Returns position right after the first line delimiter at or after the position passed in
+     * @param bytes bytes of the whole file
+     * @param position position to start scanning from
+     * @return start of the next line, or the end of the bytes if there is none
+     */
+    private static int nextLineStart(byte[] bytes, int position) {
+        while (position < bytes.length && bytes[position] != LINE_DELIMITER) {
+            position++;
+        }
+        return Math.min(bytes.length, position + 1);
+    }
+
+    /**
+     * Parses the lines of one chunk of the file into Todos
+     */
+    private static class ChunkParser extends RecursiveTask<List<Optional<? extends Todo>>> {
+        /** bytes of the whole file, shared by every chunk */
+        private final byte[] bytes;
+        /** position of the first byte of the chunk */
+        private final int start;
+        /** position after the last byte of the chunk */
+        private final int end;
+
+        /**
+         * Creates a parser for the bytes of the file in [start, end)
+         * @param bytes bytes of the whole file
+         * @param start position of the first byte of the chunk
+         * @param end position after the last byte of the chunk
+         */
+        ChunkParser(byte[] bytes, int start, int end) {
+            this.bytes = bytes;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected List<Optional<? extends Todo>> compute() {
+            // every field is sliced straight from the bytes of the file
+            byte[] bytes = this.bytes;
+            List<Optional<? extends Todo>> todos = new ArrayList<>();
+            int[] fieldStarts = new int[MAX_FIELD_COUNT];
+            int[] fieldEnds = new int[MAX_FIELD_COUNT];
+            int lineStart = this.start;
+            while (lineStart < this.end) {
+                int lineEnd = lineStart;
+                while (lineEnd < this.end && bytes[lineEnd] != LINE_DELIMITER) {
+                    lineEnd++;
+                }
+
+                // line = [type, isDone, message, extraMessage (event / deadline)]
+                int fieldCount = splitFields(bytes, lineStart, lineEnd, fieldStarts, fieldEnds);
+                try {
+                    decodeLine(bytes, fieldStarts, fieldEnds, fieldCount).ifPresent(todos::add);
+                } catch (DateTimeParseException e) {
+                    // a line with a malformed date is skipped instead of failing the whole load
+                }
+                lineStart = lineEnd + 1;
+            }
+            return todos;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package duke.models;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Converts the date times of Deadlines and Events between minutes since the epoch, which is how
+ * they are held, and the Strings they are typed in and rendered as. The dd/MM/yyyy HHmm input
+ * format is parsed and printed by hand, and the date part of the prettier format is cached per
+ * day, so copying a Deadline or Event never goes through a DateTimeFormatter.
+ */
+public class DateTimeCodec {
+    /** Format of date times typed in by the user and saved in the text database */
+    private static final DateTimeFormatter INPUT_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm");
+    /** Format of the date part of date times rendered to the user */
+    private static final DateTimeFormatter OUTPUT_DAY_FORMAT = DateTimeFormatter.ofPattern("EEE dd MMM yyyy");
+    /** Length of a date time in the input format */
+    private static final int INPUT_LENGTH = 15;
+    /** Minutes in a day */
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    /** Minutes in an hour */
+    private static final int MINUTES_PER_HOUR = 60;
+    /** Seconds in a minute */
+    private static final int SECONDS_PER_MINUTE = 60;
+    /** Number of days whose rendered date part is cached, must be a power of two */
+    private static final int DAY_CACHE_SIZE = 1024;
+    /** Rendered date parts, each day maps to a single slot and replaces whatever it holds */
+    private static final RenderedDay[] DAY_CACHE = new RenderedDay[DAY_CACHE_SIZE];
+
+    /**
+     * Explicit definition of the default constructor, every method is static
+     */
+    private DateTimeCodec() {}
+
+    /**
+     * Parses a date time in the format dd/MM/yyyy HHmm, where the leading 0 of the day may be left
+     * out, into minutes since the epoch
+     * @param dateTimeString String passed in with the format dd/MM/yyyy HHmm
+     * @return epoch minute of the date time
+     * @throws DateTimeParseException when the date time is in the wrong format
+     */
+    public static long parseEpochMinute(String dateTimeString) throws DateTimeParseException {
+        // a single digit day is shifted so that every field sits at a fixed offset
+        int shift = dateTimeString.length() == INPUT_LENGTH - 1 ? -1 : 0;
+        if (dateTimeString.length() == INPUT_LENGTH + shift
+                && (shift == 0 || isDigit(dateTimeString, 0))
+                && dateTimeString.charAt(2 + shift) == '/'
+                && dateTimeString.charAt(5 + shift) == '/'
+                && dateTimeString.charAt(10 + shift) == ' ') {
+            int day = shift == 0 ? digits(dateTimeString, 0, 2) : digits(dateTimeString, 0, 1);
+            int month = digits(dateTimeString, 3 + shift, 2);
+            int year = digits(dateTimeString, 6 + shift, 4);
+            int hour = digits(dateTimeString, 11 + shift, 2);
+            int minute = digits(dateTimeString, 13 + shift, 2);
+            if (year >= 1 && month >= 1 && month <= 12
+                    && day >= 1 && day <= LocalDate.of(year, month, 1).lengthOfMonth()
+                    && hour >= 0 && hour < 24 && minute >= 0 && minute < MINUTES_PER_HOUR) {
+                return LocalDate.of(year, month, day).toEpochDay() * MINUTES_PER_DAY
+                        + hour * MINUTES_PER_HOUR + minute;
+            }
+        }
+        // anything unusual is left to the formatter so that leniency and errors stay the same
+        return toEpochMinute(LocalDateTime.parse(dateTimeString.length() == INPUT_LENGTH
+                ? dateTimeString
+                : "0" + dateTimeString, INPUT_DATE_FORMAT));
+    }
+
+    /**
+     * Returns true if the character at the index is an ASCII digit
+     * @param string String to look into
+     * @param index index of the character
+     * @return true if the character is a digit
+     */
+    private static boolean isDigit(String string, int index) {
+        char c = string.charAt(index);
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Reads a fixed number of ASCII digits as an int
+     * @param string String to read from
+     * @param start index of the first digit
+     * @param count number of digits
+     * @return value of the digits, or -1 if any of them is not a digit
+     */
+    private static int digits(String string, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            if (!isDigit(string, i)) {
+                return -1;
+            }
+            value = value * 10 + (string.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Prints minutes since the epoch in the format dd/MM/yyyy HHmm
+     * @param epochMinute epoch minute of the date time
+     * @return String containing the date time in the input format
+     */
+    public static String formatInput(long epochMinute) {
+        LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(epochMinute, MINUTES_PER_DAY));
+        int minuteOfDay = Math.floorMod(epochMinute, MINUTES_PER_DAY);
+        StringBuilder sb = new StringBuilder(INPUT_LENGTH);
+        appendTwoDigits(sb, date.getDayOfMonth()).append('/');
+        appendTwoDigits(sb, date.getMonthValue()).append('/');
+        int year = date.getYear();
+        if (year >= 0 && year < 1000) {
+            sb.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+        }
+        sb.append(year).append(' ');
+        appendTwoDigits(sb, minuteOfDay / MINUTES_PER_HOUR);
+        return appendTwoDigits(sb, minuteOfDay % MINUTES_PER_HOUR).toString();
+    }
+
+    /**
+     * Prints minutes since the epoch in the format EEE dd MMM yyyy HH:mm, with the date part
+     * served from a cache of recently rendered days
+     * @param epochMinute epoch minute of the date time
+     * @return String containing the date time in a prettier format
+     */
+    public static String formatPretty(long epochMinute) {
+        long epochDay = Math.floorDiv(epochMinute, MINUTES_PER_DAY);
+        int minuteOfDay = Math.floorMod(epochMinute, MINUTES_PER_DAY);
+
+        int slot = (int) (epochDay & (DAY_CACHE_SIZE - 1));
+        RenderedDay renderedDay = DAY_CACHE[slot];
+        if (renderedDay == null || renderedDay.epochDay != epochDay) {
+            // slots hold immutable objects, so racing threads at worst render the same day twice
+            renderedDay = new RenderedDay(epochDay, LocalDate.ofEpochDay(epochDay).format(OUTPUT_DAY_FORMAT));
+            DAY_CACHE[slot] = renderedDay;
+        }
+
+        StringBuilder sb = new StringBuilder(renderedDay.text.length() + 6).append(renderedDay.text).append(' ');
+        appendTwoDigits(sb, minuteOfDay / MINUTES_PER_HOUR).append(':');
+        return appendTwoDigits(sb, minuteOfDay % MINUTES_PER_HOUR).toString();
+    }
+
+    /**
+     * Appends a value below 100 as two digits
+     * @param sb StringBuilder to append to
+     * @param value value to append
+     * @return the StringBuilder passed in
+     */
+    private static StringBuilder appendTwoDigits(StringBuilder sb, int value) {
+        return sb.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    /**
+     * Converts a local date time to minutes since the epoch, ignoring time zones
+     * @param dateTime date time to convert
+     * @return epoch minute of the date time
+     */
+    public static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_MINUTE);
+    }
+
+    /**
+     * Converts minutes since the epoch back to a local date time
+     * @param epochMinute epoch minute of the date time
+     * @return local date time of the epoch minute
+     */
+    public static LocalDateTime toLocalDateTime(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * SECONDS_PER_MINUTE, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Date part of the prettier format rendered for a single day
+     */
+    private static class RenderedDay {
+        /** day that was rendered, in days since the epoch */
+        private final long epochDay;
+        /** rendered date part */
+        private final String text;
+
+        /**
+         * Creates a RenderedDay from its parts
+         * @param epochDay day that was rendered
+         * @param text rendered date part
+         */
+        RenderedDay(long epochDay, String text) {
+            this.epochDay = epochDay;
+            this.text = text;
+        }
+    }
+}
@@ -1,17 +1,11 @@
 package duke.models;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 public class Deadline extends Todo {
-    private static final DateTimeFormatter inputDateFormat =
-            DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm");
-    private static final DateTimeFormatter outputDateFormat =
-            DateTimeFormatter.ofPattern("EEE dd MMM yyyy HH:mm");
-    /** String denoting the deadline of a Deadline object */
-    protected String deadlineString;
-    protected LocalDateTime deadlineDateTime;
+    /** deadline of a Deadline object in minutes since the epoch */
+    protected final long deadlineEpochMinute;
 
     /**
      * Constructor to allow setting of the deadline in a Deadline object
@@ -21,8 +15,7 @@ public class Deadline extends Todo {
      */
     public Deadline(String message, String deadlineString) {
         super(message);
-        this.deadlineString = deadlineString;
-        this.deadlineDateTime = parseStringToLocalDateTime(deadlineString);
+        this.deadlineEpochMinute = DateTimeCodec.parseEpochMinute(deadlineString);
     }
 
     /**
@@ -35,23 +28,50 @@ public class Deadline extends Todo {
      */
     public Deadline(String message, boolean isDone, String deadlineString) {
         super(message, isDone);
-        this.deadlineString = deadlineString;
-        this.deadlineDateTime = parseStringToLocalDateTime(deadlineString);
+        this.deadlineEpochMinute = DateTimeCodec.parseEpochMinute(deadlineString);
     }
 
     /**
-     * Expects String in the format dd/MM/yyyy HHMM and returns LocalDateTime object
+     * Constructor taking an already parsed date time, used when loading from a database format
+     * that does not store the date time as a String
      *
-     * @param deadlineString String passed in with the format dd/MM/yyyy HHMM
-     * @return LocalDateTime object from String deadlineString passed in
-     * @throws DateTimeParseException when date time is in the wrong format
+     * @param message String message that a Todo contains
+     * @param isDone boolean denoting if a Todo is done
+     * @param deadlineDateTime LocalDateTime denoting the deadline of a Deadline
+     */
+    public Deadline(String message, boolean isDone, LocalDateTime deadlineDateTime) {
+        this(message, isDone, DateTimeCodec.toEpochMinute(deadlineDateTime));
+    }
+
+    /**
+     * Constructor taking the deadline in minutes since the epoch, used when copying a Deadline so
+     * that its deadline is never formatted and parsed again
+     *
+     * @param message String message that a Todo contains
+     * @param isDone boolean denoting if a Todo is done
+     * @param deadlineEpochMinute deadline of the Deadline in minutes since the epoch
+     */
+    public Deadline(String message, boolean isDone, long deadlineEpochMinute) {
+        super(message, isDone);
+        this.deadlineEpochMinute = deadlineEpochMinute;
+    }
+
+    /**
+     * Getter method for the LocalDateTime of a Deadline object
+     *
+     * @return LocalDateTime denoting the deadline of the Deadline
+     */
+    public LocalDateTime getDeadlineDateTime() {
+        return DateTimeCodec.toLocalDateTime(this.deadlineEpochMinute);
+    }
+
+    /**
+     * Getter method for the deadline of a Deadline object in minutes since the epoch
+     *
+     * @return long denoting the deadline of the Deadline
      */
-    private LocalDateTime parseStringToLocalDateTime(String deadlineString)
-            throws DateTimeParseException {
-        // @formatter:off
-        return LocalDateTime.parse(deadlineString.length() == 15
-                ? deadlineString
-                : String.format("0%s", deadlineString), inputDateFormat);
+    public long getDeadlineEpochMinute() {
+        return this.deadlineEpochMinute;
     }
 
     /**
@@ -60,7 +80,7 @@ public class Deadline extends Todo {
      * @return String containing deadline of the Deadline
      */
     public String getDeadline() {
-        return this.deadlineDateTime.format(inputDateFormat);
+        return DateTimeCodec.formatInput(this.deadlineEpochMinute);
     }
 
     /**
@@ -70,7 +90,7 @@ public class Deadline extends Todo {
      *         in a prettier format
      */
     public String getPrettierDeadlineDateTime() {
-        return String.format("%s hrs", this.deadlineDateTime.format(outputDateFormat));
+        return DateTimeCodec.formatPretty(this.deadlineEpochMinute) + " hrs";
     }
 
     /**
@@ -92,7 +112,7 @@ public class Deadline extends Todo {
      */
     @Override
     public Deadline markAsDone() {
-        return new Deadline(this.message, true, this.getDeadline());
+        return new Deadline(this.message, true, this.deadlineEpochMinute);
     }
 
     /**
@@ -111,7 +131,7 @@ public class Deadline extends Todo {
      */
     @Override
     public Deadline updateMessage(String newMessage) {
-        return new Deadline(newMessage, isDone, deadlineString);
+        return new Deadline(newMessage, isDone, deadlineEpochMinute);
     }
 
     /**
@@ -1,17 +1,11 @@
 package duke.models;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 public class Event extends Todo {
-    private static final DateTimeFormatter inputDateFormat =
-            DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm");
-    private static final DateTimeFormatter outputDateFormat =
-            DateTimeFormatter.ofPattern("EEE dd MMM yyyy HH:mm");
-    /** String denoting eventTime fo an Event object */
-    protected String eventStringDateTime;
-    protected LocalDateTime eventDateTime;
+    /** Time of an Event object in minutes since the epoch */
+    protected final long eventEpochMinute;
 
     /**
      * Constructor to allow setting of the eventTime in an Event object
@@ -21,8 +15,7 @@ public class Event extends Todo {
      */
     public Event(String message, String eventStringDateTime) {
         super(message);
-        this.eventStringDateTime = eventStringDateTime;
-        this.eventDateTime = parseStringToLocalDateTime(eventStringDateTime);
+        this.eventEpochMinute = DateTimeCodec.parseEpochMinute(eventStringDateTime);
     }
 
     /**
@@ -34,23 +27,50 @@ public class Event extends Todo {
      */
     public Event(String message, boolean isDone, String eventStringDateTime) {
         super(message, isDone);
-        this.eventStringDateTime = eventStringDateTime;
-        this.eventDateTime = parseStringToLocalDateTime(eventStringDateTime);
+        this.eventEpochMinute = DateTimeCodec.parseEpochMinute(eventStringDateTime);
     }
 
     /**
-     * Expects String in the format dd/MM/yyyy HHMM and returns LocalDateTime object
+     * Constructor taking an already parsed date time, used when loading from a database format
+     * that does not store the date time as a String
      *
-     * @param eventDateTimeString String passed in with the format dd/MM/yyyy HHMM
-     * @return LocalDateTime object from String eventTimeString passed in
-     * @throws DateTimeParseException when the date time is in the wrong format
+     * @param message String message that a Todo contains
+     * @param isDone boolean denoting if a Todo is done
+     * @param eventDateTime LocalDateTime denoting the event time of an Event
+     */
+    public Event(String message, boolean isDone, LocalDateTime eventDateTime) {
+        this(message, isDone, DateTimeCodec.toEpochMinute(eventDateTime));
+    }
+
+    /**
+     * Constructor taking the event time in minutes since the epoch, used when copying an Event so
+     * that its time is never formatted and parsed again
+     *
+     * @param message String message that a Todo contains
+     * @param isDone boolean denoting if a Todo is done
+     * @param eventEpochMinute time of the Event in minutes since the epoch
+     */
+    public Event(String message, boolean isDone, long eventEpochMinute) {
+        super(message, isDone);
+        this.eventEpochMinute = eventEpochMinute;
+    }
+
+    /**
+     * Getter method for the LocalDateTime of an Event object
+     *
+     * @return LocalDateTime denoting the event time of the Event
+     */
+    public LocalDateTime getEventDateTime() {
+        return DateTimeCodec.toLocalDateTime(this.eventEpochMinute);
+    }
+
+    /**
+     * Getter method for the event time of an Event object in minutes since the epoch
+     *
+     * @return long denoting the event time of the Event
      */
-    private LocalDateTime parseStringToLocalDateTime(String eventDateTimeString)
-            throws DateTimeParseException {
-        // @formatter:off
-        return LocalDateTime.parse(eventDateTimeString.length() == 15
-                ? eventStringDateTime
-                : String.format("0%s", eventStringDateTime), inputDateFormat);
+    public long getEventEpochMinute() {
+        return this.eventEpochMinute;
     }
 
     /**
@@ -59,7 +79,7 @@ public class Event extends Todo {
      * @return String containing event time of the Event, parsed from LocalDateTime object
      */
     public String getEventTime() {
-        return this.eventDateTime.format(inputDateFormat);
+        return DateTimeCodec.formatInput(this.eventEpochMinute);
     }
 
     /**
@@ -69,7 +89,7 @@ public class Event extends Todo {
      *         prettier format
      */
     public String getPrettierEventTime() {
-        return String.format("%s hrs", this.eventDateTime.format(outputDateFormat));
+        return DateTimeCodec.formatPretty(this.eventEpochMinute) + " hrs";
     }
 
     /**
@@ -91,7 +111,7 @@ public class Event extends Todo {
      */
     @Override
     public Event markAsDone() {
-        return new Event(this.message, true, this.getEventTime());
+        return new Event(this.message, true, this.eventEpochMinute);
     }
 
     /**
@@ -110,7 +130,7 @@ public class Event extends Todo {
      */
     @Override
     public Event updateMessage(String newMessage) {
-        return new Event(newMessage, isDone, eventStringDateTime);
+        return new Event(newMessage, isDone, eventEpochMinute);
     }
 
     /**
@@ -0,0 +1,227 @@
+package duke.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable inverted index from each word of a Todo's raw message to the Todos containing it.
+ * Every Todo is given an id when it enters the index, and ids are handed out in increasing order
+ * of position since Todos are only ever appended. The ids of the indexed Todos and every posting
+ * list are therefore kept sorted, which lets a posting be mapped back to the Todo's current
+ * position with a binary search no matter how many Todos were deleted before it.
+ * <p>
+ * Ids and postings are boxed Longs in persistent vectors, which costs an object for each Todo
+ * and for each word it contains. The index is only built on the first find, but from then on it
+ * outweighs Todos loaded into TaskColumns.
+ */
+public class KeywordIndex {
+    /** ids of the indexed Todos, in the same order as the Todos themselves */
+    private final PersistentVector<Long> ids;
+    /** maps each word to the sorted ids of the Todos whose raw message contains it */
+    private final PersistentMap<String, PersistentVector<Long>> postings;
+    /** id given to the next Todo appended to the index */
+    private final long nextId;
+
+    /**
+     * Creates a KeywordIndex from its parts, only used internally as every update returns a new
+     * KeywordIndex
+     * @param ids ids of the indexed Todos in order
+     * @param postings sorted ids of Todos containing each word
+     * @param nextId id given to the next Todo appended
+     */
+    private KeywordIndex(PersistentVector<Long> ids, PersistentMap<String, PersistentVector<Long>> postings,
+            long nextId) {
+        this.ids = ids;
+        this.postings = postings;
+        this.nextId = nextId;
+    }
+
+    /**
+     * Builds an index over every Todo in the list passed in, giving each Todo its position as id
+     * @param todos List of Todos to index
+     * @return KeywordIndex over the Todos
+     */
+    public static KeywordIndex of(List<Optional<? extends Todo>> todos) {
+        // collect posting lists in mutable collections first, then freeze them in one pass each
+        Map<String, List<Long>> mutablePostings = new HashMap<>();
+        List<Long> ids = new ArrayList<>(todos.size());
+        long id = 0;
+        for (Optional<? extends Todo> todo : todos) {
+            ids.add(id);
+            for (String word : wordsOf(todo)) {
+                mutablePostings.computeIfAbsent(word, key -> new ArrayList<>()).add(id);
+            }
+            id++;
+        }
+
+        PersistentMap<String, PersistentVector<Long>> postings = PersistentMap.empty();
+        for (Map.Entry<String, List<Long>> posting : mutablePostings.entrySet()) {
+            postings = postings.put(posting.getKey(), PersistentVector.of(posting.getValue()));
+        }
+        return new KeywordIndex(PersistentVector.of(ids), postings, id);
+    }
+
+    /**
+     * Returns distinct words of a Todo's raw message, split the same way find always has
+     * @param todo Todo to split
+     * @return distinct words of the raw message
+     */
+    private static Set<String> wordsOf(Optional<? extends Todo> todo) {
+        return todo.map(Todo::getRawMessage)
+                .<Set<String>>map(message -> new LinkedHashSet<>(Arrays.asList(message.split(" "))))
+                .orElse(Set.of());
+    }
+
+    /**
+     * Returns an index with the Todo passed in appended after every indexed Todo
+     * @param todo Todo appended to the list
+     * @return updated KeywordIndex
+     */
+    public KeywordIndex withAppended(Optional<? extends Todo> todo) {
+        long id = this.nextId;
+        PersistentMap<String, PersistentVector<Long>> newPostings = this.postings;
+        for (String word : wordsOf(todo)) {
+            PersistentVector<Long> posting = newPostings.get(word);
+            newPostings = newPostings.put(word,
+                    (posting == null ? PersistentVector.<Long>empty() : posting).append(id));
+        }
+        return new KeywordIndex(this.ids.append(id), newPostings, id + 1);
+    }
+
+    /**
+     * Returns an index without the Todo at the position passed in
+     * @param index 0-based position of the Todo removed from the list
+     * @param todo Todo removed from the list
+     * @return updated KeywordIndex
+     */
+    public KeywordIndex withRemoved(int index, Optional<? extends Todo> todo) {
+        long id = this.ids.get(index);
+        return new KeywordIndex(this.ids.removeAt(index), removePostings(this.postings, id, wordsOf(todo)),
+                this.nextId);
+    }
+
+    /**
+     * Returns an index with the Todo at the position passed in replaced by another Todo
+     * @param index 0-based position of the replaced Todo
+     * @param oldTodo Todo that was replaced
+     * @param newTodo Todo replacing it
+     * @return updated KeywordIndex
+     */
+    public KeywordIndex withReplaced(int index, Optional<? extends Todo> oldTodo, Optional<? extends Todo> newTodo) {
+        Set<String> oldWords = wordsOf(oldTodo);
+        Set<String> newWords = wordsOf(newTodo);
+        if (oldWords.equals(newWords)) {
+            // e.g. marking a todo as done or updating only its time keeps its words
+            return this;
+        }
+        long id = this.ids.get(index);
+
+        // only words that were dropped or added by the replacement need their postings touched
+        Set<String> removedWords = new LinkedHashSet<>(oldWords);
+        removedWords.removeAll(newWords);
+        PersistentMap<String, PersistentVector<Long>> newPostings = removePostings(this.postings, id, removedWords);
+        for (String word : newWords) {
+            if (oldWords.contains(word)) {
+                continue;
+            }
+            PersistentVector<Long> posting = newPostings.get(word);
+            if (posting == null) {
+                posting = PersistentVector.empty();
+            }
+            int insertAt = posting.lowerBound(id, Comparator.naturalOrder());
+            newPostings = newPostings.put(word, posting.insert(insertAt, id));
+        }
+        return new KeywordIndex(this.ids, newPostings, this.nextId);
+    }
+
+    /**
+     * Removes an id from the posting lists of the words passed in, dropping lists left empty
+     * @param postings posting lists to remove the id from
+     * @param id id to remove
+     * @param words words whose posting lists contain the id
+     * @return updated posting lists
+     */
+    private static PersistentMap<String, PersistentVector<Long>> removePostings(
+            PersistentMap<String, PersistentVector<Long>> postings, long id, Set<String> words) {
+        for (String word : words) {
+            PersistentVector<Long> posting = postings.get(word);
+            int removeAt = posting.lowerBound(id, Comparator.naturalOrder());
+            PersistentVector<Long> newPosting = posting.removeAt(removeAt);
+            postings = newPosting.isEmpty() ? postings.remove(word) : postings.put(word, newPosting);
+        }
+        return postings;
+    }
+
+    /**
+     * Returns Todos whose raw message contains any of the keywords, in list order and without
+     * duplicates. Only the posting lists of the keywords are read, so the cost depends on the
+     * number of matches rather than the number of Todos
+     * @param keywordList String list of keywords to be matched
+     * @param todos List of Todos this index was built over
+     * @return list of Todos matching any of the keywords
+     */
+    public List<Optional<? extends Todo>> find(List<String> keywordList, List<Optional<? extends Todo>> todos) {
+        int[] positions = findPositions(keywordList);
+        List<Optional<? extends Todo>> matchingTodos = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            matchingTodos.add(todos.get(position));
+        }
+        return matchingTodos;
+    }
+
+    /**
+     * Returns positions of the Todos whose raw message contains any of the keywords, in increasing
+     * order and without duplicates
+     * @param keywordList String list of keywords to be matched
+     * @return 0-based positions of the Todos matching any of the keywords
+     */
+    public int[] findPositions(List<String> keywordList) {
+        // gather ids from the posting list of every distinct keyword
+        List<Long> matchingIds = new ArrayList<>();
+        for (String keyword : new LinkedHashSet<>(keywordList)) {
+            PersistentVector<Long> posting = this.postings.get(keyword);
+            if (posting != null) {
+                matchingIds.addAll(posting);
+            }
+        }
+
+        // ids are ordered the same way as the Todos, so sorting them restores list order
+        long[] sortedIds = matchingIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        int[] positions = new int[sortedIds.length];
+        for (int i = 0; i < sortedIds.length; i++) {
+            positions[i] = this.ids.lowerBound(sortedIds[i], Comparator.naturalOrder());
+        }
+        return positions;
+    }
+
+    /**
+     * Returns positions of the Todos matching any of the keywords like findPositions, scanning the
+     * Todos instead of an index. A single scan is cheaper than building an index to use only once
+     * @param keywordList String list of keywords to be matched
+     * @param todos List of Todos to scan
+     * @return 0-based positions of the Todos matching any of the keywords, in increasing order
+     */
+    public static int[] scanPositions(List<String> keywordList, List<Optional<? extends Todo>> todos) {
+        Set<String> keywords = new HashSet<>(keywordList);
+        int[] positions = new int[todos.size()];
+        int matchCount = 0;
+        for (int i = 0; i < todos.size(); i++) {
+            String message = todos.get(i).map(Todo::getRawMessage).orElse("");
+            for (String word : message.split(" ")) {
+                if (keywords.contains(word)) {
+                    positions[matchCount++] = i;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(positions, matchCount);
+    }
+}
@@ -0,0 +1,13 @@
+package duke.models;
+
+/**
+ * Used to select how Storage holds the Todos it loads from its snapshot
+ */
+public enum LoadMode {
+    /** Every Todo is created as the snapshot is read */
+    EAGER,
+    /** Only where each Todo starts is indexed, a Todo is created and kept when first read */
+    LAZY,
+    /** Todos are packed into columns, see TaskColumns, and created again whenever read */
+    COMPACT
+}
@@ -1,90 +1,226 @@
 package duke.models;
 
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Locale;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.RandomAccess;
 
-import duke.exceptions.DukeCommandNotFoundException;
+import duke.exceptions.DukeTaskIndexOutOfRangeException;
 
 public class Parser {
-    /** Command Index for a command is at index 0 */
-    private static final int COMMAND_INDEX = 0;
-    /** Command Index for a command args are at index 1 */
-    private static final int COMMAND_ARG_START_INDEX = 1;
-
-    /** Contains Optional String containing command from command input */
-    private Optional<String> command;
-    /** Contains String after command string input */
-    private Optional<List<String>> commandArgs;
-    /** Contains whole input string -> used in Level-1 */
-    private Optional<List<String>> fullCommand;
+    /** Number of letters in the lookup table of commands, one for each of a to z */
+    private static final int ALPHABET_SIZE = 26;
+    /** Commands that can be typed in, grouped by the first letter of their keyword */
+    private static final Commands[][] COMMANDS_BY_FIRST_LETTER = buildCommandTable();
+    /** Number of tokens the span array is first sized for */
+    private static final int INITIAL_TOKEN_CAPACITY = 8;
+
+    /** input line the tokens are spans of */
+    private final String input;
+    /** start and end offsets of each token, the start of token i is at 2i and its end at 2i + 1 */
+    private final int[] tokenSpans;
+    /** number of tokens in the input */
+    private final int tokenCount;
+    /** command in the first token, looked up on first use */
+    private Commands command;
+    /** tokens after the command, each substring made on first use */
+    private List<String> commandArgs;
 
     /**
-     * Initialises Command object by taking first item of the list as the command and the rest of
-     * the itemms of the string gets taken as the command arguments Null safety is enforced through
-     * use of Optionals
+     * Splits the input into tokens separated by runs of whitespace in a single pass, recording
+     * where each token starts and ends rather than copying it. Repeated or trailing spaces
+     * therefore never produce empty tokens
+     * @param input line typed in by the user
+     */
+    public Parser(String input) {
+        int[] spans = new int[INITIAL_TOKEN_CAPACITY * 2];
+        int count = 0;
+        int length = input.length();
+        int idx = 0;
+        while (idx < length) {
+            while (idx < length && isSeparator(input.charAt(idx))) {
+                idx++;
+            }
+            if (idx == length) {
+                break;
+            }
+            int tokenStart = idx;
+            while (idx < length && !isSeparator(input.charAt(idx))) {
+                idx++;
+            }
+            if (count * 2 == spans.length) {
+                spans = Arrays.copyOf(spans, spans.length * 2);
+            }
+            spans[count * 2] = tokenStart;
+            spans[count * 2 + 1] = idx;
+            count++;
+        }
+        this.input = input;
+        this.tokenSpans = spans;
+        this.tokenCount = count;
+    }
+
+    /**
+     * Initialises a Parser over words that were already split, joining them back into a line
+     * @param fullCommand command followed by its args
      */
     public Parser(List<String> fullCommand) {
-        this.command = Optional.ofNullable(fullCommand.get(COMMAND_INDEX));
-        this.commandArgs = Optional.of(fullCommand.subList(
-                COMMAND_ARG_START_INDEX, fullCommand.size()));
-        this.fullCommand = Optional.of(fullCommand);
+        this(String.join(" ", fullCommand));
+    }
+
+    /**
+     * Returns true if the character separates tokens, which covers spaces, tabs and the carriage
+     * return left by files saved on Windows
+     * @param c character of the input
+     * @return true if the character is whitespace
+     */
+    private static boolean isSeparator(char c) {
+        return c <= ' ';
+    }
+
+    /**
+     * Builds the lookup table of the commands that can be typed in
+     * @return commands grouped by the first letter of their keyword
+     */
+    private static Commands[][] buildCommandTable() {
+        Commands[][] table = new Commands[ALPHABET_SIZE][0];
+        for (Commands command : Commands.values()) {
+            if (command.getKeyword() != null) {
+                int letter = command.getKeyword().charAt(0) - 'a';
+                table[letter] = Arrays.copyOf(table[letter], table[letter].length + 1);
+                table[letter][table[letter].length - 1] = command;
+            }
+        }
+        return table;
     }
 
     /**
-     * Gets the first String passed in from the list of inputs, which is the Command in the input
-     * line
-     * @return Commands enum depicting which command is to be executed by the bot.
-     * @throws DukeCommandNotFoundException when the command is blank
+     * Gets the first token of the input, which is the Command in the input line. The token is
+     * matched ignoring case against the few commands starting with the same letter, without
+     * copying it
+     * @return Commands enum depicting which command is to be executed by the bot, UNKNOWN when the
+     *         command is blank
      */
-    public Commands getCommand() throws DukeCommandNotFoundException {
-        return this.command.map(commandString -> {
-            // @formatter:off
-            switch (commandString.toLowerCase()) {
-            case "done":
-                return Commands.DONE;
-            case "list":
-                return Commands.LIST;
-            case "todo":
-                return Commands.TODO;
-            case "event":
-                return Commands.EVENT;
-            case "deadline":
-                return Commands.DEADLINE;
-            case "delete":
-                return Commands.DELETE;
-            case "find":
-                return Commands.FIND;
-            case "update":
-                return Commands.UPDATE;
-            case "bye":
-                return Commands.BYE;
-            default:
-                return Commands.UNKNOWN;
+    public Commands getCommand() {
+        if (this.command == null) {
+            this.command = lookUpCommand();
+        }
+        return this.command;
+    }
+
+    /**
+     * Looks the first token up in the table of commands
+     * @return command in the first token, UNKNOWN if there is none
+     */
+    private Commands lookUpCommand() {
+        if (this.tokenCount == 0) {
+            return Commands.UNKNOWN;
+        }
+        int start = this.tokenSpans[0];
+        int length = this.tokenSpans[1] - start;
+        int letter = Character.toLowerCase(this.input.charAt(start)) - 'a';
+        if (letter < 0 || letter >= ALPHABET_SIZE) {
+            return Commands.UNKNOWN;
+        }
+        for (Commands candidate : COMMANDS_BY_FIRST_LETTER[letter]) {
+            String keyword = candidate.getKeyword();
+            if (keyword.length() == length && this.input.regionMatches(true, start, keyword, 0, length)) {
+                return candidate;
             }
-        }).orElseThrow(() -> new DukeCommandNotFoundException("No command was supplied from input."));
+        }
+        return Commands.UNKNOWN;
     }
 
     /**
-     * Gets the remaining arguments passed into the command in the terminal as the arguments of the
-     * command
+     * Gets the remaining tokens of the input as the arguments of the command
      * @return List of Strings which contains the rest of the arguments passed into the terminal
-     * @throws DukeCommandNotFoundException when command is blank
      */
-    public List<String> getCommandArgs() throws DukeCommandNotFoundException {
-        return this.commandArgs.orElseThrow(() -> new DukeCommandNotFoundException(
-                "No command arguments were supplied from input."));
+    public List<String> getCommandArgs() {
+        if (this.commandArgs == null) {
+            this.commandArgs = new Tokens(Math.min(1, this.tokenCount), this.tokenCount);
+        }
+        return this.commandArgs;
     }
 
     /**
      * Used for level 1 to get full argument passed into the CLI, where todo, events and deadline
      * were yet to be implemented
      * @return List of Strings which contains the rest of the arguments passed into the terminal
-     * @throws DukeCommandNotFoundException when the command is blank
      */
-    public List<String> getFullCommand() throws DukeCommandNotFoundException {
-        return this.fullCommand.orElseThrow(() -> new DukeCommandNotFoundException(
-                "No command arguments were supplied from input."));
+    public List<String> getFullCommand() {
+        return new Tokens(0, this.tokenCount);
+    }
+
+    /**
+     * Joins arguments back into the text they were typed as. Arguments read from a Parser, or any
+     * sublist of them, are sliced out of the input from the first to the last token so that the
+     * whitespace between them is kept as typed, other lists are joined with single spaces
+     * @param args arguments of a command, or a sublist of them
+     * @return text of the arguments
+     */
+    public static String joinArgs(List<String> args) {
+        if (args instanceof Tokens) {
+            return ((Tokens) args).text();
+        }
+        return String.join(" ", args);
+    }
+
+    /**
+     * List view of a range of the tokens. A token is only copied out of the input the first time it
+     * is read
+     */
+    private class Tokens extends AbstractList<String> implements RandomAccess {
+        /** index of the first token in the view */
+        private final int firstToken;
+        /** tokens already copied out of the input */
+        private final String[] copiedTokens;
+
+        /**
+         * Creates a view of the tokens from the first token up to the end token
+         * @param firstToken index of the first token in the view
+         * @param endToken index of the token after the last one in the view
+         */
+        private Tokens(int firstToken, int endToken) {
+            this.firstToken = firstToken;
+            this.copiedTokens = new String[endToken - firstToken];
+        }
+
+        /**
+         * Returns the input from the start of the first token to the end of the last token
+         * @return text of the tokens as typed, empty if there are none
+         */
+        private String text() {
+            if (this.copiedTokens.length == 0) {
+                return "";
+            }
+            int lastToken = this.firstToken + this.copiedTokens.length - 1;
+            return input.substring(tokenSpans[this.firstToken * 2], tokenSpans[lastToken * 2 + 1]);
+        }
+
+        @Override
+        public List<String> subList(int fromIndex, int toIndex) {
+            // a sublist is a view of the same input, so that it can still be joined as typed
+            Objects.checkFromToIndex(fromIndex, toIndex, size());
+            return new Tokens(this.firstToken + fromIndex, this.firstToken + toIndex);
+        }
+
+        @Override
+        public String get(int index) {
+            String token = this.copiedTokens[index];
+            if (token == null) {
+                int spanIndex = (this.firstToken + index) * 2;
+                token = input.substring(tokenSpans[spanIndex], tokenSpans[spanIndex + 1]);
+                this.copiedTokens[index] = token;
+            }
+            return token;
+        }
+
+        @Override
+        public int size() {
+            return this.copiedTokens.length;
+        }
     }
 
     /**
@@ -102,4 +238,69 @@ public class Parser {
         }
         return Flags.NONE;
     }
+
+    /**
+     * Returns true if the command args pick more than a single task, as an index list such as
+     * 3,7,9, a range such as 1-500 or keywords such as all matching book
+     * @param commandArgs arguments passed to a done or delete command
+     * @return true if the command applies to a selection of tasks
+     */
+    public static boolean isBulkSelection(List<String> commandArgs) {
+        if (commandArgs.size() != 1) {
+            return commandArgs.size() > 1;
+        }
+        String selection = commandArgs.get(0);
+        // a leading dash is a negative index rather than a range
+        return selection.indexOf(',') >= 0 || selection.indexOf('-') > 0;
+    }
+
+    /**
+     * Parses index lists and ranges such as 3,7,9 or 1-500, which may be mixed as in 1-3,7, into
+     * sorted 0-based indexes without duplicates
+     * @param selectionArgs arguments holding the selection, spaces separate indexes as commas do, so
+     *     3 7 picks the third and seventh tasks rather than the thirty-seventh
+     * @param todosCount number of tasks in the list, every index must be within it
+     * @return distinct 0-based indexes in increasing order
+     * @throws DukeTaskIndexOutOfRangeException when an index is not a number or is out of range
+     */
+    public static int[] parseIndexSelection(List<String> selectionArgs, int todosCount)
+            throws DukeTaskIndexOutOfRangeException {
+        // spaces next to a comma or inside a range such as 1 - 5 are dropped, any other space separates indexes
+        String selection = String.join(" ", selectionArgs).replaceAll("\\s*([,-])\\s*", "$1")
+                .replaceAll("\\s+", ",");
+        BitSet selectedIndexes = new BitSet(todosCount);
+        for (String part : selection.split(",")) {
+            int dash = part.indexOf('-', 1);
+            int first = parseOneBasedIndex(dash < 0 ? part : part.substring(0, dash), todosCount);
+            int last = dash < 0 ? first : parseOneBasedIndex(part.substring(dash + 1), todosCount);
+            if (first > last) {
+                throw new DukeTaskIndexOutOfRangeException("The range '" + part + "' should start at the "
+                        + "smaller index, please try again");
+            }
+            selectedIndexes.set(first, last + 1);
+        }
+        return selectedIndexes.stream().toArray();
+    }
+
+    /**
+     * Parses a single 1-based index of a selection into a 0-based index
+     * @param indexString String containing the 1-based index
+     * @param todosCount number of tasks in the list
+     * @return 0-based index
+     * @throws DukeTaskIndexOutOfRangeException when the index is not a number or is out of range
+     */
+    private static int parseOneBasedIndex(String indexString, int todosCount) throws DukeTaskIndexOutOfRangeException {
+        int index;
+        try {
+            index = Integer.parseInt(indexString) - 1;
+        } catch (NumberFormatException e) {
+            throw new DukeTaskIndexOutOfRangeException("'" + indexString + "' is not recognised as a valid "
+                    + "index, please list indexes like 3,7,9 or ranges like 1-5");
+        }
+        if (index < 0 || index >= todosCount) {
+            throw new DukeTaskIndexOutOfRangeException("The index " + indexString + " does not exist, "
+                    + "you currently have " + todosCount + " tasks");
+        }
+        return index;
+    }
 }
@@ -0,0 +1,345 @@
+package duke.models;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, structurally shared hash map backed by a hash array mapped trie. Each level of the
+ * trie consumes 5 bits of the key's hash, so get, put and remove only copy the O(log32 n) nodes
+ * along the path to the key, while every other node is shared between the old and the new map.
+ *
+ * @param <K> type of the keys held in the map
+ * @param <V> type of the values held in the map
+ */
+public final class PersistentMap<K, V> {
+    /** Number of hash bits consumed by each level of the trie */
+    private static final int BITS_PER_LEVEL = 5;
+    /** Mask selecting the hash bits of a single level */
+    private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+    /** Shared empty map, there is no need for more than one */
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(BitmapNode.EMPTY, 0);
+
+    /** Root of the trie */
+    private final Node root;
+    /** number of entries held in the map */
+    private final int size;
+
+    /**
+     * Creates a map around an existing trie, only used internally since nodes are never exposed
+     * @param root root node of the trie
+     * @param size number of entries held under the root
+     */
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the shared empty map
+     * @param <K> type of the keys held in the map
+     * @param <V> type of the values held in the map
+     * @return empty PersistentMap
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns number of entries held in the map
+     * @return size of the map
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the value mapped to the key passed in
+     * @param key key to look up, must not be null
+     * @return value mapped to the key or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        return (V) this.root.find(0, key.hashCode(), key);
+    }
+
+    /**
+     * Returns a new map with the key mapped to the value passed in
+     * @param key key to map, must not be null
+     * @param value value to map the key to
+     * @return new PersistentMap containing the mapping
+     */
+    public PersistentMap<K, V> put(K key, V value) {
+        boolean[] isAdded = new boolean[1];
+        Node newRoot = this.root.put(0, key.hashCode(), key, value, isAdded);
+        if (newRoot == this.root) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot, isAdded[0] ? this.size + 1 : this.size);
+    }
+
+    /**
+     * Returns a new map without the mapping of the key passed in
+     * @param key key to remove, must not be null
+     * @return new PersistentMap without the key
+     */
+    public PersistentMap<K, V> remove(K key) {
+        Node newRoot = this.root.remove(0, key.hashCode(), key);
+        if (newRoot == this.root) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot == null ? BitmapNode.EMPTY : newRoot, this.size - 1);
+    }
+
+    /**
+     * Node of the trie, either a BitmapNode branching on hash bits or a CollisionNode holding
+     * keys with identical hashes
+     */
+    private abstract static class Node {
+        /**
+         * Returns the value mapped to the key under this node
+         * @param shift number of hash bits consumed by the levels above
+         * @param hash hash of the key
+         * @param key key to look up
+         * @return value mapped to the key or null if there is none
+         */
+        abstract Object find(int shift, int hash, Object key);
+
+        /**
+         * Returns a copy of this node with the key mapped to the value
+         * @param shift number of hash bits consumed by the levels above
+         * @param hash hash of the key
+         * @param key key to map
+         * @param value value to map the key to
+         * @param isAdded set to true when the key was not mapped before
+         * @return updated node, or this node if nothing changed
+         */
+        abstract Node put(int shift, int hash, Object key, Object value, boolean[] isAdded);
+
+        /**
+         * Returns a copy of this node without the key
+         * @param shift number of hash bits consumed by the levels above
+         * @param hash hash of the key
+         * @param key key to remove
+         * @return updated node, this node if the key was not found, or null if left empty
+         */
+        abstract Node remove(int shift, int hash, Object key);
+    }
+
+    /**
+     * Node holding up to 32 slots, one per value of the hash bits of its level. Slots are packed
+     * in the order of the bits set in the bitmap. A slot holds either a key and its value, or a
+     * null key and a child node
+     */
+    private static final class BitmapNode extends Node {
+        /** Shared node without any slots */
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        /** bit i is set when slot i is used */
+        private final int bitmap;
+        /** keys and values of the used slots, interleaved */
+        private final Object[] entries;
+
+        /**
+         * Creates a BitmapNode holding the slots passed in
+         * @param bitmap bitmap of the used slots
+         * @param entries keys and values of the used slots, interleaved
+         */
+        private BitmapNode(int bitmap, Object[] entries) {
+            this.bitmap = bitmap;
+            this.entries = entries;
+        }
+
+        /**
+         * Returns position of the slot in the packed entries
+         * @param bit bit of the slot
+         * @return index of the slot's key in the entries
+         */
+        private int indexOf(int bit) {
+            return 2 * Integer.bitCount(this.bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & LEVEL_MASK);
+            if ((this.bitmap & bit) == 0) {
+                return null;
+            }
+            int idx = indexOf(bit);
+            Object slotKey = this.entries[idx];
+            if (slotKey == null) {
+                return ((Node) this.entries[idx + 1]).find(shift + BITS_PER_LEVEL, hash, key);
+            }
+            return key.equals(slotKey) ? this.entries[idx + 1] : null;
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value, boolean[] isAdded) {
+            int bit = 1 << ((hash >>> shift) & LEVEL_MASK);
+            int idx = indexOf(bit);
+
+            if ((this.bitmap & bit) == 0) {
+                // slot is free, insert the key and value into it
+                Object[] newEntries = new Object[this.entries.length + 2];
+                System.arraycopy(this.entries, 0, newEntries, 0, idx);
+                newEntries[idx] = key;
+                newEntries[idx + 1] = value;
+                System.arraycopy(this.entries, idx, newEntries, idx + 2, this.entries.length - idx);
+                isAdded[0] = true;
+                return new BitmapNode(this.bitmap | bit, newEntries);
+            }
+
+            Object slotKey = this.entries[idx];
+            Object slotValue = this.entries[idx + 1];
+            Object newValue;
+            Object newKey = slotKey;
+            if (slotKey == null) {
+                // slot holds a child node, put the key into it
+                Node child = (Node) slotValue;
+                newValue = child.put(shift + BITS_PER_LEVEL, hash, key, value, isAdded);
+            } else if (key.equals(slotKey)) {
+                // slot holds the same key, replace its value
+                newValue = value;
+            } else {
+                // slot holds another key, push both down into a new child node
+                newKey = null;
+                newValue = createNode(shift + BITS_PER_LEVEL, slotKey, slotValue, hash, key, value);
+                isAdded[0] = true;
+            }
+            if (newValue == slotValue && newKey == slotKey) {
+                return this;
+            }
+            Object[] newEntries = this.entries.clone();
+            newEntries[idx] = newKey;
+            newEntries[idx + 1] = newValue;
+            return new BitmapNode(this.bitmap, newEntries);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & LEVEL_MASK);
+            if ((this.bitmap & bit) == 0) {
+                return this;
+            }
+            int idx = indexOf(bit);
+            Object slotKey = this.entries[idx];
+
+            if (slotKey == null) {
+                Node child = (Node) this.entries[idx + 1];
+                Node newChild = child.remove(shift + BITS_PER_LEVEL, hash, key);
+                if (newChild == child) {
+                    return this;
+                }
+                if (newChild != null) {
+                    Object[] newEntries = this.entries.clone();
+                    newEntries[idx + 1] = newChild;
+                    return new BitmapNode(this.bitmap, newEntries);
+                }
+            } else if (!key.equals(slotKey)) {
+                return this;
+            }
+
+            // slot is left empty, drop it
+            if (this.bitmap == bit) {
+                return null;
+            }
+            Object[] newEntries = new Object[this.entries.length - 2];
+            System.arraycopy(this.entries, 0, newEntries, 0, idx);
+            System.arraycopy(this.entries, idx + 2, newEntries, idx, newEntries.length - idx);
+            return new BitmapNode(this.bitmap & ~bit, newEntries);
+        }
+
+        /**
+         * Creates a node holding two keys that share a slot on the level above
+         * @param shift number of hash bits consumed by the levels above the new node
+         * @return new node holding both keys
+         */
+        private static Node createNode(int shift, Object firstKey, Object firstValue,
+                int secondHash, Object secondKey, Object secondValue) {
+            int firstHash = firstKey.hashCode();
+            if (firstHash == secondHash) {
+                return new CollisionNode(firstHash, new Object[] {firstKey, firstValue, secondKey, secondValue});
+            }
+            boolean[] isAdded = new boolean[1];
+            return EMPTY.put(shift, firstHash, firstKey, firstValue, isAdded)
+                    .put(shift, secondHash, secondKey, secondValue, isAdded);
+        }
+    }
+
+    /**
+     * Node holding keys whose hashes are identical, searched linearly
+     */
+    private static final class CollisionNode extends Node {
+        /** hash shared by every key in this node */
+        private final int hash;
+        /** keys and values held by this node, interleaved */
+        private final Object[] entries;
+
+        /**
+         * Creates a CollisionNode holding the entries passed in
+         * @param hash hash shared by every key
+         * @param entries keys and values, interleaved
+         */
+        private CollisionNode(int hash, Object[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        /**
+         * Returns position of the key in the entries
+         * @param key key to look for
+         * @return index of the key in the entries or -1 if it is not held
+         */
+        private int indexOf(Object key) {
+            for (int i = 0; i < this.entries.length; i += 2) {
+                if (key.equals(this.entries[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int idx = hash == this.hash ? indexOf(key) : -1;
+            return idx < 0 ? null : this.entries[idx + 1];
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value, boolean[] isAdded) {
+            if (hash != this.hash) {
+                // nest this node under a BitmapNode that tells the two hashes apart
+                int bit = 1 << ((this.hash >>> shift) & LEVEL_MASK);
+                return new BitmapNode(bit, new Object[] {null, this}).put(shift, hash, key, value, isAdded);
+            }
+            int idx = indexOf(key);
+            if (idx >= 0) {
+                if (this.entries[idx + 1] == value) {
+                    return this;
+                }
+                Object[] newEntries = this.entries.clone();
+                newEntries[idx + 1] = value;
+                return new CollisionNode(this.hash, newEntries);
+            }
+            Object[] newEntries = Arrays.copyOf(this.entries, this.entries.length + 2);
+            newEntries[this.entries.length] = key;
+            newEntries[this.entries.length + 1] = value;
+            isAdded[0] = true;
+            return new CollisionNode(this.hash, newEntries);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int idx = hash == this.hash ? indexOf(key) : -1;
+            if (idx < 0) {
+                return this;
+            }
+            if (this.entries.length == 2) {
+                return null;
+            }
+            Object[] newEntries = new Object[this.entries.length - 2];
+            System.arraycopy(this.entries, 0, newEntries, 0, idx);
+            System.arraycopy(this.entries, idx + 2, newEntries, idx, newEntries.length - idx);
+            return new CollisionNode(this.hash, newEntries);
+        }
+    }
+}
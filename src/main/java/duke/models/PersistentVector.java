@@ -0,0 +1,705 @@
+package duke.models;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable, structurally shared list backed by a 32-way counted trie. Every node keeps the
+ * cumulative sizes of its children so that lookups, updates, inserts and removals at any index
+ * only copy the O(log32 n) nodes along the path to that index, while every other node is shared
+ * between the old and the new version. A vector can also be created lazily, in which case each
+ * leaf only creates its elements the first time one of them is read, or as a view, in which case
+ * its elements are created whenever they are read and never kept.
+ *
+ * @param <T> type of the elements held in the vector
+ */
+public final class PersistentVector<T> extends AbstractList<T> implements RandomAccess {
+    /** Maximum number of slots held by a single node of the trie */
+    private static final int BRANCH_FACTOR = 32;
+    /** Nodes narrower than this get merged with a sibling after a removal when possible */
+    private static final int MIN_WIDTH = BRANCH_FACTOR / 2;
+    /** Shared empty vector, there is no need for more than one */
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(null);
+
+    /** Root of the trie, null when the vector is empty */
+    private final Node root;
+
+    /**
+     * Creates a vector around an existing trie, only used internally since nodes are never
+     * exposed
+     * @param root root node of the trie or null for an empty vector
+     */
+    private PersistentVector(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the shared empty vector
+     * @param <T> type of the elements held in the vector
+     * @return empty PersistentVector
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> empty() {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    /**
+     * Builds a vector containing every element of the collection passed in, in iteration order.
+     * The trie is packed bottom up in a single O(n) pass instead of n appends
+     * @param elements collection of elements to copy into the vector
+     * @param <T> type of the elements held in the vector
+     * @return PersistentVector containing the elements passed in
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> of(Collection<? extends T> elements) {
+        if (elements instanceof PersistentVector) {
+            return (PersistentVector<T>) elements;
+        }
+        if (elements.isEmpty()) {
+            return empty();
+        }
+
+        // pack elements into full leaves
+        Object[] items = elements.toArray();
+        Node[] level = new Node[(items.length + BRANCH_FACTOR - 1) / BRANCH_FACTOR];
+        for (int i = 0; i < level.length; i++) {
+            int from = i * BRANCH_FACTOR;
+            level[i] = new Leaf(Arrays.copyOfRange(items, from, Math.min(from + BRANCH_FACTOR, items.length)));
+        }
+        return new PersistentVector<>(packLeaves(level));
+    }
+
+    /**
+     * Builds a vector of the size passed in whose elements are only created when first read. A
+     * leaf creates all of its elements at once, so reading an element creates the few around it,
+     * and an update only creates the elements of the leaf it copies
+     * @param size number of elements in the vector
+     * @param decoder creates the element at an index, called at most once per index from
+     *        whichever thread reads it first
+     * @param <T> type of the elements held in the vector
+     * @return PersistentVector creating its elements on demand
+     */
+    public static <T> PersistentVector<T> lazy(int size, IntFunction<? extends T> decoder) {
+        return decoded(size, decoder, true);
+    }
+
+    /**
+     * Builds a vector of the size passed in whose elements are created whenever they are read and
+     * never kept, for elements that are cheap to create from a more compact source. Updates turn
+     * the leaves they copy into ordinary leaves, every other leaf keeps reading from the decoder
+     * @param size number of elements in the vector
+     * @param decoder creates the element at an index, called on every read from any thread
+     * @param <T> type of the elements held in the vector
+     * @return PersistentVector reading its elements through the decoder
+     */
+    public static <T> PersistentVector<T> view(int size, IntFunction<? extends T> decoder) {
+        return decoded(size, decoder, false);
+    }
+
+    /**
+     * Builds a vector of the size passed in whose elements are created by the decoder
+     * @param size number of elements in the vector
+     * @param decoder creates the element at an index
+     * @param isKept true to keep the elements of a leaf once created, false to create them on every read
+     * @param <T> type of the elements held in the vector
+     * @return PersistentVector creating its elements through the decoder
+     */
+    private static <T> PersistentVector<T> decoded(int size, IntFunction<? extends T> decoder, boolean isKept) {
+        if (size == 0) {
+            return empty();
+        }
+        Node[] level = new Node[(size + BRANCH_FACTOR - 1) / BRANCH_FACTOR];
+        for (int i = 0; i < level.length; i++) {
+            int from = i * BRANCH_FACTOR;
+            level[i] = new Leaf(Math.min(BRANCH_FACTOR, size - from), from, decoder, isKept);
+        }
+        return new PersistentVector<>(packLeaves(level));
+    }
+
+    /**
+     * Groups full leaves into full branches, level by level, until a single root is left
+     * @param leaves leaves holding the elements in order
+     * @return root of the trie
+     */
+    private static Node packLeaves(Node[] leaves) {
+        Node[] level = leaves;
+        while (level.length > 1) {
+            Node[] parents = new Node[(level.length + BRANCH_FACTOR - 1) / BRANCH_FACTOR];
+            for (int i = 0; i < parents.length; i++) {
+                int from = i * BRANCH_FACTOR;
+                parents[i] = Branch.of(Arrays.copyOfRange(level, from, Math.min(from + BRANCH_FACTOR, level.length)));
+            }
+            level = parents;
+        }
+        return level[0];
+    }
+
+    /**
+     * Returns number of elements held in the vector
+     * @return size of the vector
+     */
+    @Override
+    public int size() {
+        return this.root == null ? 0 : this.root.size();
+    }
+
+    /**
+     * Returns the element at the index passed in
+     * @param index 0-based index of the element
+     * @return element at the index
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index, size());
+        Node node = this.root;
+        int offset = index;
+        while (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            int slot = branch.slotFor(offset);
+            offset -= branch.offsetOf(slot);
+            node = branch.children[slot];
+        }
+        return (T) ((Leaf) node).item(offset);
+    }
+
+    /**
+     * Returns a new vector with the element passed in added to the end
+     * @param element element to append
+     * @return new PersistentVector with the element appended
+     */
+    public PersistentVector<T> append(T element) {
+        return insert(size(), element);
+    }
+
+    /**
+     * Returns a new vector with the element passed in inserted at the index, shifting every
+     * element after it by one
+     * @param index 0-based index to insert at, may be equal to the size to append
+     * @param element element to insert
+     * @return new PersistentVector with the element inserted
+     */
+    public PersistentVector<T> insert(int index, T element) {
+        checkIndex(index, size() + 1);
+        if (this.root == null) {
+            return new PersistentVector<>(new Leaf(new Object[] {element}));
+        }
+        Node[] inserted = this.root.insert(index, element);
+        return new PersistentVector<>(inserted.length == 1 ? inserted[0] : Branch.of(inserted));
+    }
+
+    /**
+     * Returns a new vector with the element at the index replaced by the element passed in
+     * @param index 0-based index of the element to replace
+     * @param element new element at the index
+     * @return new PersistentVector with the element replaced
+     */
+    public PersistentVector<T> update(int index, T element) {
+        checkIndex(index, size());
+        return new PersistentVector<>(this.root.update(index, element));
+    }
+
+    /**
+     * Returns a new vector without the element at the index, shifting every element after it
+     * down by one
+     * @param index 0-based index of the element to remove
+     * @return new PersistentVector without the element
+     */
+    public PersistentVector<T> removeAt(int index) {
+        checkIndex(index, size());
+        Node newRoot = this.root.remove(index);
+        // collapse roots that are left with a single child
+        while (newRoot instanceof Branch && newRoot.width() == 1) {
+            newRoot = ((Branch) newRoot).children[0];
+        }
+        return newRoot == null ? empty() : new PersistentVector<>(newRoot);
+    }
+
+    /**
+     * Returns a new vector without the elements at the indexes passed in. The new vector is packed
+     * in a single O(n) pass, which beats removing the elements one at a time once more than a few
+     * of them go
+     * @param sortedIndexes distinct 0-based indexes of the elements to remove, in increasing order
+     * @return new PersistentVector without the elements
+     */
+    public PersistentVector<T> removeAllAt(int[] sortedIndexes) {
+        if (sortedIndexes.length > 0) {
+            checkIndex(sortedIndexes[sortedIndexes.length - 1], size());
+        }
+        List<T> keptElements = new ArrayList<>(size() - sortedIndexes.length);
+        int index = 0;
+        int nextRemoved = 0;
+        for (T element : this) {
+            if (nextRemoved < sortedIndexes.length && sortedIndexes[nextRemoved] == index) {
+                nextRemoved++;
+            } else {
+                keptElements.add(element);
+            }
+            index++;
+        }
+        return of(keptElements);
+    }
+
+    /**
+     * Returns a new vector with the elements at the indexes passed in replaced by the updater
+     * applied to them, packed in a single O(n) pass like removeAllAt
+     * @param sortedIndexes distinct 0-based indexes of the elements to update, in increasing order
+     * @param updater function returning the new element from the old one
+     * @return new PersistentVector with the elements updated
+     */
+    public PersistentVector<T> updateAllAt(int[] sortedIndexes, UnaryOperator<T> updater) {
+        if (sortedIndexes.length > 0) {
+            checkIndex(sortedIndexes[sortedIndexes.length - 1], size());
+        }
+        List<T> elements = new ArrayList<>(size());
+        int index = 0;
+        int nextUpdated = 0;
+        for (T element : this) {
+            if (nextUpdated < sortedIndexes.length && sortedIndexes[nextUpdated] == index) {
+                nextUpdated++;
+                elements.add(updater.apply(element));
+            } else {
+                elements.add(element);
+            }
+            index++;
+        }
+        return of(elements);
+    }
+
+    /**
+     * Binary searches a vector sorted by the comparator passed in for the first element that is
+     * not less than the key
+     * @param key key to search for
+     * @param comparator comparator the vector is sorted by
+     * @return index of the first element not less than the key, or the size if there is none
+     */
+    public int lowerBound(T key, Comparator<? super T> comparator) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(get(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Iterates leaf by leaf so that walking the whole vector costs O(n) instead of O(n log n)
+     * @return Iterator over the elements of the vector
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            /** index of the next element to return */
+            private int index = 0;
+            /** items of the leaf currently being walked */
+            private Object[] leafItems = new Object[0];
+            /** index of the first element of the current leaf */
+            private int leafStart = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < size();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (this.index - this.leafStart >= this.leafItems.length) {
+                    seekLeaf();
+                }
+                return (T) this.leafItems[this.index++ - this.leafStart];
+            }
+
+            /**
+             * Descends from the root to the leaf holding the next element
+             */
+            private void seekLeaf() {
+                Node node = root;
+                int offset = this.index;
+                while (node instanceof Branch) {
+                    Branch branch = (Branch) node;
+                    int slot = branch.slotFor(offset);
+                    offset -= branch.offsetOf(slot);
+                    node = branch.children[slot];
+                }
+                this.leafItems = ((Leaf) node).items();
+                this.leafStart = this.index - offset;
+            }
+        };
+    }
+
+    /**
+     * Throws IndexOutOfBoundsException if index is not within [0, bound)
+     * @param index index to check
+     * @param bound exclusive upper bound of the index
+     */
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for size %d",
+                    index, bound));
+        }
+    }
+
+    /**
+     * Node of the trie, either a Leaf holding elements or a Branch holding other nodes
+     */
+    private abstract static class Node {
+        /**
+         * Returns number of elements under this node
+         * @return number of elements
+         */
+        abstract int size();
+
+        /**
+         * Returns number of slots used in this node
+         * @return number of slots
+         */
+        abstract int width();
+
+        /**
+         * Returns a copy of this node with the element at the index replaced
+         * @param index index relative to this node
+         * @param element new element
+         * @return updated node
+         */
+        abstract Node update(int index, Object element);
+
+        /**
+         * Returns copies of this node with the element inserted, split in two if it overflows
+         * @param index index relative to this node
+         * @param element element to insert
+         * @return array of one node, or two nodes when the node had to be split
+         */
+        abstract Node[] insert(int index, Object element);
+
+        /**
+         * Returns a copy of this node without the element at the index
+         * @param index index relative to this node
+         * @return updated node or null if the node is left empty
+         */
+        abstract Node remove(int index);
+
+        /**
+         * Returns a node containing the slots of this node followed by the slots of the other
+         * @param other node on the same level of the trie
+         * @return merged node
+         */
+        abstract Node merge(Node other);
+    }
+
+    /**
+     * Bottom level of the trie holding the elements themselves
+     */
+    private static final class Leaf extends Node {
+        /** number of elements held by this leaf */
+        private final int length;
+        /** index passed to the decoder for the first element of a lazy leaf */
+        private final int decodeFrom;
+        /** whether a lazy leaf keeps its elements once created, false for the leaf of a view */
+        private final boolean isKept;
+        /** elements held by this leaf, null until a lazy leaf is first read and always for a view */
+        private volatile Object[] items;
+        /** creates the elements of a lazy leaf, dropped once they have been kept */
+        private IntFunction<?> decoder;
+
+        /**
+         * Creates a Leaf holding the items passed in
+         * @param items elements held by this leaf
+         */
+        private Leaf(Object[] items) {
+            this.length = items.length;
+            this.decodeFrom = 0;
+            this.isKept = true;
+            this.items = items;
+        }
+
+        /**
+         * Creates a lazy Leaf whose elements are created by the decoder when read
+         * @param length number of elements held by this leaf
+         * @param decodeFrom index passed to the decoder for the first element
+         * @param decoder creates the element at an index
+         * @param isKept true to keep the elements once created, false to create them on every read
+         */
+        private Leaf(int length, int decodeFrom, IntFunction<?> decoder, boolean isKept) {
+            this.length = length;
+            this.decodeFrom = decodeFrom;
+            this.isKept = isKept;
+            this.decoder = decoder;
+        }
+
+        /**
+         * Returns the element at the index, creating only that element when this is the leaf of a
+         * view
+         * @param index index relative to this leaf
+         * @return element at the index
+         */
+        private Object item(int index) {
+            if (!this.isKept) {
+                return this.decoder.apply(this.decodeFrom + index);
+            }
+            return items()[index];
+        }
+
+        /**
+         * Returns the elements held by this leaf, creating them if this is a lazy leaf read for
+         * the first time or the leaf of a view
+         * @return elements held by this leaf
+         */
+        private Object[] items() {
+            Object[] decoded = this.items;
+            if (decoded != null) {
+                return decoded;
+            }
+            if (!this.isKept) {
+                return decodeItems();
+            }
+            synchronized (this) {
+                if (this.items == null) {
+                    this.items = decodeItems();
+                    // the decoder holds on to the source of every leaf, let it go with the last one
+                    this.decoder = null;
+                }
+                return this.items;
+            }
+        }
+
+        /**
+         * Creates every element of a lazy leaf through its decoder
+         * @return new array of the elements
+         */
+        private Object[] decodeItems() {
+            Object[] newItems = new Object[this.length];
+            for (int i = 0; i < newItems.length; i++) {
+                newItems[i] = this.decoder.apply(this.decodeFrom + i);
+            }
+            return newItems;
+        }
+
+        @Override
+        int size() {
+            return this.length;
+        }
+
+        @Override
+        int width() {
+            return this.length;
+        }
+
+        @Override
+        Node update(int index, Object element) {
+            Object[] newItems = items().clone();
+            newItems[index] = element;
+            return new Leaf(newItems);
+        }
+
+        @Override
+        Node[] insert(int index, Object element) {
+            Object[] oldItems = items();
+            Object[] newItems = new Object[oldItems.length + 1];
+            System.arraycopy(oldItems, 0, newItems, 0, index);
+            newItems[index] = element;
+            System.arraycopy(oldItems, index, newItems, index + 1, oldItems.length - index);
+            if (newItems.length <= BRANCH_FACTOR) {
+                return new Node[] {new Leaf(newItems)};
+            }
+            int split = splitPoint(index, newItems.length);
+            return new Node[] {
+                new Leaf(Arrays.copyOfRange(newItems, 0, split)),
+                new Leaf(Arrays.copyOfRange(newItems, split, newItems.length))
+            };
+        }
+
+        @Override
+        Node remove(int index) {
+            if (this.length == 1) {
+                return null;
+            }
+            Object[] oldItems = items();
+            Object[] newItems = new Object[oldItems.length - 1];
+            System.arraycopy(oldItems, 0, newItems, 0, index);
+            System.arraycopy(oldItems, index + 1, newItems, index, newItems.length - index);
+            return new Leaf(newItems);
+        }
+
+        @Override
+        Node merge(Node other) {
+            Object[] oldItems = items();
+            Object[] otherItems = ((Leaf) other).items();
+            Object[] newItems = Arrays.copyOf(oldItems, oldItems.length + otherItems.length);
+            System.arraycopy(otherItems, 0, newItems, oldItems.length, otherItems.length);
+            return new Leaf(newItems);
+        }
+    }
+
+    /**
+     * Inner level of the trie, holding child nodes along with their cumulative sizes
+     */
+    private static final class Branch extends Node {
+        /** child nodes, all on the same level of the trie */
+        private final Node[] children;
+        /** sizes[i] is the number of elements held by children[0..i] */
+        private final int[] sizes;
+
+        /**
+         * Creates a Branch from children and their precomputed cumulative sizes
+         * @param children child nodes
+         * @param sizes cumulative sizes of the children
+         */
+        private Branch(Node[] children, int[] sizes) {
+            this.children = children;
+            this.sizes = sizes;
+        }
+
+        /**
+         * Creates a Branch from children, computing their cumulative sizes
+         * @param children child nodes
+         * @return new Branch
+         */
+        private static Branch of(Node[] children) {
+            int[] sizes = new int[children.length];
+            int total = 0;
+            for (int i = 0; i < children.length; i++) {
+                total += children[i].size();
+                sizes[i] = total;
+            }
+            return new Branch(children, sizes);
+        }
+
+        @Override
+        int size() {
+            return this.sizes[this.sizes.length - 1];
+        }
+
+        @Override
+        int width() {
+            return this.children.length;
+        }
+
+        /**
+         * Binary searches the cumulative sizes for the child holding the index
+         * @param index index relative to this node
+         * @return slot of the child holding the index
+         */
+        private int slotFor(int index) {
+            int low = 0;
+            int high = this.sizes.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (this.sizes[mid] > index) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns number of elements held by the children before the slot
+         * @param slot slot of a child
+         * @return index of the first element of the child relative to this node
+         */
+        private int offsetOf(int slot) {
+            return slot == 0 ? 0 : this.sizes[slot - 1];
+        }
+
+        @Override
+        Node update(int index, Object element) {
+            int slot = slotFor(index);
+            Node[] newChildren = this.children.clone();
+            newChildren[slot] = this.children[slot].update(index - offsetOf(slot), element);
+            // sizes are unchanged by an update so they can be shared
+            return new Branch(newChildren, this.sizes);
+        }
+
+        @Override
+        Node[] insert(int index, Object element) {
+            // an index equal to size belongs to the last child
+            int slot = index == size() ? this.children.length - 1 : slotFor(index);
+            Node[] inserted = this.children[slot].insert(index - offsetOf(slot), element);
+
+            Node[] newChildren = new Node[this.children.length + inserted.length - 1];
+            System.arraycopy(this.children, 0, newChildren, 0, slot);
+            System.arraycopy(inserted, 0, newChildren, slot, inserted.length);
+            System.arraycopy(this.children, slot + 1, newChildren, slot + inserted.length,
+                    this.children.length - slot - 1);
+            if (newChildren.length <= BRANCH_FACTOR) {
+                return new Node[] {Branch.of(newChildren)};
+            }
+            int split = splitPoint(slot + 1, newChildren.length);
+            return new Node[] {
+                Branch.of(Arrays.copyOfRange(newChildren, 0, split)),
+                Branch.of(Arrays.copyOfRange(newChildren, split, newChildren.length))
+            };
+        }
+
+        @Override
+        Node remove(int index) {
+            int slot = slotFor(index);
+            Node child = this.children[slot].remove(index - offsetOf(slot));
+
+            if (child == null) {
+                // child is left empty, drop its slot
+                if (this.children.length == 1) {
+                    return null;
+                }
+                Node[] newChildren = new Node[this.children.length - 1];
+                System.arraycopy(this.children, 0, newChildren, 0, slot);
+                System.arraycopy(this.children, slot + 1, newChildren, slot, newChildren.length - slot);
+                return Branch.of(newChildren);
+            }
+
+            Node[] newChildren = this.children.clone();
+            newChildren[slot] = child;
+
+            // merge an underfull child into a neighbour so that the trie stays shallow
+            if (child.width() < MIN_WIDTH && newChildren.length > 1) {
+                int left = slot > 0 ? slot - 1 : slot;
+                if (newChildren[left].width() + newChildren[left + 1].width() <= BRANCH_FACTOR) {
+                    Node[] merged = new Node[newChildren.length - 1];
+                    System.arraycopy(newChildren, 0, merged, 0, left);
+                    merged[left] = newChildren[left].merge(newChildren[left + 1]);
+                    System.arraycopy(newChildren, left + 2, merged, left + 1, merged.length - left - 1);
+                    return Branch.of(merged);
+                }
+            }
+            return Branch.of(newChildren);
+        }
+
+        @Override
+        Node merge(Node other) {
+            Node[] otherChildren = ((Branch) other).children;
+            Node[] newChildren = Arrays.copyOf(this.children, this.children.length + otherChildren.length);
+            System.arraycopy(otherChildren, 0, newChildren, this.children.length, otherChildren.length);
+            return Branch.of(newChildren);
+        }
+    }
+
+    /**
+     * Decides where an overflowing node is split. Appends keep the left node full so that a
+     * vector grown by appending stays densely packed, any other insert splits down the middle
+     * @param insertedAt slot that was just filled
+     * @param width width of the overflowing node
+     * @return number of slots kept in the left node
+     */
+    private static int splitPoint(int insertedAt, int width) {
+        return insertedAt == width - 1 ? BRANCH_FACTOR : width / 2;
+    }
+}
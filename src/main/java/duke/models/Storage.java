@@ -1,13 +1,34 @@
 package duke.models;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import duke.metrics.Metrics;
+import duke.metrics.StorageEvent;
 
 public class Storage {
     /** Constant containing index of type character for any Todo */
@@ -22,11 +43,67 @@ public class Storage {
     private static final String DATABASE_IS_DONE_FALSE = "0";
     /** Constant defining true for isDone for database file */
     private static final String DATABASE_IS_DONE_TRUE = "1";
+    /** Separator between the fields of a line in the database file */
+    private static final char DATABASE_FIELD_SEPARATOR = '|';
+    /** Size of the buffer the text snapshot is written through */
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    /** Number of characters of encoded lines collected before they are handed to the writer */
+    private static final int WRITE_CHUNK_CHARS = 1 << 16;
+
+    /** Journal record type for a Todo appended to the end of the list */
+    private static final String JOURNAL_ADD = "+";
+    /** Journal record type for a Todo removed from the list */
+    private static final String JOURNAL_DELETE = "-";
+    /** Journal record type for a Todo marked as done */
+    private static final String JOURNAL_DONE = "x";
+    /** Journal record type for a Todo replaced by an updated Todo */
+    private static final String JOURNAL_UPDATE = "~";
+    /** Journal record type for Todos removed from the list by a single bulk command */
+    private static final String JOURNAL_DELETE_ALL = "-*";
+    /** Journal record type for Todos marked as done by a single bulk command */
+    private static final String JOURNAL_DONE_ALL = "x*";
+    /** Separator between the Todo indexes of a bulk record */
+    private static final String JOURNAL_INDEX_SEPARATOR = ",";
+    /** Constant containing index of the record type in a journal record */
+    private static final int JOURNAL_TYPE_INDEX = 0;
+    /** Constant containing index of the Todo index in delete, done and update records */
+    private static final int JOURNAL_TODO_INDEX = 1;
+    /** Journal size after which it gets folded into a new snapshot in the background */
+    private static final long JOURNAL_COMPACTION_THRESHOLD_BYTES = 1L << 20;
+    /** Suffix of the journal file, placed beside the snapshot */
+    private static final String JOURNAL_SUFFIX = ".journal";
+    /** Suffix of a journal that is being folded into a new snapshot */
+    private static final String COMPACTING_JOURNAL_SUFFIX = ".journal.compacting";
+    /** Suffix of a snapshot that is still being written */
+    private static final String TEMPORARY_SNAPSHOT_SUFFIX = ".tmp";
+    /** Suffix of a snapshot that has been completely written but not moved into place yet */
+    private static final String COMPLETE_SNAPSHOT_SUFFIX = ".complete";
+    /** Suffix of a snapshot written without a journal to fold, which is only complete once moved */
+    private static final String SAVING_SNAPSHOT_SUFFIX = ".saving";
+    /** Extension of the text database file, replaced when naming the binary database file */
+    private static final String TEXT_EXTENSION = ".txt";
+    /** Extension of the binary database file */
+    private static final String BINARY_EXTENSION = ".bin";
 
     /** filePath containing saved Todos */
     private final String filePath;
     /** directory of file containing saved Todos */
     private final String directoryPath;
+    /** format the snapshot of the Todos is saved in */
+    private final StorageFormat format;
+    /** path of the snapshot in the selected format, journal files are placed beside it */
+    private final String snapshotPath;
+    /** whether each mutation is appended to a journal instead of only saving on exit */
+    private final boolean isJournalling;
+    /** how the Todos loaded from the snapshot are held */
+    private final LoadMode loadMode;
+    /** single background thread writing snapshots, so that only one is ever written at a time */
+    private final ExecutorService compactionExecutor;
+
+    /** open stream of the journal file, null until the first record is appended */
+    private OutputStream journalStream;
+    /** number of bytes currently in the journal file */
+    private long journalBytes;
 
     /**
      * Creates a new instance of Storage which is responsible for storing and retrieving
@@ -35,142 +112,694 @@ public class Storage {
      * @param directoryPath directory path of the file containing the tasks
      */
     public Storage(String filePath, String directoryPath) {
+        this(filePath, directoryPath, false);
+    }
+
+    /**
+     * Creates a new instance of Storage, optionally in journal mode where each mutation is
+     * appended to a journal beside the snapshot file as it happens
+     * @param filePath file path of the file containing the tasks
+     * @param directoryPath directory path of the file containing the tasks
+     * @param isJournalling true to append each mutation to a journal
+     */
+    public Storage(String filePath, String directoryPath, boolean isJournalling) {
+        this(filePath, directoryPath, isJournalling, StorageFormat.TEXT);
+    }
+
+    /**
+     * Creates a new instance of Storage saving its snapshot in the format passed in. The binary
+     * format is saved beside the text file with a .bin extension, and is migrated from the text
+     * file the first time it is loaded
+     * @param filePath file path of the text file containing the tasks
+     * @param directoryPath directory path of the file containing the tasks
+     * @param isJournalling true to append each mutation to a journal
+     * @param format format to save the snapshot in
+     */
+    public Storage(String filePath, String directoryPath, boolean isJournalling, StorageFormat format) {
+        this(filePath, directoryPath, isJournalling, format, LoadMode.EAGER);
+    }
+
+    /**
+     * Creates a new instance of Storage holding the Todos it loads as selected by the load mode. A
+     * lazy load only indexes where each Todo starts in the snapshot, so that startup does not
+     * depend on how many Todos are saved, and decodes each Todo the first time it is read. A
+     * compact load packs the Todos into columns, which take a fraction of the heap of the Todos
+     * @param filePath file path of the text file containing the tasks
+     * @param directoryPath directory path of the file containing the tasks
+     * @param isJournalling true to append each mutation to a journal
+     * @param format format to save the snapshot in
+     * @param loadMode how the Todos loaded from the snapshot are held
+     */
+    public Storage(String filePath, String directoryPath, boolean isJournalling, StorageFormat format,
+            LoadMode loadMode) {
         this.filePath = filePath;
         this.directoryPath = directoryPath;
+        this.format = format;
+        this.snapshotPath = format == StorageFormat.BINARY ? toBinaryPath(filePath) : filePath;
+        this.isJournalling = isJournalling;
+        this.loadMode = loadMode;
+        this.compactionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "duke-storage-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
-     * Attempt to retrieve a local save of the user's tasks on their pc as a list, if not found,
-     * return the an empty list
+     * Attempt to retrieve a local save of the user's tasks on their pc as a list, replaying any
+     * journal left behind by the last session on top of it. If not found, return an empty list
      *
      * @return List containing either existing Todos based on data file or an empty list
      */
     public List<Optional<? extends Todo>> retrieveLocalDatabase() {
+        long start = System.nanoTime();
+        StorageEvent loadEvent = new StorageEvent();
+        loadEvent.begin();
+        recoverInterruptedSnapshot(this.snapshotPath);
+
+        PersistentVector<Optional<? extends Todo>> todos = PersistentVector.of(readSnapshot());
+        // journal that was being compacted is older than the current journal
+        File compactingJournal = new File(this.snapshotPath + COMPACTING_JOURNAL_SUFFIX);
+        File journal = new File(this.snapshotPath + JOURNAL_SUFFIX);
+        todos = replayJournal(todos, compactingJournal);
+        todos = replayJournal(todos, journal);
+
+        // the text file is read instead of the snapshot until it has been migrated to binary
+        File snapshot = new File(this.snapshotPath);
+        long snapshotBytes = snapshot.exists() ? snapshot.length() : new File(this.filePath).length();
+        long loadedBytes = snapshotBytes + compactingJournal.length() + journal.length();
+        Metrics.getInstance().recordLoad(System.nanoTime() - start, loadedBytes);
+        loadEvent.finish(StorageEvent.LOAD, todos.size(), loadedBytes);
+        return todos;
+    }
+
+    /**
+     * Reads the snapshot file containing the saved Todos. In compact mode the file is decoded
+     * straight into columns, so that no list of Todos is ever built alongside them
+     *
+     * @return List containing either existing Todos based on data file or an empty list
+     */
+    private List<Optional<? extends Todo>> readSnapshot() {
         try {
-            // get local file
-            File localFile = new File(this.filePath);
-            // start scanner for file
-            Scanner sc = new Scanner(localFile);
-            // init empty array
-            List<Optional<? extends Todo>> existingTodosList = new ArrayList<>();
-            // scan through inputs in file
-            while (sc.hasNextLine()) {
-                // get line, splitting by special character delimiter |
-                List<String> line = Arrays.asList(sc.nextLine().split("\\|"));
+            if (this.format == StorageFormat.TEXT) {
+                // load local file through a parallel parser
+                // @formatter:off
+                switch (this.loadMode) {
+                case LAZY:
+                    return DatabaseLoader.index(Paths.get(this.filePath));
+                case COMPACT:
+                    return DatabaseLoader.loadColumns(Paths.get(this.filePath)).toVector();
+                default:
+                    return DatabaseLoader.load(Paths.get(this.filePath));
+                }
+            }
+            if (new File(this.snapshotPath).exists()) {
+                // @formatter:off
+                switch (this.loadMode) {
+                case LAZY:
+                    return BinaryDatabaseCodec.index(Paths.get(this.snapshotPath));
+                case COMPACT:
+                    return BinaryDatabaseCodec.readColumns(Paths.get(this.snapshotPath)).toVector();
+                default:
+                    return BinaryDatabaseCodec.read(Paths.get(this.snapshotPath));
+                }
+            }
+            return migrateTextDatabase();
+        } catch (Exception e) {
+            // exception will be caught if no existing data file is found
+            // e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
 
-                // line = [type, isDone, message, extraMessage (event / deadline)]
-                String type = line.get(TODO_TYPE_INDEX);
-                // isDone would be "1" if done, "0" if not done
-                boolean isDone = line.get(TODO_IS_DONE_INDEX).equals(DATABASE_IS_DONE_TRUE);
-                String message = line.get(TODO_MESSAGE_INDEX);
+    /**
+     * Migrates the text file to the binary format the first time it is loaded in binary format.
+     * The journals of the text file are replayed first, as the binary journal only records what
+     * happens after the migration, and are dropped once the binary snapshot folding them is in place
+     *
+     * @return List containing the Todos of the text file and its journals
+     * @throws IOException when the text file cannot be read
+     */
+    private List<Optional<? extends Todo>> migrateTextDatabase() throws IOException {
+        recoverInterruptedSnapshot(this.filePath);
+        File textCompactingJournal = new File(this.filePath + COMPACTING_JOURNAL_SUFFIX);
+        File textJournal = new File(this.filePath + JOURNAL_SUFFIX);
+        boolean isJournalled = textCompactingJournal.exists() || textJournal.exists();
+        // a session may have only journalled its changes, otherwise a missing text file fails the load
+        PersistentVector<Optional<? extends Todo>> existingTodos = isJournalled && !new File(this.filePath).exists()
+                ? PersistentVector.empty()
+                : PersistentVector.of(DatabaseLoader.load(Paths.get(this.filePath)));
+        existingTodos = replayJournal(replayJournal(existingTodos, textCompactingJournal), textJournal);
 
+        File savingSnapshot = new File(this.snapshotPath + SAVING_SNAPSHOT_SUFFIX);
+        if (writeSnapshot(existingTodos, savingSnapshot) && replaceSnapshot(savingSnapshot)) {
+            // noinspection ResultOfMethodCallIgnored
+            textCompactingJournal.delete();
+            // noinspection ResultOfMethodCallIgnored
+            textJournal.delete();
+        }
+        return this.loadMode == LoadMode.COMPACT
+                ? TaskColumns.of(existingTodos).toVector()
+                : existingTodos;
+    }
+
+    /**
+     * Applies every record of a journal file to the Todos passed in. A torn record at the end of
+     * the journal, left by a crash halfway through a write, ends the replay
+     *
+     * @param todos Todos the journal was recorded against
+     * @param journal journal file to replay
+     * @return Todos with every record of the journal applied
+     */
+    private PersistentVector<Optional<? extends Todo>> replayJournal(
+            PersistentVector<Optional<? extends Todo>> todos, File journal) {
+        if (!journal.exists()) {
+            return todos;
+        }
+        try (Scanner sc = new Scanner(journal, StandardCharsets.UTF_8)) {
+            boolean isLastRecordComplete = endsWithNewline(journal);
+            while (sc.hasNextLine()) {
+                String line = sc.nextLine();
+                if (!sc.hasNextLine() && !isLastRecordComplete) {
+                    // a torn record may still parse, e.g. a delete of index 12 cut short to 1
+                    break;
+                }
+                List<String> record = Arrays.asList(line.split("\\|"));
                 // @formatter:off
-                switch (type) {
-                case "T":
-                    // create new todo
-                    existingTodosList.add(Optional.of(new Todo(message, isDone)));
+                switch (record.get(JOURNAL_TYPE_INDEX)) {
+                case JOURNAL_ADD:
+                    todos = todos.append(decodeTodo(record.subList(1, record.size())));
+                    break;
+                case JOURNAL_DELETE:
+                    todos = todos.removeAt(Integer.parseInt(record.get(JOURNAL_TODO_INDEX)));
                     break;
-                case "D":
-                    // create new deadline
-                    existingTodosList.add(Optional.of(
-                                new Deadline(message,
-                                            isDone,
-                                            line.get(TODO_EXTRA_MESSAGE_INDEX))));
+                case JOURNAL_DONE:
+                    int idxDone = Integer.parseInt(record.get(JOURNAL_TODO_INDEX));
+                    todos = todos.update(idxDone, todos.get(idxDone).map(Todo::markAsDone));
                     break;
-                case "E":
-                    // create new event
-                    existingTodosList.add(Optional.of(
-                                new Event(message,
-                                        isDone,
-                                        line.get(TODO_EXTRA_MESSAGE_INDEX))));
+                case JOURNAL_UPDATE:
+                    todos = todos.update(Integer.parseInt(record.get(JOURNAL_TODO_INDEX)),
+                            decodeTodo(record.subList(2, record.size())));
+                    break;
+                case JOURNAL_DELETE_ALL:
+                    todos = todos.removeAllAt(decodeIndexes(record.get(JOURNAL_TODO_INDEX)));
+                    break;
+                case JOURNAL_DONE_ALL:
+                    todos = todos.updateAllAt(decodeIndexes(record.get(JOURNAL_TODO_INDEX)),
+                            todo -> todo.map(Todo::markAsDone));
                     break;
                 default:
                     // should not reach default case
                     break;
                 }
             }
-            // close scanner
-            sc.close();
-            // return arraylist of todos
-            return existingTodosList;
         } catch (Exception e) {
-            // exception will be caught if no existing data file is found
-            // e.printStackTrace();
-            return new ArrayList<>();
+            // a torn or unreadable record ends the replay, everything before it is kept
+            reportError("replaying " + journal.getName(), e);
+        }
+        return todos;
+    }
+
+    /**
+     * Prints a storage operation that failed and counts it in the metrics, since the operations
+     * run in the background or on exit where there is no reply to show the error in
+     * @param operation what was being done, such as "saving the tasks"
+     * @param exception exception the operation failed with
+     */
+    private static void reportError(String operation, Exception exception) {
+        exception.printStackTrace();
+        Metrics.getInstance().recordStorageError(operation, exception);
+    }
+
+    /**
+     * Returns true if the file is empty or its last byte is a newline, so that its last record
+     * was written completely
+     * @param file file to check
+     * @return true if the last record of the file is complete
+     * @throws IOException when the file cannot be read
+     */
+    private static boolean endsWithNewline(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            long length = randomAccessFile.length();
+            if (length == 0) {
+                return true;
+            }
+            randomAccessFile.seek(length - 1);
+            return randomAccessFile.read() == '\n';
+        }
+    }
+
+    /**
+     * Encodes indexes of a bulk record
+     * @param sortedIndexes 0-based indexes in increasing order
+     * @return indexes separated by JOURNAL_INDEX_SEPARATOR
+     */
+    private static String encodeIndexes(int[] sortedIndexes) {
+        StringBuilder sb = new StringBuilder();
+        for (int index : sortedIndexes) {
+            if (sb.length() > 0) {
+                sb.append(JOURNAL_INDEX_SEPARATOR);
+            }
+            sb.append(index);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Decodes indexes of a bulk record written by encodeIndexes
+     * @param encodedIndexes indexes separated by JOURNAL_INDEX_SEPARATOR
+     * @return 0-based indexes in increasing order
+     */
+    private static int[] decodeIndexes(String encodedIndexes) {
+        return Arrays.stream(encodedIndexes.split(JOURNAL_INDEX_SEPARATOR)).mapToInt(Integer::parseInt).toArray();
+    }
+
+    /**
+     * Finishes a snapshot that was interrupted by a crash. A temporary snapshot is only renamed to
+     * complete once it has been written in full, so a temporary or saving snapshot left behind may
+     * be partially written and is discarded, leaving the previous snapshot and the journal to be
+     * replayed again. A complete snapshot already folds in the compacting journal, so that journal
+     * is dropped and the snapshot moved into place
+     * @param snapshotPath path of the snapshot, the text file when it is about to be migrated
+     */
+    private static void recoverInterruptedSnapshot(String snapshotPath) {
+        // noinspection ResultOfMethodCallIgnored
+        new File(snapshotPath + SAVING_SNAPSHOT_SUFFIX).delete();
+        // noinspection ResultOfMethodCallIgnored
+        new File(snapshotPath + TEMPORARY_SNAPSHOT_SUFFIX).delete();
+        File completeSnapshot = new File(snapshotPath + COMPLETE_SNAPSHOT_SUFFIX);
+        if (!completeSnapshot.exists()) {
+            return;
+        }
+        // noinspection ResultOfMethodCallIgnored
+        new File(snapshotPath + COMPACTING_JOURNAL_SUFFIX).delete();
+        moveIntoPlace(completeSnapshot, new File(snapshotPath));
+    }
+
+    /**
+     * Appends a record of a Todo added to the end of the list to the journal
+     * @param newTodo Todo that was added
+     * @param todosList List of todos after the Todo was added
+     */
+    public void journalAdd(Optional<? extends Todo> newTodo, List<Optional<? extends Todo>> todosList) {
+        appendJournalRecord(String.format("%s|%s", JOURNAL_ADD, encodeTodo(newTodo)), todosList);
+    }
+
+    /**
+     * Appends a record of a Todo removed from the list to the journal
+     * @param index 0-based index of the Todo that was removed
+     * @param todosList List of todos after the Todo was removed
+     */
+    public void journalDelete(int index, List<Optional<? extends Todo>> todosList) {
+        appendJournalRecord(String.format("%s|%d", JOURNAL_DELETE, index), todosList);
+    }
+
+    /**
+     * Appends a record of a Todo marked as done to the journal
+     * @param index 0-based index of the Todo that was marked as done
+     * @param todosList List of todos after the Todo was marked as done
+     */
+    public void journalDone(int index, List<Optional<? extends Todo>> todosList) {
+        appendJournalRecord(String.format("%s|%d", JOURNAL_DONE, index), todosList);
+    }
+
+    /**
+     * Appends a record of a Todo replaced by its updated version to the journal
+     * @param index 0-based index of the Todo that was updated
+     * @param updatedTodo Todo after the update
+     * @param todosList List of todos after the Todo was updated
+     */
+    public void journalUpdate(int index, Optional<? extends Todo> updatedTodo,
+            List<Optional<? extends Todo>> todosList) {
+        appendJournalRecord(String.format("%s|%d|%s", JOURNAL_UPDATE, index, encodeTodo(updatedTodo)),
+                todosList);
+    }
+
+    /**
+     * Appends a single record of Todos removed from the list by a bulk command to the journal, so
+     * that replaying it removes either all of them or none
+     * @param sortedIndexes 0-based indexes of the removed Todos in increasing order
+     * @param todosList List of todos after the Todos were removed
+     */
+    public void journalDeleteAll(int[] sortedIndexes, List<Optional<? extends Todo>> todosList) {
+        appendJournalRecord(String.format("%s|%s", JOURNAL_DELETE_ALL, encodeIndexes(sortedIndexes)), todosList);
+    }
+
+    /**
+     * Appends a single record of Todos marked as done by a bulk command to the journal
+     * @param sortedIndexes 0-based indexes of the Todos marked as done in increasing order
+     * @param todosList List of todos after the Todos were marked as done
+     */
+    public void journalDoneAll(int[] sortedIndexes, List<Optional<? extends Todo>> todosList) {
+        appendJournalRecord(String.format("%s|%s", JOURNAL_DONE_ALL, encodeIndexes(sortedIndexes)), todosList);
+    }
+
+    /**
+     * Appends a single line to the journal and flushes it, then hands the Todos to a background
+     * compaction once the journal has grown past the threshold
+     * @param record line to append, without the trailing newline
+     * @param todosList List of todos after the recorded mutation, used for compaction
+     */
+    private synchronized void appendJournalRecord(String record, List<Optional<? extends Todo>> todosList) {
+        if (!this.isJournalling) {
+            return;
+        }
+        StorageEvent journalEvent = new StorageEvent();
+        journalEvent.begin();
+        try {
+            if (this.journalStream == null) {
+                ensureDirectoryExists();
+                File journal = new File(this.snapshotPath + JOURNAL_SUFFIX);
+                this.journalBytes = journal.length();
+                this.journalStream = new FileOutputStream(journal, true);
+            }
+            // encoded once, so that the journal size is counted in the bytes actually written
+            byte[] line = String.format("%s\n", record).getBytes(StandardCharsets.UTF_8);
+            this.journalStream.write(line);
+            this.journalStream.flush();
+            this.journalBytes += line.length;
+            journalEvent.finish(StorageEvent.JOURNAL, todosList.size(), line.length);
+        } catch (IOException e) {
+            reportError("appending to the journal", e);
+            return;
+        }
+
+        if (this.journalBytes >= JOURNAL_COMPACTION_THRESHOLD_BYTES) {
+            startCompaction(todosList);
+        }
+    }
+
+    /**
+     * Rotates the journal and folds it into a snapshot of the Todos in the background, unless a
+     * compaction is still running, in which case appends keep going to the current journal until
+     * it is done
+     * @param todosList List of todos containing every mutation of the journal
+     * @return true if the compaction was started
+     */
+    private synchronized boolean startCompaction(List<Optional<? extends Todo>> todosList) {
+        // only one journal may be compacting at a time
+        if (new File(this.snapshotPath + COMPACTING_JOURNAL_SUFFIX).exists()) {
+            return false;
+        }
+        rotateJournal();
+        this.compactionExecutor.submit(() -> writeSnapshotFoldingJournal(todosList));
+        return true;
+    }
+
+    /**
+     * Closes the current journal and renames it so that appends continue in a new journal while
+     * the old one is folded into a snapshot
+     */
+    private synchronized void rotateJournal() {
+        try {
+            if (this.journalStream != null) {
+                this.journalStream.close();
+                this.journalStream = null;
+            }
+        } catch (IOException e) {
+            reportError("closing the journal", e);
+        }
+        File journal = new File(this.snapshotPath + JOURNAL_SUFFIX);
+        File compactingJournal = new File(this.snapshotPath + COMPACTING_JOURNAL_SUFFIX);
+        if (journal.exists() && compactingJournal.exists()) {
+            // a previous compaction failed, keep its records ahead of the current ones
+            try {
+                Files.write(compactingJournal.toPath(), Files.readAllBytes(journal.toPath()),
+                        StandardOpenOption.APPEND);
+                Files.delete(journal.toPath());
+            } catch (IOException e) {
+                reportError("merging the journal into the compacting journal", e);
+            }
+        } else if (journal.exists()) {
+            // noinspection ResultOfMethodCallIgnored
+            journal.renameTo(compactingJournal);
+        }
+        this.journalBytes = 0;
+    }
+
+    /**
+     * Writes a new snapshot of the Todos passed in and marks it complete, then drops the compacting
+     * journal it folds in and finally moves the snapshot into place. See recoverInterruptedSnapshot
+     * for how a crash at any step is recovered from
+     * @param todosList List of todos containing every mutation of the compacting journal
+     */
+    private void writeSnapshotFoldingJournal(List<Optional<? extends Todo>> todosList) {
+        File temporarySnapshot = new File(this.snapshotPath + TEMPORARY_SNAPSHOT_SUFFIX);
+        File completeSnapshot = new File(this.snapshotPath + COMPLETE_SNAPSHOT_SUFFIX);
+        if (!writeSnapshot(todosList, temporarySnapshot) || !moveIntoPlace(temporarySnapshot, completeSnapshot)) {
+            return;
+        }
+        // noinspection ResultOfMethodCallIgnored
+        new File(this.snapshotPath + COMPACTING_JOURNAL_SUFFIX).delete();
+        replaceSnapshot(completeSnapshot);
+    }
+
+    /**
+     * Moves the snapshot passed in over the current snapshot file
+     * @param newSnapshot complete snapshot file
+     * @return true if the snapshot was moved into place
+     */
+    private boolean replaceSnapshot(File newSnapshot) {
+        return moveIntoPlace(newSnapshot, new File(this.snapshotPath));
+    }
+
+    /**
+     * Atomically moves a completely written file over the target, so that the target always holds
+     * either the old or the new contents and never goes missing, then forces the directory so
+     * that the move survives a crash
+     * @param source file that has been written and forced to the disk
+     * @param target file to replace
+     * @return true if the file was moved into place
+     */
+    private static boolean moveIntoPlace(File source, File target) {
+        try {
+            try {
+                Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                // the best left on file systems without an atomic rename
+                Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            reportError("moving " + source.getName() + " into place", e);
+            return false;
+        }
+        Path directory = target.getAbsoluteFile().toPath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // directories cannot be opened on some platforms, where the rename is durable anyway
+        }
+        return true;
+    }
+
+    /**
+     * Creates the database directory if it does not exist yet
+     */
+    private void ensureDirectoryExists() {
+        File databaseDirectory = new File(this.directoryPath);
+        if (!databaseDirectory.exists()) {
+            // noinspection ResultOfMethodCallIgnored
+            databaseDirectory.mkdir();
         }
     }
 
     /**
-     * Saves all tasks from the todosList into the local database
+     * Saves all tasks from the todosList without waiting for the disk where it can. In journal
+     * mode the journal is rotated and folded into a snapshot in the background, or nothing is done
+     * while an earlier compaction is still running. Otherwise the snapshot is written right away,
+     * like saveTasksToLocalDatabase
+     *
+     * @param todosList List of todos containing every mutation recorded so far
+     * @return true if the tasks were saved or are being saved, false if the caller should retry
+     */
+    public boolean checkpoint(List<Optional<? extends Todo>> todosList) {
+        if (this.isJournalling) {
+            return startCompaction(todosList);
+        }
+        saveTasksToLocalDatabase(todosList);
+        return true;
+    }
+
+    /**
+     * Saves all tasks from the todosList into the local database. In journal mode the journal is
+     * folded into the saved snapshot, waiting for any compaction still running in the background
      *
      * @param todosList List of todos passed to be saved into local database
      */
     public void saveTasksToLocalDatabase(List<Optional<? extends Todo>> todosList) {
-        try {
-            // check if directory exists, if not, create it
-            // else, delete file's current contents
-            File databaseDirectory = new File(this.directoryPath);
-            File existingDatabase = new File(this.filePath);
-            if (databaseDirectory.exists()) {
-                // delete existing file if it exists in directory
-                if (existingDatabase.exists()) {
-                    // noinspection ResultOfMethodCallIgnored
-                    existingDatabase.delete();
-                }
-            } else {
-                // create directory if it doesn't exist
-                // noinspection ResultOfMethodCallIgnored
-                databaseDirectory.mkdir();
+        if (this.isJournalling) {
+            Future<?> save = this.compactionExecutor.submit(() -> {
+                rotateJournal();
+                writeSnapshotFoldingJournal(todosList);
+            });
+            try {
+                save.get();
+            } catch (InterruptedException | ExecutionException e) {
+                reportError("saving the tasks", e);
             }
+            return;
+        }
 
-            // and existingDatabase should be deleted before writing a new one
-            assert !existingDatabase.exists(): "Database file should be be deleted but exists";
-
-            // Init to write file in append mode
-            FileWriter writer = new FileWriter(this.filePath, true);
-
-            // loop through list and write to file
-            todosList.forEach(optTodo -> {
-                // lineToWrite will be written at the end
-                String lineToWrite;
-
-                // Check if Todo is an Event or Deadline
-                if (optTodo.map(todo -> todo instanceof Event).orElse(false)) {
-                    lineToWrite = optTodo.map(todo -> {
-                        Event event = (Event) todo;
-                        return String.format("E|%s|%s|%s", event.isTodoDone()
-                                        ? DATABASE_IS_DONE_TRUE
-                                        : DATABASE_IS_DONE_FALSE,
-                                event.getRawMessage(), event.getEventTime());
-                    }).orElse("");
-                } else if (optTodo.map(todo -> todo instanceof Deadline).orElse(false)) {
-                    lineToWrite = optTodo.map(todo -> {
-                        Deadline deadline = (Deadline) todo;
-                        return String.format("D|%s|%s|%s", deadline.isTodoDone()
-                                        ? DATABASE_IS_DONE_TRUE
-                                        : DATABASE_IS_DONE_FALSE,
-                                deadline.getRawMessage(), deadline.getDeadline());
-                    }).orElse("");
-                } else {
-                    lineToWrite = optTodo.map(todo -> String.format("T|%s|%s",
-                            todo.isTodoDone() ? DATABASE_IS_DONE_TRUE : DATABASE_IS_DONE_FALSE,
-                            todo.getRawMessage())).orElse("");
-                }
+        // the existing database is only replaced once the new one has been completely written
+        File savingSnapshot = new File(this.snapshotPath + SAVING_SNAPSHOT_SUFFIX);
+        if (writeSnapshot(todosList, savingSnapshot)) {
+            replaceSnapshot(savingSnapshot);
+        }
+    }
 
-                // Write todo to line in database
-                try {
-                    writer.write(String.format("%s\n", lineToWrite));
-                } catch (IOException e) {
-                    e.printStackTrace();
+    /**
+     * Writes all tasks from the todosList into the file passed in, replacing its contents
+     *
+     * @param todosList List of todos to be written
+     * @param file file to write the todos into
+     * @return true if every todo was written
+     */
+    private boolean writeSnapshot(List<Optional<? extends Todo>> todosList, File file) {
+        ensureDirectoryExists();
+        long start = System.nanoTime();
+        StorageEvent saveEvent = new StorageEvent();
+        saveEvent.begin();
+        if (this.format == StorageFormat.BINARY) {
+            try {
+                BinaryDatabaseCodec.write(todosList, file.toPath());
+            } catch (IOException e) {
+                reportError("writing " + file.getName(), e);
+                return false;
+            }
+        } else if (!writeTextSnapshot(todosList, file)) {
+            return false;
+        }
+        long savedBytes = file.length();
+        Metrics.getInstance().recordSave(System.nanoTime() - start, savedBytes);
+        saveEvent.finish(StorageEvent.SAVE, todosList.size(), savedBytes);
+        return true;
+    }
+
+    /**
+     * Writes all tasks from the todosList into the file passed in as pipe delimited text lines,
+     * replacing its contents, and forces it to the disk before returning
+     *
+     * @param todosList List of todos to be written
+     * @param file file to write the todos into
+     * @return true if every todo was written
+     */
+    private static boolean writeTextSnapshot(List<Optional<? extends Todo>> todosList, File file) {
+        // Init to write file, replacing whatever a previous attempt left behind
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Writer writer = new OutputStreamWriter(new BufferedOutputStream(Channels.newOutputStream(channel),
+                    WRITE_BUFFER_BYTES), StandardCharsets.UTF_8);
+            // lines are encoded into a chunk so that the writer is called once per chunk, not per field
+            StringBuilder chunk = new StringBuilder(WRITE_CHUNK_CHARS + WRITE_CHUNK_CHARS / 4);
+            for (Optional<? extends Todo> optTodo : todosList) {
+                appendTodo(chunk, optTodo);
+                chunk.append('\n');
+                if (chunk.length() >= WRITE_CHUNK_CHARS) {
+                    writer.append(chunk);
+                    chunk.setLength(0);
                 }
+            }
+            writer.append(chunk);
+            writer.flush();
+            channel.force(true);
+            return true;
+        } catch (IOException e) {
+            reportError("writing " + file.getName(), e);
+            return false;
+        }
+    }
 
-            });
+    /**
+     * Exports all tasks from the todosList into the text database file, so that a binary database
+     * can be read by hand or by an older version again
+     *
+     * @param todosList List of todos to be exported
+     * @return true if every todo was exported
+     */
+    public boolean exportToText(List<Optional<? extends Todo>> todosList) {
+        ensureDirectoryExists();
+        File temporaryExport = new File(this.filePath + TEMPORARY_SNAPSHOT_SUFFIX);
+        if (!writeTextSnapshot(todosList, temporaryExport)) {
+            return false;
+        }
+        return moveIntoPlace(temporaryExport, new File(this.filePath));
+    }
 
-            // close writer on complete
-            writer.close();
-        } catch (Exception e) {
-            e.printStackTrace();
+    /**
+     * Returns path of the binary database file beside the text file passed in
+     * @param textFilePath path of the text database file
+     * @return path of the binary database file
+     */
+    private static String toBinaryPath(String textFilePath) {
+        String stem = textFilePath.endsWith(TEXT_EXTENSION)
+                ? textFilePath.substring(0, textFilePath.length() - TEXT_EXTENSION.length())
+                : textFilePath;
+        return stem + BINARY_EXTENSION;
+    }
+
+    /**
+     * Encodes a Todo into a single line of the database file, without the trailing newline
+     *
+     * @param optTodo Todo to be encoded
+     * @return line representing the Todo in the database
+     */
+    private static String encodeTodo(Optional<? extends Todo> optTodo) {
+        StringBuilder sb = new StringBuilder();
+        appendTodo(sb, optTodo);
+        return sb.toString();
+    }
+
+    /**
+     * Appends a Todo as a single line of the database file, without the trailing newline. Fields
+     * are appended one by one rather than through String.format, as saving encodes every Todo
+     *
+     * @param sb builder to append the line to
+     * @param optTodo Todo to be encoded, an empty Optional is appended as an empty line
+     */
+    private static void appendTodo(StringBuilder sb, Optional<? extends Todo> optTodo) {
+        if (optTodo.isEmpty()) {
+            return;
+        }
+        Todo todo = optTodo.get();
+        // Check if Todo is an Event or Deadline
+        char type = todo instanceof Event ? 'E' : todo instanceof Deadline ? 'D' : 'T';
+        sb.append(type).append(DATABASE_FIELD_SEPARATOR)
+                .append(todo.isTodoDone() ? DATABASE_IS_DONE_TRUE : DATABASE_IS_DONE_FALSE)
+                .append(DATABASE_FIELD_SEPARATOR)
+                .append(todo.getRawMessage());
+        if (todo instanceof Event) {
+            sb.append(DATABASE_FIELD_SEPARATOR).append(((Event) todo).getEventTime());
+        } else if (todo instanceof Deadline) {
+            sb.append(DATABASE_FIELD_SEPARATOR).append(((Deadline) todo).getDeadline());
         }
     }
 
+    /**
+     * Decodes the fields of a single line of the database file into a Todo
+     *
+     * @param line fields of the line = [type, isDone, message, extraMessage (event / deadline)]
+     * @return Optional containing the Todo, empty if the type is not recognised
+     */
+    private static Optional<? extends Todo> decodeTodo(List<String> line) {
+        String type = line.get(TODO_TYPE_INDEX);
+        // isDone would be "1" if done, "0" if not done
+        boolean isDone = line.get(TODO_IS_DONE_INDEX).equals(DATABASE_IS_DONE_TRUE);
+        String message = line.get(TODO_MESSAGE_INDEX);
+
+        // @formatter:off
+        switch (type) {
+        case "T":
+            // create new todo
+            return Optional.of(new Todo(message, isDone));
+        case "D":
+            // create new deadline
+            return Optional.of(new Deadline(message, isDone, line.get(TODO_EXTRA_MESSAGE_INDEX)));
+        case "E":
+            // create new event
+            return Optional.of(new Event(message, isDone, line.get(TODO_EXTRA_MESSAGE_INDEX)));
+        default:
+            // should not reach default case
+            return Optional.empty();
+        }
+    }
 }
@@ -0,0 +1,11 @@
+package duke.models;
+
+/**
+ * Used to select the format Storage saves its snapshot of the Todos in
+ */
+public enum StorageFormat {
+    /** Human readable, pipe delimited lines such as T|1|message|dd/MM/yyyy HHmm */
+    TEXT,
+    /** Compact binary records with times stored as epoch minutes, see BinaryDatabaseCodec */
+    BINARY
+}
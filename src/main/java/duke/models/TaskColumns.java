@@ -0,0 +1,336 @@
+package duke.models;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compact, immutable store of Todos kept column by column instead of as one object per Todo. The
+ * type of each Todo is a byte, its done flag a bit and its date time an epoch minute, while the
+ * messages are kept as UTF-8 in a single pool where repeated messages are only stored once. A
+ * Todo is created from the columns whenever it is read, see toVector, so a million Todos take a
+ * few arrays rather than millions of objects.
+ */
+public final class TaskColumns {
+    /** Type of a plain Todo */
+    private static final byte TYPE_TODO = 0;
+    /** Type of a Deadline */
+    private static final byte TYPE_DEADLINE = 1;
+    /** Type of an Event */
+    private static final byte TYPE_EVENT = 2;
+    /** Type of an empty Optional in the list */
+    private static final byte TYPE_EMPTY = 3;
+
+    /** type of each Todo */
+    private final byte[] types;
+    /** done flag of each Todo */
+    private final BitSet doneFlags;
+    /** date time of each Deadline and Event in minutes since the epoch, 0 for other Todos */
+    private final long[] epochMinutes;
+    /** index into the pool of the message of each Todo */
+    private final int[] messageIds;
+    /** UTF-8 bytes of every distinct message, back to back */
+    private final byte[] messagePool;
+    /** messagePool[poolOffsets[id], poolOffsets[id + 1]) holds the message with that id */
+    private final int[] poolOffsets;
+
+    /**
+     * Creates a store from its columns, use of
+     * @param types type of each Todo
+     * @param doneFlags done flag of each Todo
+     * @param epochMinutes date time of each Todo
+     * @param messageIds message of each Todo
+     * @param messagePool bytes of every distinct message
+     * @param poolOffsets start of each distinct message, followed by the end of the pool
+     */
+    private TaskColumns(byte[] types, BitSet doneFlags, long[] epochMinutes, int[] messageIds, byte[] messagePool,
+            int[] poolOffsets) {
+        this.types = types;
+        this.doneFlags = doneFlags;
+        this.epochMinutes = epochMinutes;
+        this.messageIds = messageIds;
+        this.messagePool = messagePool;
+        this.poolOffsets = poolOffsets;
+    }
+
+    /**
+     * Packs the Todos passed in into columns
+     * @param todos List of Optional Todos to pack, in order
+     * @return TaskColumns holding the Todos
+     */
+    public static TaskColumns of(List<Optional<? extends Todo>> todos) {
+        Builder builder = new Builder(todos.size());
+        for (Optional<? extends Todo> optTodo : todos) {
+            builder.add(optTodo);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns number of Todos held
+     * @return number of Todos
+     */
+    public int size() {
+        return this.types.length;
+    }
+
+    /**
+     * Creates the Todo at the index from the columns. Each call creates a new Todo, which is fine
+     * as Todos are immutable
+     * @param index 0-based index of the Todo
+     * @return Optional containing the Todo, empty if an empty Optional was packed at the index
+     */
+    public Optional<? extends Todo> get(int index) {
+        byte type = this.types[index];
+        if (type == TYPE_EMPTY) {
+            return Optional.empty();
+        }
+        int messageId = this.messageIds[index];
+        int messageStart = this.poolOffsets[messageId];
+        String message = new String(this.messagePool, messageStart, this.poolOffsets[messageId + 1] - messageStart,
+                StandardCharsets.UTF_8);
+        boolean isDone = this.doneFlags.get(index);
+
+        // @formatter:off
+        switch (type) {
+        case TYPE_DEADLINE:
+            return Optional.of(new Deadline(message, isDone, this.epochMinutes[index]));
+        case TYPE_EVENT:
+            return Optional.of(new Event(message, isDone, this.epochMinutes[index]));
+        default:
+            return Optional.of(new Todo(message, isDone));
+        }
+    }
+
+    /**
+     * Returns a vector reading its elements from the columns, which creates each Todo whenever it
+     * is read instead of keeping it. Changing an element only turns the leaf of the vector holding
+     * it back into Todos, every other leaf keeps reading from the columns
+     * @return PersistentVector of the Todos held
+     */
+    public PersistentVector<Optional<? extends Todo>> toVector() {
+        return PersistentVector.view(size(), this::get);
+    }
+
+    /**
+     * Packs Todos into columns one at a time, so that a loader can decode a file straight into
+     * columns without ever holding a Todo per line. Messages are passed in as UTF-8 bytes and
+     * looked up by their bytes in an open addressing table of message ids, so that a message
+     * already in the pool is neither copied nor turned into a String
+     */
+    public static final class Builder {
+        /** Number of Todos the columns are first sized for when no size is expected */
+        private static final int DEFAULT_CAPACITY = 1024;
+
+        /** type of each Todo added so far */
+        private byte[] types;
+        /** done flag of each Todo added so far */
+        private final BitSet doneFlags = new BitSet();
+        /** date time of each Todo added so far */
+        private long[] epochMinutes;
+        /** message of each Todo added so far */
+        private int[] messageIds;
+        /** number of Todos added so far */
+        private int size;
+        /** UTF-8 bytes of every distinct message added so far */
+        private byte[] pool;
+        /** start of each distinct message, followed by the end of the pool */
+        private int[] poolOffsets = new int[16];
+        /** number of distinct messages in the pool */
+        private int messageCount;
+        /** 1 more than the id of a message in each slot, 0 for an empty slot, sized a power of 2 */
+        private int[] messageTable = new int[16];
+
+        /**
+         * Creates a builder for columns of unknown size
+         */
+        public Builder() {
+            this(DEFAULT_CAPACITY);
+        }
+
+        /**
+         * Creates a builder sized for the number of Todos passed in
+         * @param expectedSize number of Todos expected to be added
+         */
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            this.types = new byte[capacity];
+            this.epochMinutes = new long[capacity];
+            this.messageIds = new int[capacity];
+            this.pool = new byte[capacity * 16];
+        }
+
+        /**
+         * Adds a Todo, see TaskColumns.of
+         * @param optTodo Optional containing the Todo to add, an empty Optional is kept as one
+         */
+        public void add(Optional<? extends Todo> optTodo) {
+            if (optTodo.isEmpty()) {
+                add(TYPE_EMPTY, false, 0, this.pool, 0, 0);
+                return;
+            }
+            Todo todo = optTodo.get();
+            byte[] messageBytes = todo.getRawMessage().getBytes(StandardCharsets.UTF_8);
+            if (todo instanceof Event) {
+                addEvent(todo.isTodoDone(), ((Event) todo).getEventEpochMinute(), messageBytes, 0,
+                        messageBytes.length);
+            } else if (todo instanceof Deadline) {
+                addDeadline(todo.isTodoDone(), ((Deadline) todo).getDeadlineEpochMinute(), messageBytes, 0,
+                        messageBytes.length);
+            } else {
+                addTodo(todo.isTodoDone(), messageBytes, 0, messageBytes.length);
+            }
+        }
+
+        /**
+         * Adds a plain Todo
+         * @param isDone whether the Todo is done
+         * @param bytes bytes holding the UTF-8 message of the Todo
+         * @param start start of the message in bytes
+         * @param length number of bytes of the message
+         */
+        public void addTodo(boolean isDone, byte[] bytes, int start, int length) {
+            add(TYPE_TODO, isDone, 0, bytes, start, length);
+        }
+
+        /**
+         * Adds a Deadline
+         * @param isDone whether the Deadline is done
+         * @param epochMinute deadline in minutes since the epoch
+         * @param bytes bytes holding the UTF-8 message of the Deadline
+         * @param start start of the message in bytes
+         * @param length number of bytes of the message
+         */
+        public void addDeadline(boolean isDone, long epochMinute, byte[] bytes, int start, int length) {
+            add(TYPE_DEADLINE, isDone, epochMinute, bytes, start, length);
+        }
+
+        /**
+         * Adds an Event
+         * @param isDone whether the Event is done
+         * @param epochMinute time of the Event in minutes since the epoch
+         * @param bytes bytes holding the UTF-8 message of the Event
+         * @param start start of the message in bytes
+         * @param length number of bytes of the message
+         */
+        public void addEvent(boolean isDone, long epochMinute, byte[] bytes, int start, int length) {
+            add(TYPE_EVENT, isDone, epochMinute, bytes, start, length);
+        }
+
+        /**
+         * Adds a row to every column, growing them as needed
+         * @param type type of the Todo
+         * @param isDone whether the Todo is done
+         * @param epochMinute date time of the Todo, 0 for a plain Todo
+         * @param bytes bytes holding the UTF-8 message of the Todo
+         * @param start start of the message in bytes
+         * @param length number of bytes of the message
+         */
+        private void add(byte type, boolean isDone, long epochMinute, byte[] bytes, int start, int length) {
+            if (this.size == this.types.length) {
+                int capacity = this.size * 2;
+                this.types = Arrays.copyOf(this.types, capacity);
+                this.epochMinutes = Arrays.copyOf(this.epochMinutes, capacity);
+                this.messageIds = Arrays.copyOf(this.messageIds, capacity);
+            }
+            this.types[this.size] = type;
+            this.doneFlags.set(this.size, isDone);
+            this.epochMinutes[this.size] = epochMinute;
+            this.messageIds[this.size] = type == TYPE_EMPTY ? 0 : messageId(bytes, start, length);
+            this.size++;
+        }
+
+        /**
+         * Returns the id of the message in the pool, adding it at the end of the pool when it is
+         * not there yet
+         * @param bytes bytes holding the UTF-8 message
+         * @param start start of the message in bytes
+         * @param length number of bytes of the message
+         * @return id of the message
+         */
+        private int messageId(byte[] bytes, int start, int length) {
+            int hash = hash(bytes, start, length);
+            int mask = this.messageTable.length - 1;
+            int slot = hash & mask;
+            while (this.messageTable[slot] != 0) {
+                int id = this.messageTable[slot] - 1;
+                int messageStart = this.poolOffsets[id];
+                if (Arrays.equals(this.pool, messageStart, this.poolOffsets[id + 1], bytes, start, start + length)) {
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            // a new message goes at the end of the pool
+            int messageStart = this.poolOffsets[this.messageCount];
+            if (messageStart + length > this.pool.length) {
+                this.pool = Arrays.copyOf(this.pool, Math.max(this.pool.length * 2, messageStart + length));
+            }
+            System.arraycopy(bytes, start, this.pool, messageStart, length);
+            if (this.messageCount + 2 > this.poolOffsets.length) {
+                this.poolOffsets = Arrays.copyOf(this.poolOffsets, this.poolOffsets.length * 2);
+            }
+            int id = this.messageCount++;
+            this.poolOffsets[this.messageCount] = messageStart + length;
+            this.messageTable[slot] = id + 1;
+            if (this.messageCount * 2 > this.messageTable.length) {
+                growMessageTable();
+            }
+            return id;
+        }
+
+        /**
+         * Doubles the table of message ids, keeping it at most half full
+         */
+        private void growMessageTable() {
+            int[] table = new int[this.messageTable.length * 2];
+            int mask = table.length - 1;
+            for (int id = 0; id < this.messageCount; id++) {
+                int messageStart = this.poolOffsets[id];
+                int slot = hash(this.pool, messageStart, this.poolOffsets[id + 1] - messageStart) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = id + 1;
+            }
+            this.messageTable = table;
+        }
+
+        /**
+         * Hashes the bytes of a message, spreading the bits so that the low bits pick a slot
+         * @param bytes bytes holding the message
+         * @param start start of the message
+         * @param length number of bytes of the message
+         * @return hash of the message
+         */
+        private static int hash(byte[] bytes, int start, int length) {
+            int hash = 1;
+            for (int i = start; i < start + length; i++) {
+                hash = 31 * hash + bytes[i];
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        /**
+         * Creates the store holding every Todo added, trimming the columns to their size. Each
+         * column of the builder is dropped once trimmed, so that only one column is ever held
+         * twice, which leaves the builder unusable afterwards
+         * @return TaskColumns holding the Todos in the order added
+         */
+        public TaskColumns build() {
+            this.messageTable = null;
+            byte[] builtTypes = Arrays.copyOf(this.types, this.size);
+            this.types = null;
+            long[] builtEpochMinutes = Arrays.copyOf(this.epochMinutes, this.size);
+            this.epochMinutes = null;
+            int[] builtMessageIds = Arrays.copyOf(this.messageIds, this.size);
+            this.messageIds = null;
+            byte[] builtPool = Arrays.copyOf(this.pool, this.poolOffsets[this.messageCount]);
+            this.pool = null;
+            return new TaskColumns(builtTypes, this.doneFlags, builtEpochMinutes, builtMessageIds, builtPool,
+                    Arrays.copyOf(this.poolOffsets, this.messageCount + 1));
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package duke.models;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable index of every Deadline and Event sorted by its date time, used to answer range and
+ * "next due" queries with a binary search followed by a walk over the matches. Like KeywordIndex,
+ * every Todo is given an id in increasing order of position when it enters the index, and the
+ * id breaks ties between Todos due at the same minute so that they are returned in list order.
+ * Entries hold only the date time and the id of a Todo, and matches are read from the list by
+ * mapping their ids back to positions, so that building the index over compact columns does not
+ * decode and keep every Deadline and Event.
+ */
+public class TimeIndex {
+    /** Orders entries by time, then by id */
+    private static final Comparator<Entry> ENTRY_ORDER =
+            Comparator.comparingLong((Entry entry) -> entry.epochMinute).thenComparingLong(entry -> entry.id);
+
+    /** ids of the indexed Todos, in the same order as the Todos themselves */
+    private final PersistentVector<Long> ids;
+    /** entries of every dated Todo, sorted by ENTRY_ORDER */
+    private final PersistentVector<Entry> entries;
+    /** id given to the next Todo appended to the index */
+    private final long nextId;
+
+    /**
+     * Creates a TimeIndex from its parts, only used internally as every update returns a new
+     * TimeIndex
+     * @param ids ids of the indexed Todos in order
+     * @param entries sorted entries of the dated Todos
+     * @param nextId id given to the next Todo appended
+     */
+    private TimeIndex(PersistentVector<Long> ids, PersistentVector<Entry> entries, long nextId) {
+        this.ids = ids;
+        this.entries = entries;
+        this.nextId = nextId;
+    }
+
+    /**
+     * Builds an index over every Todo in the list passed in, giving each Todo its position as id
+     * @param todos List of Todos to index
+     * @return TimeIndex over the Todos
+     */
+    public static TimeIndex of(List<Optional<? extends Todo>> todos) {
+        List<Long> ids = new ArrayList<>(todos.size());
+        List<Entry> entries = new ArrayList<>();
+        long id = 0;
+        for (Optional<? extends Todo> todo : todos) {
+            ids.add(id);
+            Entry entry = Entry.of(id, todo);
+            if (entry != null) {
+                entries.add(entry);
+            }
+            id++;
+        }
+        entries.sort(ENTRY_ORDER);
+        return new TimeIndex(PersistentVector.of(ids), PersistentVector.of(entries), id);
+    }
+
+    /**
+     * Returns an index with the Todo passed in appended after every indexed Todo
+     * @param todo Todo appended to the list
+     * @return updated TimeIndex
+     */
+    public TimeIndex withAppended(Optional<? extends Todo> todo) {
+        long id = this.nextId;
+        return new TimeIndex(this.ids.append(id), insertEntry(this.entries, Entry.of(id, todo)), id + 1);
+    }
+
+    /**
+     * Returns an index without the Todo at the position passed in
+     * @param index 0-based position of the Todo removed from the list
+     * @param todo Todo removed from the list
+     * @return updated TimeIndex
+     */
+    public TimeIndex withRemoved(int index, Optional<? extends Todo> todo) {
+        long id = this.ids.get(index);
+        return new TimeIndex(this.ids.removeAt(index), removeEntry(this.entries, Entry.of(id, todo)), this.nextId);
+    }
+
+    /**
+     * Returns an index with the Todo at the position passed in replaced by another Todo
+     * @param index 0-based position of the replaced Todo
+     * @param oldTodo Todo that was replaced
+     * @param newTodo Todo replacing it
+     * @return updated TimeIndex
+     */
+    public TimeIndex withReplaced(int index, Optional<? extends Todo> oldTodo, Optional<? extends Todo> newTodo) {
+        long id = this.ids.get(index);
+        Entry oldEntry = Entry.of(id, oldTodo);
+        Entry newEntry = Entry.of(id, newTodo);
+        if (oldEntry != null && newEntry != null && oldEntry.epochMinute == newEntry.epochMinute) {
+            // the id is kept, so the entry still refers to the Todo at the same position
+            return this;
+        }
+        return new TimeIndex(this.ids, insertEntry(removeEntry(this.entries, oldEntry), newEntry), this.nextId);
+    }
+
+    /**
+     * Inserts an entry at its sorted position
+     * @param entries sorted entries
+     * @param entry entry to insert, null for a Todo without a date time
+     * @return updated entries
+     */
+    private static PersistentVector<Entry> insertEntry(PersistentVector<Entry> entries, Entry entry) {
+        return entry == null ? entries : entries.insert(entries.lowerBound(entry, ENTRY_ORDER), entry);
+    }
+
+    /**
+     * Removes an entry from its sorted position
+     * @param entries sorted entries
+     * @param entry entry to remove, null for a Todo without a date time
+     * @return updated entries
+     */
+    private static PersistentVector<Entry> removeEntry(PersistentVector<Entry> entries, Entry entry) {
+        return entry == null ? entries : entries.removeAt(entries.lowerBound(entry, ENTRY_ORDER));
+    }
+
+    /**
+     * Returns Todos with a date time in [from, to), ordered by date time
+     * @param from inclusive start of the range
+     * @param to exclusive end of the range
+     * @param todos List of Todos this index was built over
+     * @return list of Todos in the range
+     */
+    public List<Optional<? extends Todo>> findBetween(LocalDateTime from, LocalDateTime to,
+            List<Optional<? extends Todo>> todos) {
+        long toMinute = DateTimeCodec.toEpochMinute(to);
+        List<Optional<? extends Todo>> matchingTodos = new ArrayList<>();
+        for (int i = firstEntryFrom(from); i < this.entries.size(); i++) {
+            Entry entry = this.entries.get(i);
+            if (entry.epochMinute >= toMinute) {
+                break;
+            }
+            matchingTodos.add(todos.get(positionOf(entry)));
+        }
+        return matchingTodos;
+    }
+
+    /**
+     * Returns up to count Todos with a date time at or after the one passed in, ordered by date time
+     * @param from inclusive start of the search
+     * @param count maximum number of Todos to return
+     * @param todos List of Todos this index was built over
+     * @return list of upcoming Todos
+     */
+    public List<Optional<? extends Todo>> findNext(LocalDateTime from, int count,
+            List<Optional<? extends Todo>> todos) {
+        List<Optional<? extends Todo>> upcomingTodos = new ArrayList<>();
+        for (int i = firstEntryFrom(from); i < this.entries.size() && upcomingTodos.size() < count; i++) {
+            upcomingTodos.add(todos.get(positionOf(this.entries.get(i))));
+        }
+        return upcomingTodos;
+    }
+
+    /**
+     * Returns position in the list of the Todo an entry refers to
+     * @param entry entry of the Todo
+     * @return 0-based position of the Todo
+     */
+    private int positionOf(Entry entry) {
+        // ids are ordered the same way as the Todos, so the id is found by a binary search
+        return this.ids.lowerBound(entry.id, Comparator.naturalOrder());
+    }
+
+    /**
+     * Returns position of the first entry at or after the date time passed in
+     * @param from date time to search for
+     * @return position in the entries
+     */
+    private int firstEntryFrom(LocalDateTime from) {
+        return this.entries.lowerBound(new Entry(DateTimeCodec.toEpochMinute(from), Long.MIN_VALUE),
+                ENTRY_ORDER);
+    }
+
+    /**
+     * Position of a dated Todo in the index
+     */
+    private static class Entry {
+        /** date time of the Todo in minutes since the epoch */
+        private final long epochMinute;
+        /** id of the Todo, mapped back to its position when the Todo is read */
+        private final long id;
+
+        /**
+         * Creates an Entry from its parts
+         * @param epochMinute date time of the Todo in minutes since the epoch
+         * @param id id of the Todo
+         */
+        Entry(long epochMinute, long id) {
+            this.epochMinute = epochMinute;
+            this.id = id;
+        }
+
+        /**
+         * Creates the Entry of a Todo if it is a Deadline or an Event
+         * @param id id of the Todo
+         * @param todo Todo to create the Entry for
+         * @return Entry of the Todo or null if it has no date time
+         */
+        static Entry of(long id, Optional<? extends Todo> todo) {
+            return todo.map(TimeIndex::epochMinuteOf)
+                    .map(epochMinute -> new Entry(epochMinute, id))
+                    .orElse(null);
+        }
+    }
+
+    /**
+     * Returns date time of a Deadline or an Event in minutes since the epoch
+     * @param todo Todo to get the date time of
+     * @return epoch minute of the Todo or null if it is neither a Deadline nor an Event
+     */
+    private static Long epochMinuteOf(Todo todo) {
+        if (todo instanceof Deadline) {
+            return ((Deadline) todo).getDeadlineEpochMinute();
+        } else if (todo instanceof Event) {
+            return ((Event) todo).getEventEpochMinute();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,215 @@
+package duke.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import duke.exceptions.DukeBadRequestException;
+
+/**
+ * Reads the body of an HTTP request, which is a single JSON object whose values are strings,
+ * numbers, booleans or null. Nested objects and arrays are not needed by the API and are rejected
+ */
+class JsonRequestParser {
+    /** body being read */
+    private final String json;
+    /** index of the next character to read */
+    private int position;
+
+    /**
+     * Creates a parser over the body of a request
+     * @param json body of the request
+     */
+    private JsonRequestParser(String json) {
+        this.json = json;
+    }
+
+    /**
+     * Reads the fields of a JSON object
+     * @param json body of the request
+     * @return value of each field as text, numbers and booleans as written and null as null
+     * @throws DukeBadRequestException when the body is not a JSON object of plain values
+     */
+    static Map<String, String> parseObject(String json) throws DukeBadRequestException {
+        JsonRequestParser parser = new JsonRequestParser(json);
+        Map<String, String> fields = parser.readObject();
+        parser.skipWhitespace();
+        if (parser.position != json.length()) {
+            throw parser.error("Unexpected text after the JSON object");
+        }
+        return fields;
+    }
+
+    /**
+     * Reads an object starting at the current position
+     * @return value of each field of the object
+     * @throws DukeBadRequestException when the object is malformed
+     */
+    private Map<String, String> readObject() throws DukeBadRequestException {
+        Map<String, String> fields = new HashMap<>();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            this.position++;
+            return fields;
+        }
+        while (true) {
+            skipWhitespace();
+            String name = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            fields.put(name, readValue());
+            skipWhitespace();
+            char next = next();
+            if (next == '}') {
+                return fields;
+            } else if (next != ',') {
+                throw error("Expected , or } after a field");
+            }
+        }
+    }
+
+    /**
+     * Reads a plain value starting at the current position
+     * @return the value as text, null for null
+     * @throws DukeBadRequestException when the value is not a string, number, boolean or null
+     */
+    private String readValue() throws DukeBadRequestException {
+        char first = peek();
+        if (first == '"') {
+            return readString();
+        } else if (first == '{' || first == '[') {
+            throw error("Nested objects and arrays are not supported");
+        }
+        int start = this.position;
+        while (this.position < this.json.length() && ",}] \t\r\n".indexOf(this.json.charAt(this.position)) < 0) {
+            this.position++;
+        }
+        String literal = this.json.substring(start, this.position);
+        if (literal.equals("null")) {
+            return null;
+        } else if (literal.equals("true") || literal.equals("false") || literal.matches("-?\\d+(\\.\\d+)?")) {
+            return literal;
+        }
+        throw error("Unrecognised value '" + literal + "'");
+    }
+
+    /**
+     * Reads a quoted string starting at the current position, resolving its escapes
+     * @return the string without its quotes
+     * @throws DukeBadRequestException when the string is not terminated or has an invalid escape
+     */
+    private String readString() throws DukeBadRequestException {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return sb.toString();
+            } else if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char escaped = next();
+            // @formatter:off
+            switch (escaped) {
+            case '"':
+            case '\\':
+            case '/':
+                sb.append(escaped);
+                break;
+            case 'n':
+                sb.append('\n');
+                break;
+            case 'r':
+                sb.append('\r');
+                break;
+            case 't':
+                sb.append('\t');
+                break;
+            case 'b':
+                sb.append('\b');
+                break;
+            case 'f':
+                sb.append('\f');
+                break;
+            case 'u':
+                sb.append(readUnicodeEscape());
+                break;
+            default:
+                throw error("Invalid escape \\" + escaped);
+            }
+        }
+    }
+
+    /**
+     * Reads the 4 hex digits of a \\u escape
+     * @return character the escape stands for
+     * @throws DukeBadRequestException when the digits are missing or not hex
+     */
+    private char readUnicodeEscape() throws DukeBadRequestException {
+        if (this.position + 4 > this.json.length()) {
+            throw error("Incomplete \\u escape");
+        }
+        try {
+            char c = (char) Integer.parseInt(this.json.substring(this.position, this.position + 4), 16);
+            this.position += 4;
+            return c;
+        } catch (NumberFormatException e) {
+            throw error("Invalid \\u escape");
+        }
+    }
+
+    /**
+     * Reads the character passed in, failing if the next character is any other
+     * @param expected character expected next
+     * @throws DukeBadRequestException when the next character is not the one expected
+     */
+    private void expect(char expected) throws DukeBadRequestException {
+        if (next() != expected) {
+            throw error("Expected " + expected);
+        }
+    }
+
+    /**
+     * Returns the next character without reading it
+     * @return next character
+     * @throws DukeBadRequestException when the body ends early
+     */
+    private char peek() throws DukeBadRequestException {
+        if (this.position >= this.json.length()) {
+            throw error("Unexpected end of the JSON body");
+        }
+        return this.json.charAt(this.position);
+    }
+
+    /**
+     * Reads the next character
+     * @return next character
+     * @throws DukeBadRequestException when the body ends early
+     */
+    private char next() throws DukeBadRequestException {
+        char c = peek();
+        this.position++;
+        return c;
+    }
+
+    /**
+     * Skips whitespace up to the next token
+     */
+    private void skipWhitespace() {
+        while (this.position < this.json.length() && Character.isWhitespace(this.json.charAt(this.position))) {
+            this.position++;
+        }
+    }
+
+    /**
+     * Creates the exception of a malformed body, pointing at the current position
+     * @param message what is wrong with the body
+     * @return exception to throw
+     */
+    private DukeBadRequestException error(String message) {
+        return new DukeBadRequestException(String.format("%s at character %d of the request body",
+                message, this.position + 1));
+    }
+}
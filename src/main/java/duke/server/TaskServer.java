@@ -0,0 +1,414 @@
+package duke.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import duke.controllers.TaskList;
+import duke.controllers.Ui;
+import duke.exceptions.DukeBadRequestException;
+import duke.exceptions.DukeTaskIndexOutOfRangeException;
+import duke.models.Commands;
+import duke.models.Pair;
+import duke.views.TodosJsonView;
+
+/**
+ * HTTP server exposing the tasks as a JSON API, so that other local tools can add and query them
+ * without the window. Requests changing the tasks run the same commands typed into Duke through
+ * Ui, with each field of the request passed as a single arg so that it is never parsed again,
+ * while list and find read an immutable snapshot of the TaskList, so they never wait for or block
+ * the requests changing it. Requests carrying an Origin header, which browsers add to requests made by
+ * web pages, are refused so that a page visited cannot change the tasks, and bodies must be sent as
+ * application/json, which a page cannot send to another site without asking the server first
+ *
+ * <pre>
+ * GET    /tasks?page=N          page N of the tasks, the first page by default
+ * GET    /tasks?find=KEYWORDS   tasks matching any of the keywords
+ * POST   /tasks                 {"type": "todo|deadline|event", "description": ..., "by"/"at": ...}
+ * PATCH  /tasks/INDEX           {"description": ..., "time": ...}, either or both
+ * POST   /tasks/INDEX/done      marks the task as done
+ * DELETE /tasks/INDEX           deletes the task
+ * </pre>
+ */
+public class TaskServer {
+    /** Path every request of the API is under */
+    public static final String TASKS_PATH = "/tasks";
+    /** Path of a single task, optionally followed by /done */
+    private static final Pattern TASK_PATH = Pattern.compile("/tasks/(\\d+)(/done)?/?");
+    /** Largest request body read, larger bodies are rejected */
+    private static final int MAX_BODY_BYTES = 1 << 16;
+    /** Number of requests queued per thread of the pool before the server stops accepting more */
+    private static final int QUEUED_REQUESTS_PER_THREAD = 64;
+    /** Content type of every response */
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    /** Media type every request body must be sent as */
+    private static final String JSON_MEDIA_TYPE = "application/json";
+    /** Characters a field cannot hold, as the journal and the snapshot separate fields with | and tasks with lines */
+    private static final Pattern FORBIDDEN_FIELD_CHARACTERS = Pattern.compile("[\\p{Cntrl}|]");
+
+    /** Ui running every request that changes the tasks */
+    private final Ui ui;
+    /** number of tasks on each page of the list */
+    private final int pageSize;
+    /** JDK server accepting the requests */
+    private final HttpServer server;
+    /** executor running the requests */
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server bound to the address passed in, which only starts serving once started
+     * @param ui Ui running every request that changes the tasks
+     * @param pageSize number of tasks on each page of the list
+     * @param address address to bind to, port 0 picks a free port
+     * @param executor executor running the requests, see newExecutor
+     * @throws IOException when the address cannot be bound
+     */
+    public TaskServer(Ui ui, int pageSize, InetSocketAddress address, ExecutorService executor) throws IOException {
+        assert pageSize > 0 : "Page size of the list should be positive";
+        this.ui = ui;
+        this.pageSize = pageSize;
+        this.executor = executor;
+        this.server = HttpServer.create(address, 0);
+        this.server.createContext(TASKS_PATH, this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    /**
+     * Creates the executor running the requests: a virtual thread per request where the runtime
+     * supports them and they are preferred, otherwise a fixed pool of threads. When the queue of
+     * the pool is full, the thread accepting connections runs the request itself, which stops it
+     * accepting more until the pool catches up
+     * @param threadCount number of threads of the pool
+     * @param isVirtualThreadPreferred whether to use virtual threads when the runtime has them
+     * @return executor running the requests
+     */
+    public static ExecutorService newExecutor(int threadCount, boolean isVirtualThreadPreferred) {
+        if (isVirtualThreadPreferred) {
+            try {
+                // looked up reflectively as virtual threads need Java 21 while Duke builds for 11
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // fall back to the pool
+            }
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threadCount * QUEUED_REQUESTS_PER_THREAD), runnable -> {
+                    Thread thread = new Thread(runnable, "duke-http-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Starts serving requests
+     */
+    public void start() {
+        this.server.start();
+    }
+
+    /**
+     * Stops serving requests, waiting up to a second for the requests being served to finish
+     */
+    public void stop() {
+        this.server.stop(1);
+        this.executor.shutdown();
+    }
+
+    /**
+     * Returns the port the server is bound to, which is the free port picked when bound to port 0
+     * @return port of the server
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Serves a single request, replying with a JSON body
+     * @param exchange request and its response
+     * @throws IOException when the response cannot be sent
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        Pair<Integer, String> response;
+        try {
+            response = route(exchange);
+        } catch (DukeBadRequestException e) {
+            response = new Pair<>(HttpURLConnection.HTTP_BAD_REQUEST, TodosJsonView.errorToJson(e.getMessage()));
+        } catch (RuntimeException e) {
+            // program not supposed to end up here
+            e.printStackTrace();
+            response = new Pair<>(HttpURLConnection.HTTP_INTERNAL_ERROR,
+                    TodosJsonView.errorToJson("Error, unexpected exception while serving the request"));
+        }
+        byte[] body = response.getSecond().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(response.getFirst(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Picks what to do from the method and path of the request
+     * @param exchange request and its response
+     * @return Pair of the status code and the JSON body of the response
+     * @throws IOException when the body of the request cannot be read
+     * @throws DukeBadRequestException when the request is malformed
+     */
+    private Pair<Integer, String> route(HttpExchange exchange) throws IOException, DukeBadRequestException {
+        if (exchange.getRequestHeaders().containsKey("Origin")) {
+            return new Pair<>(HttpURLConnection.HTTP_FORBIDDEN,
+                    TodosJsonView.errorToJson("Requests made by web pages are not accepted"));
+        }
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals(TASKS_PATH) || path.equals(TASKS_PATH + "/")) {
+            // @formatter:off
+            switch (method) {
+            case "GET":
+                return listOrFind(parseQuery(exchange.getRequestURI().getRawQuery()));
+            case "POST":
+                return runAddCommand(readJsonObject(exchange));
+            default:
+                return methodNotAllowed(exchange, "GET, POST");
+            }
+        }
+
+        Matcher matcher = TASK_PATH.matcher(path);
+        if (!matcher.matches()) {
+            return new Pair<>(HttpURLConnection.HTTP_NOT_FOUND, TodosJsonView.errorToJson("No such path " + path));
+        }
+        String index = matcher.group(1);
+        if (matcher.group(2) != null) {
+            return method.equals("POST")
+                    ? runCommand(Commands.DONE, Collections.singletonList(index), HttpURLConnection.HTTP_OK)
+                    : methodNotAllowed(exchange, "POST");
+        }
+        // @formatter:off
+        switch (method) {
+        case "PATCH":
+            List<String> updateArgs = buildUpdateArgs(index, readJsonObject(exchange));
+            return runCommand(Commands.UPDATE, updateArgs, HttpURLConnection.HTTP_OK);
+        case "DELETE":
+            return runCommand(Commands.DELETE, Collections.singletonList(index), HttpURLConnection.HTTP_OK);
+        default:
+            return methodNotAllowed(exchange, "PATCH, DELETE");
+        }
+    }
+
+    /**
+     * Lists a page of the tasks, or the tasks matching the keywords of a find, from a single
+     * snapshot of the TaskList
+     * @param query parameters of the request, page or find
+     * @return Pair of the status code and the JSON body of the response
+     * @throws DukeBadRequestException when the page does not exist or find has no keywords
+     */
+    private Pair<Integer, String> listOrFind(Map<String, String> query) throws DukeBadRequestException {
+        TaskList snapshot = this.ui.snapshot();
+        String keywords = query.get("find");
+        if (keywords != null) {
+            if (keywords.isBlank()) {
+                throw new DukeBadRequestException("Please input the keywords to find after find=");
+            }
+            List<String> keywordList = Arrays.asList(keywords.trim().split("\\s+"));
+            return new Pair<>(HttpURLConnection.HTTP_OK, TodosJsonView.formatTodosAtToJson(snapshot.getTodos(),
+                    snapshot.findPositionsByKeyword(keywordList)));
+        }
+
+        String page = query.get("page");
+        try {
+            int pageIndex = snapshot.getPageIndex(
+                    page == null ? Collections.emptyList() : Collections.singletonList(page), this.pageSize);
+            return new Pair<>(HttpURLConnection.HTTP_OK,
+                    TodosJsonView.formatPageOfTodosToJson(snapshot.getTodos(), pageIndex, this.pageSize));
+        } catch (DukeTaskIndexOutOfRangeException e) {
+            throw new DukeBadRequestException(e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a command through Ui, which commits it against the latest TaskList and persists it
+     * @param command command to run
+     * @param commandArgs args of the command, each field of the request kept whole as one arg
+     * @param successStatus status code of the response when the command succeeds
+     * @return Pair of the status code and the JSON body of the response
+     */
+    private Pair<Integer, String> runCommand(Commands command, List<String> commandArgs, int successStatus) {
+        Pair<String, Optional<Exception>> commandReturn = this.ui.runCommand(command, commandArgs);
+        if (commandReturn.getSecond().isPresent()) {
+            return new Pair<>(HttpURLConnection.HTTP_BAD_REQUEST, TodosJsonView.errorToJson(commandReturn.getFirst()));
+        }
+        return new Pair<>(successStatus,
+                TodosJsonView.replyToJson(commandReturn.getFirst(), this.ui.snapshot().todosSize()));
+    }
+
+    /**
+     * Runs the todo, deadline or event command adding the task described by a request
+     * @param fields fields of the request body
+     * @return Pair of the status code and the JSON body of the response
+     * @throws DukeBadRequestException when the type of task is not recognised
+     */
+    private Pair<Integer, String> runAddCommand(Map<String, String> fields) throws DukeBadRequestException {
+        String type = fields.getOrDefault("type", "todo");
+        List<String> commandArgs = new ArrayList<>();
+        addIfPresent(commandArgs, null, fields.get("description"));
+        // @formatter:off
+        switch (type == null ? "" : type) {
+        case "todo":
+            return runCommand(Commands.TODO, commandArgs, HttpURLConnection.HTTP_CREATED);
+        case "deadline":
+            addIfPresent(commandArgs, "/by", fields.get("by"));
+            return runCommand(Commands.DEADLINE, commandArgs, HttpURLConnection.HTTP_CREATED);
+        case "event":
+            addIfPresent(commandArgs, "/at", fields.get("at"));
+            return runCommand(Commands.EVENT, commandArgs, HttpURLConnection.HTTP_CREATED);
+        default:
+            throw new DukeBadRequestException("The type of task should be todo, deadline or event");
+        }
+    }
+
+    /**
+     * Builds the args of the update command changing the description, the time or both of a task
+     * @param index 1-based index of the task
+     * @param fields fields of the request body
+     * @return args of the update command
+     * @throws DukeBadRequestException when neither the description nor the time is given
+     */
+    private static List<String> buildUpdateArgs(String index, Map<String, String> fields)
+            throws DukeBadRequestException {
+        String description = fields.get("description");
+        String time = fields.get("time");
+        if (description != null && time != null) {
+            return Arrays.asList(index, description, "/at", time);
+        } else if (description != null) {
+            return Arrays.asList(index, "-m", description);
+        } else if (time != null) {
+            return Arrays.asList(index, "-t", time);
+        }
+        throw new DukeBadRequestException("Please give the new description, the new time or both to update");
+    }
+
+    /**
+     * Adds a flag and its value to the args of a command when the value is present. Whitespace
+     * around the value is dropped and a blank value left out, as a command typed in would
+     * @param commandArgs args of the command being built
+     * @param flag flag preceding the value, such as /by, null if the value has none
+     * @param value value of the flag, null if absent
+     */
+    private static void addIfPresent(List<String> commandArgs, String flag, String value) {
+        if (value == null) {
+            return;
+        }
+        if (flag != null) {
+            commandArgs.add(flag);
+        }
+        if (!value.isBlank()) {
+            commandArgs.add(value.strip());
+        }
+    }
+
+    /**
+     * Replies to a method the path does not support
+     * @param exchange request and its response
+     * @param allowedMethods methods the path supports
+     * @return Pair of the status code and the JSON body of the response
+     */
+    private static Pair<Integer, String> methodNotAllowed(HttpExchange exchange, String allowedMethods) {
+        exchange.getResponseHeaders().set("Allow", allowedMethods);
+        return new Pair<>(HttpURLConnection.HTTP_BAD_METHOD,
+                TodosJsonView.errorToJson(exchange.getRequestMethod() + " is not supported here"));
+    }
+
+    /**
+     * Reads the fields of the JSON object sent as the body of a request. Fields holding a control
+     * character or | are rejected, since they would be written as is into the journal and the snapshot
+     * @param exchange request and its response
+     * @return value of each field of the body
+     * @throws IOException when the body cannot be read
+     * @throws DukeBadRequestException when the body is not sent as JSON, is malformed or has a field
+     *     holding a character that cannot be saved
+     */
+    private static Map<String, String> readJsonObject(HttpExchange exchange)
+            throws IOException, DukeBadRequestException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        // parameters such as charset=utf-8 may follow the media type
+        String mediaType = contentType == null ? "" : contentType.split(";", 2)[0].strip();
+        if (!mediaType.equalsIgnoreCase(JSON_MEDIA_TYPE)) {
+            throw new DukeBadRequestException("The request body should be sent as " + JSON_MEDIA_TYPE);
+        }
+        Map<String, String> fields = JsonRequestParser.parseObject(readBody(exchange));
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (field.getValue() != null && FORBIDDEN_FIELD_CHARACTERS.matcher(field.getValue()).find()) {
+                throw new DukeBadRequestException("The field " + field.getKey()
+                        + " should not contain line breaks, control characters or |");
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Reads the body of a request as UTF-8
+     * @param exchange request and its response
+     * @return body of the request
+     * @throws IOException when the body cannot be read
+     * @throws DukeBadRequestException when the body is larger than MAX_BODY_BYTES
+     */
+    private static String readBody(HttpExchange exchange) throws IOException, DukeBadRequestException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new DukeBadRequestException("The request body should be at most " + MAX_BODY_BYTES + " bytes");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Splits the query of a request into its decoded parameters
+     * @param rawQuery query as sent, null when there is none
+     * @return value of each parameter, the last one when a parameter is repeated
+     * @throws DukeBadRequestException when a parameter is not correctly percent encoded
+     */
+    private static Map<String, String> parseQuery(String rawQuery) throws DukeBadRequestException {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            String name = separator < 0 ? parameter : parameter.substring(0, separator);
+            String value = separator < 0 ? "" : parameter.substring(separator + 1);
+            try {
+                parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                        URLDecoder.decode(value, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new DukeBadRequestException("The query parameter " + parameter + " is not correctly encoded");
+            }
+        }
+        return parameters;
+    }
+}
@@ -11,6 +11,22 @@ public class Greeting {
         return "Hello from\n" + logo;
     }
 
+    /**
+     * Outputs the message shown while the tasks of a user are still being loaded
+     */
+    public static String loading() {
+        return "Loading your tasks... Commands you send now will run as soon as they are loaded.";
+    }
+
+    /**
+     * Outputs the message shown once the tasks of a user have been loaded
+     *
+     * @param taskCount number of tasks loaded
+     */
+    public static String loaded(int taskCount) {
+        return String.format("Your %d %s loaded.", taskCount, taskCount == 1 ? "task is" : "tasks are");
+    }
+
     /**
      * Outputs the standard bye greeting for a user
      */
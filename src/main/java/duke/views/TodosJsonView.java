@@ -0,0 +1,150 @@
+package duke.views;
+
+import java.util.List;
+import java.util.Optional;
+
+import duke.models.Deadline;
+import duke.models.Event;
+import duke.models.Todo;
+
+/**
+ * Renders Todos and replies as the JSON bodies returned by the HTTP API. Dates are written in the
+ * same DD/MM/YYYY HHMM format the commands take, so a task read from the API can be sent back
+ */
+public class TodosJsonView {
+    /**
+     * Explicit definition of the default constructor to create a new Todos JSON renderer
+     */
+    public TodosJsonView() {}
+
+    /**
+     * Renders a single page of the Todos along with the page it is and the number of pages
+     * @param todosList List of every Optional Todo
+     * @param pageIndex 0-based index of the page to render
+     * @param pageSize number of Todos on each page
+     * @return JSON object containing the page and its Todos
+     */
+    public static String formatPageOfTodosToJson(List<Optional<? extends Todo>> todosList, int pageIndex,
+            int pageSize) {
+        int from = pageIndex * pageSize;
+        int to = Math.min(todosList.size(), from + pageSize);
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"page\":").append(pageIndex + 1)
+                .append(",\"pageCount\":").append(TodosView.getPageCount(todosList.size(), pageSize))
+                .append(",\"taskCount\":").append(todosList.size())
+                .append(",\"tasks\":[");
+        for (int idx = from; idx < to; idx++) {
+            if (idx > from) {
+                sb.append(',');
+            }
+            appendTodo(sb, idx, todosList.get(idx));
+        }
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * Renders the Todos at the positions passed in, such as the ones matching a find
+     * @param todosList List of every Optional Todo
+     * @param positions 0-based positions of the Todos to render
+     * @return JSON object containing the Todos
+     */
+    public static String formatTodosAtToJson(List<Optional<? extends Todo>> todosList, int[] positions) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"taskCount\":").append(positions.length).append(",\"tasks\":[");
+        for (int i = 0; i < positions.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            appendTodo(sb, positions[i], todosList.get(positions[i]));
+        }
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * Renders the reply to a command that changed the Todos
+     * @param reply reply shown to the user
+     * @param listSize number of Todos once the command has run
+     * @return JSON object containing the reply
+     */
+    public static String replyToJson(String reply, int listSize) {
+        StringBuilder sb = new StringBuilder("{\"reply\":");
+        appendString(sb, reply);
+        return sb.append(",\"taskCount\":").append(listSize).append('}').toString();
+    }
+
+    /**
+     * Renders the message of a request that failed
+     * @param message why the request failed
+     * @return JSON object containing the message
+     */
+    public static String errorToJson(String message) {
+        StringBuilder sb = new StringBuilder("{\"error\":");
+        appendString(sb, message);
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Appends a Todo as a JSON object, with its 1-based index as used by commands
+     * @param sb builder to append to
+     * @param position 0-based position of the Todo
+     * @param todoToRender Optional Todo to be rendered
+     */
+    private static void appendTodo(StringBuilder sb, int position, Optional<? extends Todo> todoToRender) {
+        sb.append("{\"index\":").append(position + 1);
+        if (todoToRender.isEmpty()) {
+            sb.append('}');
+            return;
+        }
+        Todo todo = todoToRender.get();
+        sb.append(",\"type\":");
+        if (todo instanceof Deadline) {
+            sb.append("\"deadline\",\"by\":");
+            appendString(sb, ((Deadline) todo).getDeadline());
+        } else if (todo instanceof Event) {
+            sb.append("\"event\",\"at\":");
+            appendString(sb, ((Event) todo).getEventTime());
+        } else {
+            sb.append("\"todo\"");
+        }
+        sb.append(",\"description\":");
+        appendString(sb, todo.getRawMessage());
+        sb.append(",\"done\":").append(todo.isTodoDone()).append('}');
+    }
+
+    /**
+     * Appends a String as a quoted JSON string, escaping quotes, backslashes and control characters
+     * @param sb builder to append to
+     * @param value String to append
+     */
+    private static void appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            // @formatter:off
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < ' ') {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
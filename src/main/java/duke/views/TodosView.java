@@ -1,5 +1,7 @@
 package duke.views;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -8,6 +10,17 @@ import java.util.stream.IntStream;
 import duke.models.Todo;
 
 public class TodosView {
+    /** Number of Todos shown on each page of the list command unless configured otherwise */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    /** Largest number of Todos listed in the reply to a bulk done or delete command */
+    private static final int MAX_BULK_REPLY_LINES = 10;
+    /** Header of the list command */
+    private static final String LIST_HEADER = "Here are the tasks in your list";
+    /** Largest capacity kept by a reused builder, so that one huge page does not pin its memory */
+    private static final int MAX_RETAINED_BUILDER_CAPACITY = 1 << 16;
+    /** Builder reused by every page rendered on the same thread */
+    private static final ThreadLocal<StringBuilder> PAGE_BUILDER = ThreadLocal.withInitial(StringBuilder::new);
+
     /**
      * Explicit definition of the default constructor to create a new Todos View renderer
      */
@@ -37,6 +50,24 @@ public class TodosView {
                         .collect(Collectors.joining("\n")));
     }
 
+    /**
+     * Takes in Deadlines and Events found by a date query and returns a rendered view of them in
+     * the order of their date time
+     *
+     * @param scheduledTodosList List of Optional Todos ordered by date time
+     * @return String containing tasks scheduled in the period asked for
+     */
+    public static String formatScheduledTodosToString(List<Optional<? extends Todo>> scheduledTodosList) {
+        if (scheduledTodosList.isEmpty()) {
+            return "There are no tasks scheduled in that period.";
+        }
+        return String.format("Here are the scheduled tasks in your list:\n%s",
+                IntStream.range(0, scheduledTodosList.size())
+                        .mapToObj(idx -> String.format("%d.%s", idx + 1,
+                                renderTodoLine(scheduledTodosList.get(idx))))
+                        .collect(Collectors.joining("\n")));
+    }
+
     /**
      * Turns the todosList into a stream of messages from Todos and output them with a new line in
      * between each Todo
@@ -44,10 +75,78 @@ public class TodosView {
      * @return String containing rendered view of listed Todos
      */
     public static String formatListOfTodosToString(List<Optional<? extends Todo>> todosList) {
-        return String.format("Here are the tasks in your list:\n%s",
-                IntStream.range(0, todosList.size()).mapToObj(
-                    idx -> String.format("%d.%s", idx + 1, renderTodoLine(todosList.get(idx))))
-                        .collect(Collectors.joining("\n")));
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeListOfTodos(todosList, sb);
+        } catch (IOException e) {
+            // a StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Renders a single page of the todosList, numbering each Todo by its position in the whole
+     * list. Only the Todos on the page are rendered, into a builder reused across calls
+     * @param todosList List of optional todos passed in from TodosController
+     * @param pageIndex 0-based index of the page, must be less than the page count
+     * @param pageSize number of Todos on each page
+     * @return String containing rendered view of the Todos on the page
+     */
+    public static String formatPageOfTodosToString(List<Optional<? extends Todo>> todosList, int pageIndex,
+            int pageSize) {
+        int pageCount = getPageCount(todosList.size(), pageSize);
+        int from = pageIndex * pageSize;
+        int to = Math.min(todosList.size(), from + pageSize);
+
+        StringBuilder sb = PAGE_BUILDER.get();
+        sb.setLength(0);
+        sb.append(LIST_HEADER);
+        // lists fitting on a single page are rendered the same way they always were
+        if (pageCount > 1) {
+            sb.append(" (page ").append(pageIndex + 1).append(" of ").append(pageCount).append(')');
+        }
+        sb.append(":\n");
+        for (int idx = from; idx < to; idx++) {
+            if (idx > from) {
+                sb.append('\n');
+            }
+            sb.append(idx + 1).append('.').append(renderTodoLine(todosList.get(idx)));
+        }
+
+        String page = sb.toString();
+        if (sb.capacity() > MAX_RETAINED_BUILDER_CAPACITY) {
+            PAGE_BUILDER.remove();
+        }
+        return page;
+    }
+
+    /**
+     * Returns number of pages needed to list every Todo, an empty list still has a single page
+     * @param todosCount number of Todos in the list
+     * @param pageSize number of Todos on each page
+     * @return number of pages
+     */
+    public static int getPageCount(int todosCount, int pageSize) {
+        return Math.max(1, (todosCount + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Writes the rendered view of every Todo in the todosList to the Appendable passed in one line
+     * at a time, so that the whole list never has to be held in a single String
+     * @param todosList List of optional todos passed in from TodosController
+     * @param out Appendable the rendered view is written to
+     * @throws IOException when the Appendable cannot be written to
+     */
+    public static void writeListOfTodos(List<Optional<? extends Todo>> todosList, Appendable out)
+            throws IOException {
+        out.append(LIST_HEADER).append(":\n");
+        for (int idx = 0; idx < todosList.size(); idx++) {
+            if (idx > 0) {
+                out.append('\n');
+            }
+            out.append(Integer.toString(idx + 1)).append('.').append(renderTodoLine(todosList.get(idx)));
+        }
     }
 
     /**
@@ -90,4 +189,68 @@ public class TodosView {
     public static String markTodoAsDoneReply(Optional<? extends Todo> newTodo) {
         return String.format("Nice! I've marked this task as done:\n%s", renderTodoLine(newTodo));
     }
+
+    /**
+     * Returns "Got it! I've imported N commands", followed by the number of tasks in the list
+     * @param commandCount number of commands applied by the import
+     * @param listSize Integer list size taken to return number of tasks user currently has
+     * @return String containing reply to importing a file of commands
+     */
+    public static String importReply(int commandCount, int listSize) {
+        return String.format("Got it! I've imported %d commands.\nNow you have %d tasks in the list.",
+                commandCount, listSize);
+    }
+
+    /**
+     * Returns "Nice! I've marked these N tasks as done:", or "this task" when only one was picked,
+     * followed by the first few of the Todos
+     * @param doneTodos Todos marked as done by a single bulk command
+     * @return String containing reply to marking several todos as done
+     */
+    public static String markTodosAsDoneReply(List<Optional<? extends Todo>> doneTodos) {
+        return String.format("Nice! I've marked %s as done:\n%s",
+                describeBulkTodos(doneTodos), renderBulkTodoLines(doneTodos));
+    }
+
+    /**
+     * Returns "Noted. I've removed these N tasks:", or "this task" when only one was picked,
+     * followed by the first few of the Todos
+     * @param deletedTodos Todos removed by a single bulk command
+     * @param listSize Integer list size taken to return number of tasks user currently has
+     * @return String containing reply to deleting several todos
+     */
+    public static String deleteTodosReply(List<Optional<? extends Todo>> deletedTodos, int listSize) {
+        return String.format("Noted. I've removed %s:\n%s\nNow you have %d tasks in the list.",
+                describeBulkTodos(deletedTodos), renderBulkTodoLines(deletedTodos), listSize);
+    }
+
+    /**
+     * Describes the Todos affected by a bulk command as "this task" or "these N tasks"
+     * @param todos Todos affected by a bulk command
+     * @return phrase naming the Todos in the reply
+     */
+    private static String describeBulkTodos(List<Optional<? extends Todo>> todos) {
+        return todos.size() == 1 ? "this task" : String.format("these %d tasks", todos.size());
+    }
+
+    /**
+     * Renders at most MAX_BULK_REPLY_LINES of the Todos passed in, one per line, followed by a
+     * count of the Todos left out
+     * @param todos Todos affected by a bulk command
+     * @return lines showing the Todos
+     */
+    private static String renderBulkTodoLines(List<Optional<? extends Todo>> todos) {
+        StringBuilder sb = new StringBuilder();
+        int shownCount = Math.min(todos.size(), MAX_BULK_REPLY_LINES);
+        for (int idx = 0; idx < shownCount; idx++) {
+            if (idx > 0) {
+                sb.append('\n');
+            }
+            sb.append(renderTodoLine(todos.get(idx)));
+        }
+        if (todos.size() > shownCount) {
+            sb.append("\n...and ").append(todos.size() - shownCount).append(" more");
+        }
+        return sb.toString();
+    }
 }
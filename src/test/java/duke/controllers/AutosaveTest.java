@@ -0,0 +1,74 @@
+package duke.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class AutosaveTest {
+    private static final long QUIET_MILLIS = 100;
+    private static final long MAX_DELAY_MILLIS = 5000;
+
+    private final AtomicInteger backgroundSaves = new AtomicInteger();
+    private final AtomicInteger finalSaves = new AtomicInteger();
+
+    @Test
+    void burstOfChangesIsSavedOnce() throws Exception {
+        Autosave autosave = newAutosave();
+        for (int i = 0; i < 50; i++) {
+            autosave.markDirty();
+        }
+        Thread.sleep(5 * QUIET_MILLIS);
+        assertEquals(1, backgroundSaves.get());
+
+        // nothing changed since, so closing has nothing left to save
+        autosave.close();
+        assertEquals(0, finalSaves.get());
+    }
+
+    @Test
+    void closeSavesChangesStillWaitingForQuiet() {
+        Autosave autosave = newAutosave();
+        autosave.markDirty();
+        autosave.close();
+        assertEquals(0, backgroundSaves.get());
+        assertEquals(1, finalSaves.get());
+
+        // changes after closing are left to whoever closed it
+        autosave.markDirty();
+        autosave.close();
+        assertEquals(1, finalSaves.get());
+    }
+
+    @Test
+    void closeSavesChangesRefusedByBackgroundSaveWhileClosing() throws Exception {
+        CountDownLatch isSaving = new CountDownLatch(1);
+        CountDownLatch isClosing = new CountDownLatch(1);
+        Autosave autosave = new Autosave(() -> {
+            isSaving.countDown();
+            try {
+                isClosing.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // an earlier save is still being written
+            return false;
+        }, finalSaves::incrementAndGet, QUIET_MILLIS, MAX_DELAY_MILLIS);
+        autosave.markDirty();
+        isSaving.await();
+
+        Thread closer = new Thread(autosave::close);
+        closer.start();
+        Thread.sleep(QUIET_MILLIS);
+        isClosing.countDown();
+        closer.join();
+        assertEquals(1, finalSaves.get());
+    }
+
+    private Autosave newAutosave() {
+        return new Autosave(() -> backgroundSaves.incrementAndGet() > 0, finalSaves::incrementAndGet,
+                QUIET_MILLIS, MAX_DELAY_MILLIS);
+    }
+}
@@ -1,7 +1,9 @@
 package duke.controllers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -11,12 +13,12 @@ import org.junit.jupiter.api.Test;
 
 import duke.exceptions.DukeBlankDetailsException;
 import duke.exceptions.DukeBlankTaskException;
-import duke.exceptions.DukeCommandNotFoundException;
 import duke.exceptions.DukeDateTimeParseException;
 import duke.models.Deadline;
 import duke.models.Event;
 import duke.models.Parser;
 import duke.models.Todo;
+import duke.views.TodosView;
 
 public class TaskListTest {
     private final TaskList taskList = new TaskList(new ArrayList<>());
@@ -28,16 +30,10 @@ public class TaskListTest {
         // initialise parser
         Parser parser = new Parser(Arrays.asList(command.split(" ")));
         // get command args from parser
-        List<String> commandArgs = null;
-        try {
-            commandArgs = parser.getCommandArgs();
-        } catch (DukeCommandNotFoundException e) {
-            e.printStackTrace();
-        }
+        List<String> commandArgs = parser.getCommandArgs();
         // pass commandArgs into TasksList to create todo
         List<Optional<? extends Todo>> todosList = null;
         try {
-            assert commandArgs != null;
             todosList = taskList.addTodo(commandArgs).getFirst().getTodos();
         } catch (DukeBlankTaskException e) {
             e.printStackTrace();
@@ -56,16 +52,10 @@ public class TaskListTest {
         // initialise parser
         Parser parser = new Parser(Arrays.asList(command.split(" ")));
         // get command args from parser
-        List<String> commandArgs = null;
-        try {
-            commandArgs = parser.getCommandArgs();
-        } catch (DukeCommandNotFoundException e) {
-            e.printStackTrace();
-        }
+        List<String> commandArgs = parser.getCommandArgs();
         // pass commandArgs into TasksList to create todo
         List<Optional<? extends Todo>> todosList = null;
         try {
-            assert commandArgs != null;
             try {
                 todosList = taskList.addDeadline(commandArgs).getFirst().getTodos();
             } catch (DukeBlankDetailsException | DukeDateTimeParseException e) {
@@ -91,16 +81,10 @@ public class TaskListTest {
         // initialise parser
         Parser parser = new Parser(Arrays.asList(command.split(" ")));
         // get command args from parser
-        List<String> commandArgs = null;
-        try {
-            commandArgs = parser.getCommandArgs();
-        } catch (DukeCommandNotFoundException e) {
-            e.printStackTrace();
-        }
+        List<String> commandArgs = parser.getCommandArgs();
         // pass commandArgs into TasksList to create todo
         List<Optional<? extends Todo>> todosList = null;
         try {
-            assert commandArgs != null;
             try {
                 todosList = taskList.addEvent(commandArgs).getFirst().getTodos();
             } catch (DukeBlankDetailsException | DukeDateTimeParseException e) {
@@ -118,4 +102,120 @@ public class TaskListTest {
         assertEquals("say hello world", rawMessage);
         assertEquals("21/12/2021 1300", dateTimeString);
     }
+
+    @Test
+    void findByKeywordAfterUpdates() {
+        List<Optional<? extends Todo>> matchingTodos = null;
+        try {
+            // add three todos, then build the keyword index with a find
+            TaskList tasks = taskList.addTodo(Arrays.asList("read", "book")).getFirst()
+                    .addTodo(Arrays.asList("return", "book")).getFirst()
+                    .addTodo(Arrays.asList("buy", "milk")).getFirst();
+            tasks.findByKeyword(Arrays.asList("book"));
+            // mutate the list after the index was built
+            tasks = tasks.deleteTodo(Arrays.asList("1")).getFirst()
+                    .updateTodo(Arrays.asList("2", "-m", "buy", "book")).getFirst()
+                    .markAsDone(Arrays.asList("1")).getFirst();
+            matchingTodos = tasks.findByKeyword(Arrays.asList("book", "nothing"));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        // both remaining todos mention a book, in list order
+        assert matchingTodos != null;
+        assertEquals(2, matchingTodos.size());
+        assertEquals("return book", matchingTodos.get(0).map(Todo::getRawMessage).orElse(""));
+        assertEquals("buy book", matchingTodos.get(1).map(Todo::getRawMessage).orElse(""));
+    }
+
+    @Test
+    void findByDateTime() {
+        List<Optional<? extends Todo>> dueTodos = null;
+        List<Optional<? extends Todo>> nextTodos = null;
+        List<Optional<? extends Todo>> changedTodos = null;
+        try {
+            // add dated tasks out of order along with an undated todo
+            TaskList tasks = taskList.addDeadline(Arrays.asList("late", "/by", "21/12/2020", "2359")).getFirst()
+                    .addTodo(Arrays.asList("undated")).getFirst()
+                    .addEvent(Arrays.asList("early", "/at", "21/12/2020", "0800")).getFirst()
+                    .addEvent(Arrays.asList("tomorrow", "/at", "22/12/2020", "0800")).getFirst();
+            dueTodos = tasks.findDueOn(Arrays.asList("21/12/2020"));
+            nextTodos = tasks.findNext(Arrays.asList("2"), LocalDateTime.of(2020, 12, 21, 12, 0));
+            // the built index reads the Todos from the list, so it sees them move and change
+            tasks = tasks.deleteTodo(Arrays.asList("2")).getFirst().markAsDone(Arrays.asList("2")).getFirst();
+            changedTodos = tasks.findDueOn(Arrays.asList("21/12/2020"));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        // tasks on the day are ordered by time, next skips tasks before the time searched from
+        assert dueTodos != null && nextTodos != null;
+        assertEquals(2, dueTodos.size());
+        assertEquals("early", dueTodos.get(0).map(Todo::getRawMessage).orElse(""));
+        assertEquals("late", dueTodos.get(1).map(Todo::getRawMessage).orElse(""));
+        assertEquals(2, nextTodos.size());
+        assertEquals("late", nextTodos.get(0).map(Todo::getRawMessage).orElse(""));
+        assertEquals("tomorrow", nextTodos.get(1).map(Todo::getRawMessage).orElse(""));
+        assert changedTodos != null;
+        assertEquals("early", changedTodos.get(0).map(Todo::getRawMessage).orElse(""));
+        assertTrue(changedTodos.get(0).map(Todo::isTodoDone).orElse(false));
+        assertEquals("late", changedTodos.get(1).map(Todo::getRawMessage).orElse(""));
+    }
+
+    @Test
+    void listInPages() {
+        String secondPage = null;
+        try {
+            // five todos listed two at a time
+            TaskList tasks = taskList;
+            for (String message : Arrays.asList("a", "b", "c", "d", "e")) {
+                tasks = tasks.addTodo(Arrays.asList(message)).getFirst();
+            }
+            int pageIndex = tasks.getPageIndex(Arrays.asList("2"), 2);
+            secondPage = TodosView.formatPageOfTodosToString(tasks.getTodos(), pageIndex, 2);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        // todos keep their position in the whole list as their number
+        assertEquals("Here are the tasks in your list (page 2 of 3):\n3.[T][\u2718] c\n4.[T][\u2718] d", secondPage);
+    }
+
+    @Test
+    void bulkDoneAndDelete() {
+        List<Optional<? extends Todo>> remainingTodos = null;
+        try {
+            // six todos, three of them about a book
+            TaskList tasks = taskList;
+            for (String message : Arrays.asList("read book", "a", "return book", "b", "c", "sell book")) {
+                tasks = tasks.addTodo(Arrays.asList(message.split(" "))).getFirst();
+            }
+            tasks = tasks.markAllAsDone(tasks.selectTodos(Arrays.asList("1-2,", "4"))).getFirst();
+            tasks = tasks.deleteAll(tasks.selectTodos(Arrays.asList("all", "matching", "book"))).getFirst();
+            remainingTodos = tasks.getTodos();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        // done todos stay done, every todo about a book is gone
+        assert remainingTodos != null;
+        assertEquals(3, remainingTodos.size());
+        assertEquals("1.[T][\u2713] a\n2.[T][\u2713] b\n3.[T][\u2718] c",
+                TodosView.formatPageOfTodosToString(remainingTodos, 0, 50).replaceAll("^.*\n", ""));
+    }
+
+    @Test
+    void buildFromImportedCommands() {
+        TaskList imported = null;
+        try {
+            TaskList.Builder builder = new TaskList.Builder(taskList.addTodo(Arrays.asList("existing")).getFirst());
+            for (String line : Arrays.asList("todo a", "deadline b /by 21/12/2021 1300", "todo c", "done 1-2",
+                    "delete 4", "update 3 -m d")) {
+                builder.apply(new Parser(line));
+            }
+            imported = builder.build();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        // commands see the changes of the commands before them
+        assert imported != null;
+        assertEquals("1.[T][\u2713] existing\n2.[T][\u2713] a\n3.[D][\u2718] d (by: Tue 21 Dec 2021 13:00 hrs)",
+                TodosView.formatPageOfTodosToString(imported.getTodos(), 0, 50).replaceAll("^.*\n", ""));
+    }
 }
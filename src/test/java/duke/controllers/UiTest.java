@@ -0,0 +1,142 @@
+package duke.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.IntConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import duke.models.LoadMode;
+import duke.models.Storage;
+import duke.models.StorageFormat;
+
+public class UiTest {
+    private static final int WRITER_COUNT = 16;
+    private static final int ADDS_PER_WRITER = 250;
+    private static final int PAGE_SIZE = 10_000;
+    private static final long WRITER_TIMEOUT_MILLIS = 60_000;
+    private static final Pattern TASK_COUNT = Pattern.compile("Now you have (\\d+) tasks");
+
+    @Test
+    void concurrentAddsLoseNoUpdates() throws Exception {
+        Path directory = Files.createTempDirectory("duke-ui-test");
+        Ui ui = newUi(directory);
+        Set<Integer> reportedCounts = ConcurrentHashMap.newKeySet();
+
+        runWriters(writer -> {
+            for (int i = 0; i < ADDS_PER_WRITER; i++) {
+                Matcher matcher = TASK_COUNT.matcher(ui.respondToInput("todo w" + writer + " n" + i));
+                assertTrue(matcher.find(), "todo should reply with the number of tasks");
+                reportedCounts.add(Integer.parseInt(matcher.group(1)));
+            }
+        });
+
+        // every add committed on top of a different list, so no two replies saw the same count
+        int expectedCount = WRITER_COUNT * ADDS_PER_WRITER;
+        assertEquals(expectedCount, reportedCounts.size());
+        assertTrue(reportedCounts.contains(expectedCount), "last add should see every task");
+        assertTrue(newUi(directory).respondToInput("todo one more").contains(
+                "Now you have " + (expectedCount + 1) + " tasks"), "journal should replay every add");
+    }
+
+    @Test
+    void concurrentAddsAndDeletesReplayToSameList() throws Exception {
+        Path directory = Files.createTempDirectory("duke-ui-test");
+        Ui ui = newUi(directory);
+
+        runWriters(writer -> {
+            for (int i = 1; i <= ADDS_PER_WRITER; i++) {
+                ui.respondToInput("todo w" + writer + " n" + i);
+                if (i % 20 == 0) {
+                    ui.respondToInput("done all matching w" + writer);
+                } else if (i % 30 == 0) {
+                    // deletes shift the indexes of every later task, whichever thread added it
+                    ui.respondToInput("delete all matching w" + writer);
+                }
+            }
+        });
+
+        String list = ui.respondToInput("list");
+        // 40 tasks of each writer are left after its last delete at 210
+        assertEquals(WRITER_COUNT * 40 + 1, list.split("\n").length);
+        assertEquals(list, newUi(directory).respondToInput("list"));
+    }
+
+    @Test
+    void lazyLoadListsSameTasksAsEagerLoad() throws Exception {
+        Path directory = Files.createTempDirectory("duke-ui-test");
+        Files.write(directory.resolve("duke.txt"), ("T|0|read book\nD|0|pay bills|21/12/20a0 1300\n"
+                + "E|0|meeting|01/01/2020 1000\nT|0|return book\n").getBytes(StandardCharsets.UTF_8));
+        // the journal marks the last task as done by its position
+        Files.write(directory.resolve("duke.txt.journal"), "x|2\n".getBytes(StandardCharsets.UTF_8));
+
+        String list = newUi(directory, LoadMode.EAGER).respondToInput("list");
+        assertTrue(list.contains("3.[T][\u2713] return book"), "line with a bad date should be skipped");
+        assertEquals(list, newUi(directory, LoadMode.LAZY).respondToInput("list"));
+    }
+
+    @Test
+    void bulkCommandsPickEveryIndexTyped() throws Exception {
+        Ui ui = newUi(Files.createTempDirectory("duke-ui-test"));
+        for (int task = 1; task <= 40; task++) {
+            ui.respondToInput("todo task " + task);
+        }
+        ui.respondToInput("todo read book");
+
+        assertTrue(ui.respondToInput("done 3 7").startsWith("Nice! I've marked these 2 tasks as done:"));
+        String list = ui.respondToInput("list");
+        assertTrue(list.contains("3.[T][\u2713] task 3") && list.contains("7.[T][\u2713] task 7"));
+        assertTrue(list.contains("37.[T][\u2718] task 37"), "3 7 should not pick the thirty-seventh task");
+
+        assertTrue(ui.respondToInput("done all matching book").startsWith("Nice! I've marked this task as done:"));
+        String reply = ui.respondToInput("delete 3 7");
+        assertTrue(reply.startsWith("Noted. I've removed these 2 tasks:"), reply);
+        assertTrue(reply.contains("Now you have 39 tasks"), reply);
+        assertTrue(ui.respondToInput("delete 1-500").contains("does not exist"));
+    }
+
+    private static Ui newUi(Path directory) {
+        return newUi(directory, LoadMode.EAGER);
+    }
+
+    private static Ui newUi(Path directory, LoadMode loadMode) {
+        String directoryPath = directory.toString() + "/";
+        return new Ui(new Storage(directoryPath + "duke.txt", directoryPath, true, StorageFormat.TEXT, loadMode),
+                PAGE_SIZE);
+    }
+
+    private static void runWriters(IntConsumer writes) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] writers = new Thread[WRITER_COUNT];
+        Set<Throwable> failures = ConcurrentHashMap.newKeySet();
+        for (int writer = 0; writer < WRITER_COUNT; writer++) {
+            int writerIndex = writer;
+            writers[writer] = new Thread(() -> {
+                try {
+                    start.await();
+                    writes.accept(writerIndex);
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            // a writer stuck waiting for its turn to persist must not keep the tests running
+            writers[writer].setDaemon(true);
+            writers[writer].start();
+        }
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join(WRITER_TIMEOUT_MILLIS);
+            assertTrue(!writer.isAlive(), "writers should finish");
+        }
+        assertTrue(failures.isEmpty(), "writers should not fail: " + failures);
+    }
+}
@@ -0,0 +1,46 @@
+package duke.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class DateTimeCodecTest {
+    @Test
+    void matchesDateTimeFormatter() {
+        DateTimeFormatter inputFormat = DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm");
+        DateTimeFormatter outputFormat = DateTimeFormatter.ofPattern("EEE dd MMM yyyy HH:mm");
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            LocalDateTime dateTime = LocalDateTime.of(1900 + random.nextInt(300), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60));
+            String input = dateTime.format(inputFormat);
+            long epochMinute = DateTimeCodec.parseEpochMinute(input);
+            assertEquals(DateTimeCodec.toEpochMinute(dateTime), epochMinute);
+            assertEquals(input, DateTimeCodec.formatInput(epochMinute));
+            assertEquals(dateTime.format(outputFormat), DateTimeCodec.formatPretty(epochMinute));
+        }
+    }
+
+    @Test
+    void parsesSingleDigitDays() {
+        assertEquals(DateTimeCodec.parseEpochMinute("01/12/2020 0800"),
+                DateTimeCodec.parseEpochMinute("1/12/2020 0800"));
+    }
+
+    @Test
+    void rejectsMalformedDateTimes() {
+        assertThrows(DateTimeParseException.class, () -> DateTimeCodec.parseEpochMinute("32/12/2020 0800"));
+        assertThrows(DateTimeParseException.class, () -> DateTimeCodec.parseEpochMinute("12/13/2020 0800"));
+        assertThrows(DateTimeParseException.class, () -> DateTimeCodec.parseEpochMinute("12/12/2020 2460"));
+        assertThrows(DateTimeParseException.class, () -> DateTimeCodec.parseEpochMinute("1/2/2020 0800"));
+        assertThrows(DateTimeParseException.class, () -> DateTimeCodec.parseEpochMinute("21/12/20a0 1300"));
+        // yyyy counts years of the common era, which start at 1
+        assertThrows(DateTimeParseException.class, () -> DateTimeCodec.parseEpochMinute("01/01/0000 1200"));
+    }
+}
@@ -0,0 +1,71 @@
+package duke.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import duke.exceptions.DukeTaskIndexOutOfRangeException;
+
+public class ParserTest {
+    @Test
+    void skipsRepeatedWhitespace() {
+        Parser parser = new Parser("  update   2  -m\tread book\r");
+        assertEquals(Commands.UPDATE, parser.getCommand());
+        assertEquals(Arrays.asList("2", "-m", "read", "book"), parser.getCommandArgs());
+    }
+
+    @Test
+    void looksUpEveryCommandIgnoringCase() {
+        for (Commands command : Commands.values()) {
+            if (command.getKeyword() != null) {
+                assertEquals(command, new Parser(command.getKeyword().toUpperCase() + " 1").getCommand());
+            }
+        }
+        // prefixes and longer words of a command are not that command
+        for (String input : Arrays.asList("", "   ", "do", "doneall", "deletes 1", "1 done", "évent")) {
+            assertEquals(Commands.UNKNOWN, new Parser(input).getCommand());
+        }
+    }
+
+    @Test
+    void joinsArgsWithTheWhitespaceTyped() {
+        List<String> commandArgs = new Parser("update 1 -m a  b\t c\r").getCommandArgs();
+        assertEquals("a  b\t c", Parser.joinArgs(commandArgs.subList(2, commandArgs.size())));
+        assertEquals("b\t c", Parser.joinArgs(commandArgs.subList(2, commandArgs.size()).subList(1, 3)));
+        assertEquals("", Parser.joinArgs(commandArgs.subList(1, 1)));
+    }
+
+    @Test
+    void parsesIndexListsAndRanges() throws Exception {
+        assertEquals(Arrays.asList(2, 6, 8), selectionOf("done 3,7,9", 10));
+        assertEquals(500, selectionOf("done 1-500", 500).size());
+        assertEquals(Arrays.asList(0, 1, 2, 6), selectionOf("delete 1 - 3, 7", 10));
+        assertThrows(DukeTaskIndexOutOfRangeException.class, () -> selectionOf("done 1-500", 499));
+    }
+
+    @Test
+    void spacesSeparateIndexes() throws Exception {
+        List<String> commandArgs = new Parser("delete 3 7").getCommandArgs();
+        assertTrue(Parser.isBulkSelection(commandArgs));
+        assertEquals(Arrays.asList(2, 6), selectionOf("delete 3 7", 40));
+        assertFalse(Parser.isBulkSelection(new Parser("delete 37").getCommandArgs()));
+    }
+
+    @Test
+    void blankInputHasNoArgs() {
+        List<String> commandArgs = new Parser(" ").getCommandArgs();
+        assertEquals(0, commandArgs.size());
+    }
+
+    private static List<Integer> selectionOf(String input, int todosCount) throws Exception {
+        int[] indexes = Parser.parseIndexSelection(new Parser(input).getCommandArgs(), todosCount);
+        return Arrays.stream(indexes).boxed().collect(Collectors.toList());
+    }
+}
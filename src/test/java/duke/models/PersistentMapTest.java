@@ -0,0 +1,117 @@
+package duke.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class PersistentMapTest {
+    private static final int KEY_COUNT = 2000;
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(42);
+        Map<Key, Integer> expected = new HashMap<>();
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 50000; i++) {
+            Key key = randomKey(random);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, i);
+                map = map.put(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+            if (i % 5000 == 0) {
+                assertSameEntries(expected, map);
+            }
+        }
+        assertSameEntries(expected, map);
+    }
+
+    @Test
+    void olderVersionsAreUnchanged() {
+        Random random = new Random(7);
+        Map<Key, Integer> expected = new HashMap<>();
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 500; i++) {
+            Key key = randomKey(random);
+            expected.put(key, i);
+            map = map.put(key, i);
+        }
+        PersistentMap<Key, Integer> updated = map;
+        for (Key key : expected.keySet()) {
+            updated = updated.put(key, -1).remove(new Key(key.id, key.hash + 1));
+        }
+        // original map should not see any of the changes made to its successors
+        assertSameEntries(expected, map);
+        assertEquals(-1, (int) updated.get(expected.keySet().iterator().next()));
+    }
+
+    @Test
+    void removingEveryKeyLeavesEmptyMap() {
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        for (int id = 0; id < 100; id++) {
+            // ids sharing a hash end up in collision nodes, the others in bitmap nodes
+            map = map.put(new Key(id, id < 50 ? id % 5 : id << 10), id);
+        }
+        assertSame(map, map.remove(new Key(100, 0)), "removing a missing key should change nothing");
+        assertSame(map, map.put(new Key(7, 2), 7), "mapping a key to its value should change nothing");
+
+        for (int id = 99; id >= 0; id--) {
+            map = map.remove(new Key(id, id < 50 ? id % 5 : id << 10));
+            assertEquals(id, map.size());
+            if (id > 0) {
+                // removing a colliding key collapses its node, the rest must still be found
+                assertEquals(0, (int) map.get(new Key(0, 0)));
+            }
+        }
+        assertNull(map.get(new Key(0, 0)));
+        assertEquals(1, (int) map.put(new Key(0, 0), 1).get(new Key(0, 0)));
+    }
+
+    private static Key randomKey(Random random) {
+        int id = random.nextInt(KEY_COUNT);
+        // a few hashes shared by many keys, plus hashes differing only in their high bits
+        int hash = random.nextBoolean() ? id % 16 : id << 25 | id % 3;
+        return new Key(id, hash);
+    }
+
+    private static void assertSameEntries(Map<Key, Integer> expected, PersistentMap<Key, Integer> map) {
+        assertEquals(expected.size(), map.size());
+        for (int id = 0; id < KEY_COUNT; id++) {
+            for (Key key : new Key[] {new Key(id, id % 16), new Key(id, id << 25 | id % 3)}) {
+                assertEquals(expected.get(key), map.get(key));
+            }
+        }
+    }
+
+    /**
+     * Key whose hashCode is picked by the test, so that keys can be made to collide
+     */
+    private static final class Key {
+        private final int id;
+        private final int hash;
+
+        private Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && ((Key) other).id == this.id && ((Key) other).hash == this.hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package duke.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class PersistentVectorTest {
+    @Test
+    void appendAndGet() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int i = 0; i < 5000; i++) {
+            vector = vector.append(i);
+        }
+        assertEquals(5000, vector.size());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i, (int) vector.get(i));
+        }
+    }
+
+    @Test
+    void olderVersionsAreUnchanged() {
+        List<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            source.add(i);
+        }
+        PersistentVector<Integer> vector = PersistentVector.of(source);
+        PersistentVector<Integer> updated = vector.update(1500, -1).removeAt(3).append(2000);
+        // original vector should not see any of the changes made to its successors
+        assertEquals(source, vector);
+        assertEquals(2000, updated.size());
+        assertEquals(-1, (int) updated.get(1499));
+        assertEquals(4, (int) updated.get(3));
+    }
+
+    @Test
+    void randomOperationsMatchArrayList() {
+        Random random = new Random(42);
+        List<Integer> expected = new ArrayList<>();
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int i = 0; i < 20000; i++) {
+            int op = random.nextInt(4);
+            if (op == 0 || expected.isEmpty()) {
+                expected.add(i);
+                vector = vector.append(i);
+            } else if (op == 1) {
+                int idx = random.nextInt(expected.size() + 1);
+                expected.add(idx, i);
+                vector = vector.insert(idx, i);
+            } else if (op == 2) {
+                int idx = random.nextInt(expected.size());
+                expected.set(idx, i);
+                vector = vector.update(idx, i);
+            } else {
+                int idx = random.nextInt(expected.size());
+                expected.remove(idx);
+                vector = vector.removeAt(idx);
+            }
+        }
+        assertEquals(expected, vector);
+        assertEquals(expected, new ArrayList<>(vector));
+    }
+
+    @Test
+    void lazyVectorOnlyDecodesLeavesThatAreRead() {
+        AtomicInteger decodeCount = new AtomicInteger();
+        PersistentVector<Integer> vector = PersistentVector.lazy(10000, i -> {
+            decodeCount.incrementAndGet();
+            return i;
+        });
+        assertEquals(10000, vector.size());
+        assertEquals(0, decodeCount.get());
+
+        // reading or changing an element only decodes the leaf holding it
+        assertEquals(5000, (int) vector.get(5000));
+        PersistentVector<Integer> updated = vector.update(9000, -1).removeAt(100);
+        assertEquals(96, decodeCount.get());
+        assertEquals(-1, (int) updated.get(8999));
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, vector);
+        assertEquals(10000, decodeCount.get());
+    }
+}
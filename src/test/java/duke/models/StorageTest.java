@@ -0,0 +1,76 @@
+package duke.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+public class StorageTest {
+    @Test
+    void partialTemporarySnapshotWithoutJournalIsDiscarded() throws Exception {
+        Path directory = Files.createTempDirectory("duke-storage-test");
+        newStorage(directory).saveTasksToLocalDatabase(List.of(Optional.of(new Todo("read book")),
+                Optional.of(new Todo("return book", true))));
+
+        // crash while a snapshot was half written, with nothing journalled since the last save
+        Path temporarySnapshot = directory.resolve("duke.txt.tmp");
+        Files.write(temporarySnapshot, "T|0|half wri".getBytes(StandardCharsets.UTF_8));
+
+        List<Optional<? extends Todo>> todos = newStorage(directory).retrieveLocalDatabase();
+        assertEquals(2, todos.size());
+        assertEquals("read book", todos.get(0).get().getRawMessage());
+        assertEquals("return book", todos.get(1).get().getRawMessage());
+        assertFalse(Files.exists(temporarySnapshot));
+    }
+
+    @Test
+    void completeSnapshotReplacesCompactingJournal() throws Exception {
+        Path directory = Files.createTempDirectory("duke-storage-test");
+        newStorage(directory).saveTasksToLocalDatabase(List.of(Optional.of(new Todo("read book"))));
+
+        // crash after the snapshot folding the journal was complete, before it was moved into place
+        Files.write(directory.resolve("duke.txt.complete"), "T|0|read book\nT|0|new book\n"
+                .getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("duke.txt.journal.compacting"), "+|T|0|new book\n"
+                .getBytes(StandardCharsets.UTF_8));
+
+        List<Optional<? extends Todo>> todos = newStorage(directory).retrieveLocalDatabase();
+        assertEquals(2, todos.size());
+        assertEquals("new book", todos.get(1).get().getRawMessage());
+    }
+
+    @Test
+    void binaryMigrationReplaysTextJournal() throws Exception {
+        Path directory = Files.createTempDirectory("duke-storage-test");
+        Files.write(directory.resolve("duke.txt"), "T|0|read book\nT|0|return book\n".getBytes(StandardCharsets.UTF_8));
+        // changes journalled by the last session in text format, never saved into the text file
+        Files.write(directory.resolve("duke.txt.journal"), "x|0\n-|1\n+|T|0|new book\n"
+                .getBytes(StandardCharsets.UTF_8));
+
+        String directoryPath = directory.toString() + "/";
+        List<Optional<? extends Todo>> todos = new Storage(directoryPath + "duke.txt", directoryPath, true,
+                StorageFormat.BINARY).retrieveLocalDatabase();
+        assertEquals(2, todos.size());
+        assertTrue(todos.get(0).get().isTodoDone());
+        assertEquals("new book", todos.get(1).get().getRawMessage());
+        assertFalse(Files.exists(directory.resolve("duke.txt.journal")));
+
+        // the binary snapshot folds in the journal, so the next load reads the same tasks from it
+        List<Optional<? extends Todo>> reloaded = new Storage(directoryPath + "duke.txt", directoryPath, true,
+                StorageFormat.BINARY).retrieveLocalDatabase();
+        assertEquals(2, reloaded.size());
+        assertEquals("new book", reloaded.get(1).get().getRawMessage());
+    }
+
+    private static Storage newStorage(Path directory) {
+        String directoryPath = directory.toString() + "/";
+        return new Storage(directoryPath + "duke.txt", directoryPath, true);
+    }
+}
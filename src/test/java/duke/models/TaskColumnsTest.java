@@ -0,0 +1,69 @@
+package duke.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskColumnsTest {
+    @Test
+    void vectorReadsBackEveryTodo() {
+        List<Optional<? extends Todo>> todos = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            todos.add(Optional.of(new Todo("read book", i % 2 == 0)));
+            todos.add(Optional.of(new Deadline("return book é " + i, i % 3 == 0, "20/10/2021 1900")));
+            todos.add(Optional.of(new Event("", false, "01/01/2022 0000")));
+            todos.add(Optional.empty());
+        }
+        PersistentVector<Optional<? extends Todo>> vector = TaskColumns.of(todos).toVector();
+
+        assertEquals(todos.size(), vector.size());
+        for (int i = 0; i < todos.size(); i++) {
+            assertSameTodo(todos.get(i), vector.get(i));
+        }
+
+        // a change is applied to the vector, the columns behind it stay as they were
+        PersistentVector<Optional<? extends Todo>> updated = vector.update(1, Optional.of(new Todo("changed")))
+                .removeAt(0);
+        assertEquals("changed", updated.get(0).get().getRawMessage());
+        assertSameTodo(todos.get(1), vector.get(1));
+        assertSameTodo(todos.get(399), updated.get(398));
+    }
+
+    @Test
+    void loadersDecodeStraightIntoColumns() throws Exception {
+        Path text = Files.createTempFile("duke-columns-test", ".txt");
+        Files.write(text, ("T|0|read book\nD|1|return book é|20/10/2021 1900\r\nD|0|bad date|21/12/20a0 1300\n"
+                + "garbage\nE|0|read book|01/01/2022 0000\nT|1|read book").getBytes(StandardCharsets.UTF_8));
+        assertSameTodos(DatabaseLoader.load(text), DatabaseLoader.loadColumns(text).toVector());
+
+        Path binary = Files.createTempFile("duke-columns-test", ".bin");
+        BinaryDatabaseCodec.write(DatabaseLoader.load(text), binary);
+        assertSameTodos(BinaryDatabaseCodec.read(binary), BinaryDatabaseCodec.readColumns(binary).toVector());
+    }
+
+    private static void assertSameTodos(List<Optional<? extends Todo>> expected,
+            List<Optional<? extends Todo>> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameTodo(expected.get(i), actual.get(i));
+            assertEquals(expected.get(i).get().isTodoDone(), actual.get(i).get().isTodoDone());
+        }
+    }
+
+    private static void assertSameTodo(Optional<? extends Todo> expected, Optional<? extends Todo> actual) {
+        assertEquals(expected.isPresent(), actual.isPresent());
+        if (expected.isEmpty()) {
+            return;
+        }
+        assertEquals(expected.get().getClass(), actual.get().getClass());
+        assertEquals(expected.get().getMessage(), actual.get().getMessage());
+        assertEquals(expected.get().getRawMessage(), actual.get().getRawMessage());
+    }
+}
@@ -0,0 +1,149 @@
+package duke.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import duke.controllers.Ui;
+import duke.models.Storage;
+
+public class TaskServerTest {
+    private static final int PAGE_SIZE = 1000;
+    private static final int THREAD_COUNT = 4;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void changesAndReadsTasks() throws Exception {
+        TaskServer server = startServer();
+        try {
+            HttpResponse<String> added = send(server, "POST", "/tasks",
+                    "{\"type\": \"deadline\", \"description\": \"Assignment \\\"1\\\"\", \"by\": \"20/10/2021 1900\"}");
+            assertEquals(201, added.statusCode());
+            assertTrue(added.body().contains("\"taskCount\":1"), added.body());
+            assertEquals(201, send(server, "POST", "/tasks", "{\"description\": \"read book\"}").statusCode());
+
+            assertEquals(200, send(server, "PATCH", "/tasks/2", "{\"description\": \"read novel\"}").statusCode());
+            assertEquals(200, send(server, "POST", "/tasks/1/done", "").statusCode());
+            assertEquals("{\"page\":1,\"pageCount\":1,\"taskCount\":2,\"tasks\":["
+                    + "{\"index\":1,\"type\":\"deadline\",\"by\":\"20/10/2021 1900\","
+                    + "\"description\":\"Assignment \\\"1\\\"\",\"done\":true},"
+                    + "{\"index\":2,\"type\":\"todo\",\"description\":\"read novel\",\"done\":false}]}",
+                    send(server, "GET", "/tasks", null).body());
+            assertEquals("{\"taskCount\":1,\"tasks\":[{\"index\":2,\"type\":\"todo\",\"description\":\"read novel\","
+                    + "\"done\":false}]}", send(server, "GET", "/tasks?find=novel", null).body());
+
+            // fields are taken whole, whatever flags or spaces they contain
+            assertEquals(201, send(server, "POST", "/tasks",
+                    "{\"type\":\"deadline\",\"description\":\"pay a /by b\",\"by\":\"01/01/2020 1200\"}")
+                    .statusCode());
+            assertEquals(200, send(server, "PATCH", "/tasks/3", "{\"description\": \"-m a  b /at c\"}").statusCode());
+            assertTrue(send(server, "GET", "/tasks?page=1", null).body().contains(
+                    "{\"index\":3,\"type\":\"deadline\",\"by\":\"01/01/2020 1200\",\"description\":\"-m a  b /at c\""));
+
+            assertEquals(200, send(server, "DELETE", "/tasks/1", null).statusCode());
+            assertEquals(400, send(server, "DELETE", "/tasks/5", null).statusCode());
+            assertEquals(400, send(server, "POST", "/tasks", "{\"type\": \"deadline\", \"description\": \"x\"}")
+                    .statusCode());
+            assertEquals(400, send(server, "POST", "/tasks", "{\"description\": [1]}").statusCode());
+            assertEquals(400, send(server, "GET", "/tasks?page=3", null).statusCode());
+            assertEquals(404, send(server, "GET", "/tasks/one", null).statusCode());
+            assertEquals(405, send(server, "PUT", "/tasks", "{}").statusCode());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void rejectsFieldsThatCannotBeSaved() throws Exception {
+        TaskServer server = startServer();
+        try {
+            assertEquals(201, send(server, "POST", "/tasks", "{\"description\": \"read book\"}").statusCode());
+            // a line break would start a journal record deleting the first task, a | would cut the field short
+            assertEquals(400, send(server, "POST", "/tasks", "{\"description\": \"evil\\n-|0\"}").statusCode());
+            assertEquals(400, send(server, "POST", "/tasks", "{\"description\": \"pipe|x\"}").statusCode());
+            assertEquals(400, send(server, "PATCH", "/tasks/1", "{\"description\": \"tab\\tx\"}").statusCode());
+            assertEquals("{\"taskCount\":1,\"tasks\":[{\"index\":1,\"type\":\"todo\",\"description\":\"read book\","
+                    + "\"done\":false}]}", send(server, "GET", "/tasks?find=book", null).body());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void rejectsRequestsWebPagesCanMake() throws Exception {
+        TaskServer server = startServer();
+        try {
+            HttpRequest formPost = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/tasks"))
+                    .header("Content-Type", "text/plain")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"description\": \"read book\"}")).build();
+            assertEquals(400, client.send(formPost, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+            assertEquals(201, send(server, "POST", "/tasks", "{\"description\": \"read book\"}").statusCode());
+            HttpRequest crossOrigin = HttpRequest.newBuilder(
+                    URI.create("http://127.0.0.1:" + server.getPort() + "/tasks/1"))
+                    .header("Origin", "http://example.com").DELETE().build();
+            assertEquals(403, client.send(crossOrigin, HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertTrue(send(server, "GET", "/tasks", null).body().contains("\"taskCount\":1"),
+                    "rejected requests should change nothing");
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void concurrentAddsAreAllKept() throws Exception {
+        TaskServer server = startServer();
+        try {
+            int requestCount = 200;
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < requestCount; i++) {
+                HttpRequest add = request(server, "POST", "/tasks", "{\"description\": \"task " + i + "\"}");
+                responses.add(client.sendAsync(add, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(201, response.get().statusCode());
+            }
+            assertTrue(send(server, "GET", "/tasks", null).body().contains("\"taskCount\":" + requestCount),
+                    "every add should be kept");
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static TaskServer startServer() throws Exception {
+        Path directory = Files.createTempDirectory("duke-server-test");
+        String directoryPath = directory.toString() + "/";
+        Ui ui = new Ui(new Storage(directoryPath + "duke.txt", directoryPath, true), PAGE_SIZE);
+        TaskServer server = new TaskServer(ui, PAGE_SIZE, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                TaskServer.newExecutor(THREAD_COUNT, false));
+        server.start();
+        return server;
+    }
+
+    private HttpResponse<String> send(TaskServer server, String method, String path, String body) throws Exception {
+        return client.send(request(server, method, path, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpRequest request(TaskServer server, String method, String path, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path));
+        if (body == null) {
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+}
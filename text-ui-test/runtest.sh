@@ -10,8 +10,8 @@ fi
 if [ -e "./ACTUAL.TXT" ]
 then
     rm ACTUAL.TXT
-    rm -rf data
 fi
+rm -rf data
 
 # compile the code into the bin folder, terminates if error occurred
 if ! javac \
@@ -19,18 +19,18 @@ if ! javac \
   -Xlint:none \
   -d \
   ../bin \
-  ../src/main/java/*.java \
-  ../src/main/java/controllers/*.java \
-  ../src/main/java/models/*.java \
-  ../src/main/java/views/*.java \
-  ../src/main/java/exceptions/*.java
+  ../src/main/java/duke/*.java \
+  ../src/main/java/duke/controllers/*.java \
+  ../src/main/java/duke/models/*.java \
+  ../src/main/java/duke/views/*.java \
+  ../src/main/java/duke/exceptions/*.java
 then
     echo "********** BUILD FAILURE **********"
     exit 1
 fi
 
 # run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
-java -classpath ../bin Duke < input.txt > ACTUAL.TXT
+java -classpath ../bin duke.BatchDuke < input.txt > ACTUAL.TXT
 
 # convert to UNIX format
 cp EXPECTED.TXT EXPECTED-UNIX.TXT